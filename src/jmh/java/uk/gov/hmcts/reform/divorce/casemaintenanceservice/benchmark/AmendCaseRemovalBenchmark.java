@@ -0,0 +1,98 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import com.google.common.collect.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.AmendCaseRemovedProps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.BASE_AMENDED_CASE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.loadCaseData;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.PREVIOUS_REASONS_DIVORCE_REFUSAL;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REFUSAL_ORDER_REJECTION_REASONS;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_CRITERIA;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_JURISDICTION;
+
+/**
+ * Compares stripping a refused case down to its amend-petition draft with the precomputed removal profiles against
+ * the per call list building and key by key removal it replaced, which is kept here as the baseline.
+ *
+ * <p>The baseline mutates the map it is given, so it works on a copy standing in for the map the CCD client used to
+ * hand over. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} for the allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmendCaseRemovalBenchmark {
+
+    @Param({"0", "500", "2000"})
+    private int extraFields;
+
+    private Map<String, Object> caseData;
+
+    @Setup
+    public void setUp() {
+        caseData = loadCaseData(BASE_AMENDED_CASE);
+        caseData.put(REFUSAL_ORDER_REJECTION_REASONS, Arrays.asList(REJECTION_NO_JURISDICTION, REJECTION_NO_CRITERIA));
+
+        // Long lived cases carry collections and event data the amendment keeps as they are
+        for (int i = 0; i < extraFields; i++) {
+            caseData.put("ExtraField" + i, "value" + i);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> legacyRemoveEachKey() {
+        Map<String, Object> oldCaseData = new HashMap<>(caseData);
+
+        // The previous reasons used to be read from a full copy of the case
+        new HashMap<>(oldCaseData).get(PREVIOUS_REASONS_DIVORCE_REFUSAL);
+
+        List<?> rejectionReasons = (List<?>) oldCaseData.get(REFUSAL_ORDER_REJECTION_REASONS);
+        List<String> propertiesToRemove = new ArrayList<>(Arrays.asList(AmendCaseRemovedProps.getPropertiesToRemoveForRejection()));
+        if (rejectionReasons.contains(REJECTION_NO_JURISDICTION)) {
+            propertiesToRemove.addAll(Arrays.asList(AmendCaseRemovedProps.getPropertiesToRemoveForRejectionJurisdiction()));
+        }
+        if (rejectionReasons.contains(REJECTION_NO_CRITERIA)) {
+            propertiesToRemove.addAll(Arrays.asList(AmendCaseRemovedProps.getPropertiesToRemoveForRejectionAboutDivorce()));
+        }
+        propertiesToRemove.forEach(oldCaseData::remove);
+
+        return oldCaseData;
+    }
+
+    @Benchmark
+    public Map<String, Object> removalProfileCopy() {
+        caseData.get(PREVIOUS_REASONS_DIVORCE_REFUSAL);
+
+        Set<String> propertiesToRemove = AmendCaseRemovedProps.getRefusalRemovalProfile(
+            (List<?>) caseData.get(REFUSAL_ORDER_REJECTION_REASONS));
+        Map<String, Object> amendment = Maps.newLinkedHashMapWithExpectedSize(caseData.size());
+        caseData.forEach((key, value) -> {
+            if (!propertiesToRemove.contains(key)) {
+                amendment.put(key, value);
+            }
+        });
+
+        return amendment;
+    }
+}
@@ -0,0 +1,107 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.FormatterServiceClient;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdRetrievalService;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl.DraftSaveCoalescer;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl.DraftServiceImpl;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl.PetitionServiceImpl;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.AUTH_TOKEN;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.BASE_AMENDED_CASE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.USER_EMAIL;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.USER_ID;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.caseDetails;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.loadCaseData;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_CASE_REFERENCE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.ISSUE_DATE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REFUSAL_ORDER_REJECTION_REASONS;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_CRITERIA;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_JURISDICTION;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole.PETITIONER;
+
+/**
+ * Measures turning an issued case into an amend-petition draft, i.e. stripping the amend or refusal properties,
+ * through the public {@link PetitionServiceImpl} entry points. CCD, the formatter and the draft store are stubbed;
+ * the formatter stub just copies the stripped case data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmendPetitionBenchmark {
+
+    private static final String CASE_ID = "1234567890123456";
+
+    @Param({"false", "true"})
+    private boolean refusal;
+
+    private PetitionServiceImpl petitionService;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Map<String, Object> caseData = loadCaseData(BASE_AMENDED_CASE);
+        caseData.put(D8_CASE_REFERENCE, "LV17D80101");
+        caseData.put(ISSUE_DATE, "2018-06-08");
+        caseData.put(REFUSAL_ORDER_REJECTION_REASONS, Arrays.asList(REJECTION_NO_JURISDICTION, REJECTION_NO_CRITERIA));
+        LocalDateTime now = LocalDateTime.now();
+
+        User user = new User(AUTH_TOKEN, UserDetails.builder().id(USER_ID).email(USER_EMAIL).build());
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.retrieveUser(anyString())).thenReturn(user);
+        Mockito.when(userService.retrieveAnonymousCaseWorkerDetails()).thenReturn(user);
+
+        CcdRetrievalService ccdRetrievalService = Mockito.mock(CcdRetrievalService.class);
+        Mockito.when(ccdRetrievalService.retrieveCase(anyString(), Mockito.eq(PETITIONER)))
+            .thenAnswer(invocation -> caseDetails(Long.parseLong(CASE_ID), CaseState.ISSUED, now, caseData));
+        Mockito.when(ccdRetrievalService.retrieveCaseById(anyString(), anyString()))
+            .thenAnswer(invocation -> caseDetails(Long.parseLong(CASE_ID), CaseState.DN_IS_REFUSED, now, caseData));
+
+        FormatterServiceClient formatterServiceClient = Mockito.mock(FormatterServiceClient.class);
+        Mockito.when(formatterServiceClient.transformToDivorceFormat(any(), anyString()))
+            .thenAnswer(invocation -> new HashMap<>((Map<String, Object>) invocation.getArgument(0)));
+
+        petitionService = new PetitionServiceImpl();
+        ReflectionTestUtils.setField(petitionService, "userService", userService);
+        ReflectionTestUtils.setField(petitionService, "ccdRetrievalService", ccdRetrievalService);
+        ReflectionTestUtils.setField(petitionService, "formatterServiceClient", formatterServiceClient);
+        ReflectionTestUtils.setField(petitionService, "draftService", Mockito.mock(DraftServiceImpl.class));
+        ReflectionTestUtils.setField(petitionService, "draftSaveCoalescer", Mockito.mock(DraftSaveCoalescer.class));
+        ReflectionTestUtils.setField(petitionService, "upstreamLookupExecutor", (Executor) Runnable::run);
+    }
+
+    @Benchmark
+    public Map<String, Object> createAmendedPetitionDraft() {
+        return refusal
+            ? petitionService.createAmendedPetitionDraftRefusalFromCaseId(AUTH_TOKEN, CASE_ID)
+            : petitionService.createAmendedPetitionDraft(AUTH_TOKEN);
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the CCD payload fixtures shared with the functional tests and builds stub upstream responses from them.
+ */
+final class BenchmarkFixtures {
+
+    static final String BASE_CASE = "ccd-submission-payload/base-case.json";
+    static final String BASE_AMENDED_CASE = "ccd-submission-payload/base-amended-case.json";
+    static final String ADDRESSES_NO_HWF = "ccd-submission-payload/addresses-no-hwf.json";
+
+    static final String USER_ID = "1";
+    static final String USER_EMAIL = "simulate-delivered@notifications.service.gov.uk";
+    static final String AUTH_TOKEN = "Bearer benchmark-user-token";
+    static final String SERVICE_TOKEN = "benchmark-service-token";
+
+    // Same defaults Spring Boot applies to the application's ObjectMapper
+    static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private BenchmarkFixtures() {
+    }
+
+    static byte[] loadResource(String path) {
+        try (InputStream inputStream = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(path)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException(String.format("Could not find resource in path %s", path));
+            }
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Map<String, Object> loadCaseData(String path) {
+        try {
+            return OBJECT_MAPPER.readValue(loadResource(path), new TypeReference<Map<String, Object>>() {
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds a fresh case every time, as the services under test mutate the state and data they are handed.
+     */
+    static CaseDetails caseDetails(long id, CaseState state, LocalDateTime createdDate, Map<String, Object> caseData) {
+        return CaseDetails.builder()
+            .id(id)
+            .jurisdiction("DIVORCE")
+            .caseTypeId("DIVORCE")
+            .state(state.getValue())
+            .createdDate(createdDate)
+            .lastModified(createdDate)
+            .data(new HashMap<>(caseData))
+            .build();
+    }
+}
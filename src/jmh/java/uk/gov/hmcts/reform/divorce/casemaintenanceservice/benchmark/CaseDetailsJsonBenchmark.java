@@ -0,0 +1,75 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.OBJECT_MAPPER;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.caseDetails;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.loadCaseData;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.loadResource;
+
+/**
+ * Measures Jackson reading and writing the CCD payload fixtures, both as raw case data and wrapped in
+ * {@link CaseDetails} as CCD returns them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaseDetailsJsonBenchmark {
+
+    private static final TypeReference<Map<String, Object>> CASE_DATA_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    @Param({
+        BenchmarkFixtures.BASE_CASE,
+        BenchmarkFixtures.BASE_AMENDED_CASE,
+        BenchmarkFixtures.ADDRESSES_NO_HWF
+    })
+    private String fixture;
+
+    private byte[] caseDataJson;
+    private CaseDetails caseDetails;
+    private byte[] caseDetailsJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        caseDataJson = loadResource(fixture);
+        caseDetails = caseDetails(1234567890123456L, CaseState.SUBMITTED, LocalDateTime.now(), loadCaseData(fixture));
+        caseDetailsJson = OBJECT_MAPPER.writeValueAsBytes(caseDetails);
+    }
+
+    @Benchmark
+    public Map<String, Object> readCaseData() throws IOException {
+        return OBJECT_MAPPER.readValue(caseDataJson, CASE_DATA_TYPE);
+    }
+
+    @Benchmark
+    public CaseDetails readCaseDetails() throws IOException {
+        return OBJECT_MAPPER.readValue(caseDetailsJson, CaseDetails.class);
+    }
+
+    @Benchmark
+    public byte[] writeCaseDetails() throws IOException {
+        return OBJECT_MAPPER.writeValueAsBytes(caseDetails);
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseStateClassifier;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseStateGrouping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.PETITIONER_CASE_STATE_GROUPING;
+
+/**
+ * Compares grouping a citizen's cases by state with the precompiled classifier against the stream and
+ * List.contains based lookup it replaced, which is kept here verbatim as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaseStateClassifierBenchmark {
+
+    @Param({"1", "5", "25"})
+    private int caseCount;
+
+    private List<CaseDetails> cases;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        CaseState[] states = CaseState.values();
+
+        cases = new ArrayList<>(caseCount);
+        for (int i = 0; i < caseCount; i++) {
+            cases.add(CaseDetails.builder()
+                .id((long) i)
+                .state(states[random.nextInt(states.length)].getValue())
+                .build());
+        }
+    }
+
+    @Benchmark
+    public Map<CaseStateGrouping, List<CaseDetails>> legacyStreamLookup() {
+        return cases.stream()
+            .collect(Collectors.groupingBy(
+                caseDetails -> PETITIONER_CASE_STATE_GROUPING.entrySet().stream()
+                    .filter(caseStateGroupingEntry -> caseStateGroupingEntry.getValue()
+                        .contains(
+                            legacyGetState(caseDetails.getState())
+                        )
+                    )
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse(CaseStateGrouping.UNKNOWN)
+            ));
+    }
+
+    @Benchmark
+    public Map<CaseStateGrouping, List<CaseDetails>> precompiledClassifier() {
+        CaseStateClassifier classifier = CaseRetrievalStateMap.getClassifier(PETITIONER_CASE_STATE_GROUPING);
+        Map<CaseStateGrouping, List<CaseDetails>> statusCaseDetailsMap = new EnumMap<>(CaseStateGrouping.class);
+
+        for (CaseDetails caseDetails : cases) {
+            CaseStateGrouping grouping = classifier.classify(caseDetails.getState());
+            List<CaseDetails> groupedCases = statusCaseDetailsMap.get(grouping);
+
+            if (groupedCases == null) {
+                groupedCases = new ArrayList<>();
+                statusCaseDetailsMap.put(grouping, groupedCases);
+            }
+            groupedCases.add(caseDetails);
+        }
+
+        return statusCaseDetailsMap;
+    }
+
+    private static CaseState legacyGetState(String state) {
+        return Arrays.stream(CaseState.values())
+            .filter(caseState -> caseState.getValue().equalsIgnoreCase(state))
+            .findFirst()
+            .orElse(CaseState.UNKNOWN);
+    }
+}
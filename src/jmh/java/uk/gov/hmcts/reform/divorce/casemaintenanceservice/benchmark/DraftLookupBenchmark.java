@@ -0,0 +1,117 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.DraftStoreClient;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.factory.DraftModelFactory;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.factory.EncryptionKeyFactory;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.Draft;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.DraftList;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl.DraftServiceImpl;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.AUTH_TOKEN;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.BASE_CASE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.SERVICE_TOKEN;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.USER_ID;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.loadCaseData;
+
+/**
+ * Measures {@link DraftServiceImpl#getDraft} paging through a draft store account whose divorce draft sits on the
+ * last page. The draft store is stubbed, so the numbers cover the paging walk and the per-page token handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DraftLookupBenchmark {
+
+    private static final String DIVORCE_FORMAT = "divorcedraft";
+    private static final String CCD_FORMAT = "divorcedraftccdformat";
+    private static final String OTHER_SERVICE_FORMAT = "someotherservicedraft";
+    private static final int DRAFTS_PER_PAGE = 10;
+
+    @Param({"1", "5", "20"})
+    private int pageCount;
+
+    private DraftServiceImpl draftService;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> document = loadCaseData(BASE_CASE);
+        Map<String, DraftList> pagesByCursor = new HashMap<>();
+        DraftList firstPage = null;
+
+        for (int page = 0; page < pageCount; page++) {
+            boolean lastPage = page == pageCount - 1;
+            List<Draft> drafts = new ArrayList<>(DRAFTS_PER_PAGE);
+
+            for (int i = 0; i < DRAFTS_PER_PAGE; i++) {
+                boolean divorceDraft = lastPage && i == DRAFTS_PER_PAGE - 1;
+                drafts.add(new Draft(page + "-" + i, document, divorceDraft ? DIVORCE_FORMAT : OTHER_SERVICE_FORMAT));
+            }
+
+            DraftList draftList = new DraftList(drafts, new DraftList.PagingCursors(lastPage ? null : "cursor-" + (page + 1)));
+            if (page == 0) {
+                firstPage = draftList;
+            } else {
+                pagesByCursor.put("cursor-" + page, draftList);
+            }
+        }
+
+        DraftStoreClient draftStoreClient = Mockito.mock(DraftStoreClient.class);
+        Mockito.when(draftStoreClient.getAllDrafts(anyString(), anyString(), anyString())).thenReturn(firstPage);
+        Mockito.when(draftStoreClient.getAllDrafts(anyString(), anyString(), anyString(), anyString()))
+            .thenAnswer(invocation -> pagesByCursor.get(invocation.<String>getArgument(0)));
+
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.retrieveUser(anyString()))
+            .thenReturn(new User(AUTH_TOKEN, UserDetails.builder().id(USER_ID).build()));
+
+        AuthTokenGenerator authTokenGenerator = Mockito.mock(AuthTokenGenerator.class);
+        Mockito.when(authTokenGenerator.generate()).thenReturn(SERVICE_TOKEN);
+
+        EncryptionKeyFactory encryptionKeyFactory = new EncryptionKeyFactory();
+        ReflectionTestUtils.setField(encryptionKeyFactory, "encryptionKeyTemplate", "%s_%s");
+        ReflectionTestUtils.setField(encryptionKeyFactory, "encryptionKey", "benchmark-encryption-key");
+
+        DraftModelFactory modelFactory = new DraftModelFactory();
+        ReflectionTestUtils.setField(modelFactory, "documentTypeDivorceFormat", DIVORCE_FORMAT);
+        ReflectionTestUtils.setField(modelFactory, "documentTypeCcdFormat", CCD_FORMAT);
+
+        draftService = new DraftServiceImpl();
+        ReflectionTestUtils.setField(draftService, "draftStoreClient", draftStoreClient);
+        ReflectionTestUtils.setField(draftService, "userService", userService);
+        ReflectionTestUtils.setField(draftService, "serviceTokenGenerator", authTokenGenerator);
+        ReflectionTestUtils.setField(draftService, "encryptionKeyFactory", encryptionKeyFactory);
+        ReflectionTestUtils.setField(draftService, "modelFactory", modelFactory);
+    }
+
+    @Benchmark
+    public Draft getDraft() {
+        return draftService.getDraft(AUTH_TOKEN);
+    }
+}
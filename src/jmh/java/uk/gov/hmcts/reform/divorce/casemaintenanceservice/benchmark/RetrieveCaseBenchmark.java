@@ -0,0 +1,121 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl.CcdRetrievalServiceImpl;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl.UserCaseCache;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.AUTH_TOKEN;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.BASE_CASE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.SERVICE_TOKEN;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.USER_EMAIL;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.USER_ID;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.caseDetails;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.loadCaseData;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.PETITIONER_CASE_STATE_GROUPING;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.RESPONDENT_CASE_STATE_GROUPING;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.RESP_EMAIL_ADDRESS;
+
+/**
+ * Measures {@link CcdRetrievalServiceImpl#retrieveCase} choosing a case out of a citizen's case list. CCD and IDAM
+ * are stubbed, so the numbers cover filtering by role, grouping by state and picking the case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RetrieveCaseBenchmark {
+
+    // Never more than one incomplete case, otherwise every invocation would end in a DuplicateCaseException
+    private static final CaseState[] HISTORIC_STATES = {
+        CaseState.AMEND_PETITION,
+        CaseState.REJECTED,
+        CaseState.DIVORCE_GRANTED,
+        CaseState.AWAITING_AMEND_CASE,
+        CaseState.UNKNOWN
+    };
+
+    @Param({"1", "5", "25"})
+    private int caseCount;
+
+    @Param({"PETITIONER", "RESPONDENT"})
+    private DivCaseRole role;
+
+    private CcdRetrievalServiceImpl ccdRetrievalService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> caseData = loadCaseData(BASE_CASE);
+        caseData.put(RESP_EMAIL_ADDRESS, USER_EMAIL);
+        LocalDateTime now = LocalDateTime.now();
+
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.retrieveUser(anyString()))
+            .thenReturn(new User(AUTH_TOKEN, UserDetails.builder().id(USER_ID).email(USER_EMAIL).build()));
+
+        AuthTokenGenerator authTokenGenerator = Mockito.mock(AuthTokenGenerator.class);
+        Mockito.when(authTokenGenerator.generate()).thenReturn(SERVICE_TOKEN);
+
+        List<CaseDetails> cases = new ArrayList<>(caseCount);
+        cases.add(caseDetails(0, CaseState.AOS_STARTED, now, caseData));
+        for (int i = 1; i < caseCount; i++) {
+            cases.add(caseDetails(i, HISTORIC_STATES[i % HISTORIC_STATES.length], now.minusDays(i), caseData));
+        }
+        String[] ccdStates = cases.stream().map(CaseDetails::getState).toArray(String[]::new);
+
+        // The same cases are handed out every time, so the fixture costs nothing per invocation. Only the state of
+        // the chosen case is rewritten by the service, so putting the CCD states back is all it takes to reuse them.
+        CoreCaseDataApi coreCaseDataApi = Mockito.mock(CoreCaseDataApi.class);
+        Mockito.when(coreCaseDataApi.searchForCitizen(anyString(), anyString(), anyString(), anyString(), anyString(), anyMap()))
+            .thenAnswer(invocation -> {
+                for (int i = 0; i < ccdStates.length; i++) {
+                    cases.get(i).setState(ccdStates[i]);
+                }
+                return cases;
+            });
+
+        ccdRetrievalService = new CcdRetrievalServiceImpl();
+        ReflectionTestUtils.setField(ccdRetrievalService, "coreCaseDataApi", coreCaseDataApi);
+        ReflectionTestUtils.setField(ccdRetrievalService, "userService", userService);
+        ReflectionTestUtils.setField(ccdRetrievalService, "authTokenGenerator", authTokenGenerator);
+        ReflectionTestUtils.setField(ccdRetrievalService, "userCaseCache", new UserCaseCache());
+        ReflectionTestUtils.setField(ccdRetrievalService, "jurisdictionId", "DIVORCE");
+        ReflectionTestUtils.setField(ccdRetrievalService, "caseType", "DIVORCE");
+    }
+
+    @Benchmark
+    public CaseDetails retrieveCase() {
+        return ccdRetrievalService.retrieveCase(AUTH_TOKEN,
+            role == DivCaseRole.PETITIONER ? PETITIONER_CASE_STATE_GROUPING : RESPONDENT_CASE_STATE_GROUPING, role);
+    }
+}
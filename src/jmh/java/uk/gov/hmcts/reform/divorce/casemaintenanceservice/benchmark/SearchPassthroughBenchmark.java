@@ -0,0 +1,77 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StreamUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.BASE_CASE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.OBJECT_MAPPER;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.caseDetails;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.benchmark.BenchmarkFixtures.loadCaseData;
+
+/**
+ * Compares relaying a CCD search response as /search did before, decoded into a {@link SearchResult} and written back
+ * out, with copying its bytes across as the passthrough mode does. Run it with {@code -prof gc} to compare the bytes
+ * allocated per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchPassthroughBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int caseCount;
+
+    private byte[] searchResultJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<String, Object> caseData = loadCaseData(BASE_CASE);
+        List<CaseDetails> cases = new ArrayList<>(caseCount);
+        for (int i = 0; i < caseCount; i++) {
+            cases.add(caseDetails(1234567890123456L + i, CaseState.SUBMITTED, LocalDateTime.now(), caseData));
+        }
+
+        searchResultJson = OBJECT_MAPPER.writeValueAsBytes(SearchResult.builder().total(caseCount).cases(cases).build());
+    }
+
+    @Benchmark
+    public void decodeAndWrite() throws IOException {
+        try (InputStream upstream = new ByteArrayInputStream(searchResultJson)) {
+            SearchResult searchResult = OBJECT_MAPPER.readValue(upstream, SearchResult.class);
+            OBJECT_MAPPER.writeValue(OutputStream.nullOutputStream(), searchResult);
+        }
+    }
+
+    @Benchmark
+    public int passthrough() throws IOException {
+        try (InputStream upstream = new ByteArrayInputStream(searchResultJson)) {
+            return StreamUtils.copy(upstream, OutputStream.nullOutputStream());
+        }
+    }
+}
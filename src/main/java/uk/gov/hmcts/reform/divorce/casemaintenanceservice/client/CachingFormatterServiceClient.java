@@ -0,0 +1,130 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormatDirection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+
+/**
+ * Caches the case formatter's transformations, which are a pure function of the request body.
+ *
+ * <p>Entries are keyed on the direction and a SHA-256 of the body serialised with sorted keys, and hold the response
+ * as JSON bytes. Every hit is therefore a fresh copy callers are free to modify, and the cache is bounded by the
+ * number of bytes held rather than by entry count.
+ */
+@Component
+@Primary
+@Slf4j
+public class CachingFormatterServiceClient implements FormatterServiceClient {
+
+    private static final String CACHE_NAME = "case.formatter.transformations";
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    @Value("${case.formatter.service.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${case.formatter.service.cache.max-bytes}")
+    private long maxBytes;
+
+    @Value("${case.formatter.service.cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Autowired
+    @Qualifier(FormatterServiceClient.SELECTED_CLIENT_QUALIFIER)
+    private FormatterServiceClient delegate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong bytesHeld = new AtomicLong();
+
+    private Cache<HashCode, byte[]> transformations;
+    private ObjectMapper canonicalMapper;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        transformations = CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .<HashCode, byte[]>weigher((key, value) -> value.length)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .removalListener((RemovalNotification<HashCode, byte[]> removed) -> bytesHeld.addAndGet(-removed.getValue().length))
+            .recordStats()
+            .build();
+        canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+        GuavaCacheMetrics.monitor(meterRegistry, transformations, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".bytes", bytesHeld, AtomicLong::get)
+            .description("Size of the cached formatter responses")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Map<String, Object> transformToCCDFormat(Object data, String authorisation) {
+        return transform(FormatDirection.TO_CCD, data, () -> delegate.transformToCCDFormat(data, authorisation));
+    }
+
+    @Override
+    public Map<String, Object> transformToDivorceFormat(Object data, String authorisation) {
+        return transform(FormatDirection.TO_DIVORCE, data, () -> delegate.transformToDivorceFormat(data, authorisation));
+    }
+
+    private Map<String, Object> transform(FormatDirection direction, Object data, Supplier<Map<String, Object>> call) {
+        if (transformations == null) {
+            return call.get();
+        }
+
+        try {
+            final HashCode key = Hashing.sha256().newHasher()
+                .putInt(direction.ordinal())
+                .putBytes(canonicalMapper.writeValueAsBytes(data))
+                .hash();
+
+            byte[] cached = transformations.getIfPresent(key);
+            if (cached == null) {
+                Map<String, Object> transformed = call.get();
+                if (transformed == null) {
+                    return null;
+                }
+
+                cached = objectMapper.writeValueAsBytes(transformed);
+                bytesHeld.addAndGet(cached.length);
+                transformations.put(key, cached);
+            }
+
+            return objectMapper.readValue(cached, MAP_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not cache case formatter transformation", e);
+        }
+    }
+}
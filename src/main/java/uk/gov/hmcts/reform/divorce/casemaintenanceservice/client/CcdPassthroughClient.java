@@ -0,0 +1,48 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
+
+import feign.Response;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * The CCD endpoints whose responses are relayed to our callers unchanged. Unlike
+ * {@link uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi} it hands back the raw response, which the caller must close.
+ */
+@FeignClient(name = "ccd-passthrough-client", url = "${core_case_data.api.url}")
+public interface CcdPassthroughClient {
+    String SERVICE_AUTHORIZATION_HEADER_NAME = "ServiceAuthorization";
+
+    @GetMapping(value = "/citizens/{uid}/jurisdictions/{jid}/case-types/{ctid}/cases/{cid}",
+        headers = CONTENT_TYPE + "=" + APPLICATION_JSON_VALUE)
+    Response readForCitizen(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorisation,
+                            @RequestHeader(SERVICE_AUTHORIZATION_HEADER_NAME) String serviceAuthorisation,
+                            @PathVariable("uid") String userId,
+                            @PathVariable("jid") String jurisdictionId,
+                            @PathVariable("ctid") String caseType,
+                            @PathVariable("cid") String caseId);
+
+    @GetMapping(value = "/caseworkers/{uid}/jurisdictions/{jid}/case-types/{ctid}/cases/{cid}",
+        headers = CONTENT_TYPE + "=" + APPLICATION_JSON_VALUE)
+    Response readForCaseWorker(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorisation,
+                               @RequestHeader(SERVICE_AUTHORIZATION_HEADER_NAME) String serviceAuthorisation,
+                               @PathVariable("uid") String userId,
+                               @PathVariable("jid") String jurisdictionId,
+                               @PathVariable("ctid") String caseType,
+                               @PathVariable("cid") String caseId);
+
+    @PostMapping(value = "/searchCases",
+        headers = CONTENT_TYPE + "=" + APPLICATION_JSON_VALUE)
+    Response searchCases(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorisation,
+                         @RequestHeader(SERVICE_AUTHORIZATION_HEADER_NAME) String serviceAuthorisation,
+                         @RequestParam("ctid") String caseType,
+                         @RequestBody String query);
+}
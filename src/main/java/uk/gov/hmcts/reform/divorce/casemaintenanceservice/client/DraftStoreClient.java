@@ -3,6 +3,7 @@ package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -43,7 +44,7 @@ public interface DraftStoreClient {
     @ApiOperation("Create single draft case")
     @PostMapping(value = "/drafts",
         headers = CONTENT_TYPE + "=" + APPLICATION_JSON_VALUE)
-    void createSingleDraft(@RequestBody CreateDraft draft,
+    ResponseEntity<Void> createSingleDraft(@RequestBody CreateDraft draft,
                                 @RequestHeader(HttpHeaders.AUTHORIZATION) String authorisation,
                                 @RequestHeader(SERVICE_AUTHORIZATION_HEADER_NAME) String serviceAuthorisation,
                                 @RequestHeader(SECRET_HEADER_NAME) String secret);
@@ -12,8 +12,11 @@ import java.util.Map;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
-@FeignClient(name = "formatter-service-client", url = "${case.formatter.service.api.baseurl}")
+@FeignClient(name = "formatter-service-client", url = "${case.formatter.service.api.baseurl}",
+    primary = false, qualifier = FormatterServiceClient.FEIGN_CLIENT_QUALIFIER)
 public interface FormatterServiceClient {
+    String FEIGN_CLIENT_QUALIFIER = "formatterServiceFeignClient";
+    String SELECTED_CLIENT_QUALIFIER = "selectedFormatterServiceClient";
 
 
     @ApiOperation("Transform to CCD Format")
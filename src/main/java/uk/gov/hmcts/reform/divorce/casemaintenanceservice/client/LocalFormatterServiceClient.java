@@ -0,0 +1,86 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FieldMappingEngine;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FieldMappingSpec;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormatDirection;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormattingResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.UnsupportedPayloadException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+
+/**
+ * Formats cases in process from the field mapping specification, instead of calling the formatter service.
+ *
+ * <p>Payloads with fields the specification does not cover, or formatted into a side whose derived fields the engine
+ * cannot build yet, are rejected with an {@link UnsupportedPayloadException} rather than formatted partially.
+ */
+@Component
+public class LocalFormatterServiceClient implements FormatterServiceClient {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    @Value("${case.formatter.service.local.spec-location}")
+    private Resource specLocation;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private FieldMappingEngine engine;
+
+    @PostConstruct
+    public void init() throws IOException {
+        try (InputStream spec = specLocation.getInputStream()) {
+            engine = new FieldMappingEngine(objectMapper.readValue(spec, FieldMappingSpec.class));
+        }
+    }
+
+    @Override
+    public Map<String, Object> transformToCCDFormat(Object data, String authorisation) {
+        return formatCompletely(FormatDirection.TO_CCD, data);
+    }
+
+    @Override
+    public Map<String, Object> transformToDivorceFormat(Object data, String authorisation) {
+        return formatCompletely(FormatDirection.TO_DIVORCE, data);
+    }
+
+    /**
+     * Formats whatever the specification covers, leaving it to the caller to decide what to do with the rest.
+     */
+    public FormattingResult format(FormatDirection direction, Object data) {
+        try {
+            // Same round trip as a call to the formatter service, so the result shares no state with the input
+            Map<String, Object> fields = objectMapper.readValue(objectMapper.writeValueAsBytes(data), MAP_TYPE);
+
+            return engine.format(direction, fields == null ? Collections.emptyMap() : fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read case data for formatting", e);
+        }
+    }
+
+    public FieldMappingEngine getEngine() {
+        return engine;
+    }
+
+    private Map<String, Object> formatCompletely(FormatDirection direction, Object data) {
+        FormattingResult result = format(direction, data);
+
+        if (!result.isComplete()) {
+            throw new UnsupportedPayloadException(direction, result.getUnmappedFields(), result.getMissingFields());
+        }
+
+        return result.getData();
+    }
+}
@@ -0,0 +1,128 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormatDirection;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormatterComparison;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormattingResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseFormatterMode;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Picks between the formatter service and the in-process engine, depending on the configured mode.
+ *
+ * <ul>
+ *     <li>REMOTE always calls the formatter service.</li>
+ *     <li>LOCAL formats in process and falls back to the formatter service for payloads the engine cannot handle.</li>
+ *     <li>COMPARE answers from the formatter service and reports where the engine would have answered differently.</li>
+ * </ul>
+ */
+@Component
+@Qualifier(FormatterServiceClient.SELECTED_CLIENT_QUALIFIER)
+@Slf4j
+public class SelectingFormatterServiceClient implements FormatterServiceClient {
+
+    static final String LOCAL_REQUESTS_METRIC = "case.formatter.local.requests";
+    static final String COMPARISONS_METRIC = "case.formatter.local.comparisons";
+
+    @Value("${case.formatter.service.mode}")
+    private CaseFormatterMode mode;
+
+    @Autowired
+    @Qualifier(FormatterServiceClient.FEIGN_CLIENT_QUALIFIER)
+    private FormatterServiceClient remote;
+
+    @Autowired
+    private LocalFormatterServiceClient local;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public Map<String, Object> transformToCCDFormat(Object data, String authorisation) {
+        return transform(FormatDirection.TO_CCD, data, () -> remote.transformToCCDFormat(data, authorisation));
+    }
+
+    @Override
+    public Map<String, Object> transformToDivorceFormat(Object data, String authorisation) {
+        return transform(FormatDirection.TO_DIVORCE, data, () -> remote.transformToDivorceFormat(data, authorisation));
+    }
+
+    private Map<String, Object> transform(FormatDirection direction, Object data, Supplier<Map<String, Object>> remoteCall) {
+        switch (mode) {
+            case LOCAL:
+                return formatLocally(direction, data, remoteCall);
+            case COMPARE:
+                return compare(direction, data, remoteCall.get());
+            default:
+                return remoteCall.get();
+        }
+    }
+
+    private Map<String, Object> formatLocally(FormatDirection direction, Object data, Supplier<Map<String, Object>> remoteCall) {
+        FormattingResult result;
+        try {
+            result = local.format(direction, data);
+        } catch (RuntimeException e) {
+            log.warn("Case formatter engine failed to format {}, calling the formatter service instead", direction, e);
+            countLocalRequest(direction, "failed");
+            return remoteCall.get();
+        }
+
+        if (!result.isComplete()) {
+            log.debug("No {} mapping for fields {} and cannot build fields {}, calling the formatter service instead",
+                direction, result.getUnmappedFields(), result.getMissingFields());
+            countLocalRequest(direction, "unsupported");
+            return remoteCall.get();
+        }
+
+        countLocalRequest(direction, "formatted");
+        return result.getData();
+    }
+
+    private Map<String, Object> compare(FormatDirection direction, Object data, Map<String, Object> remoteResult) {
+        if (remoteResult == null) {
+            return null;
+        }
+
+        try {
+            FormattingResult localResult = local.format(direction, data);
+            FormatterComparison comparison = FormatterComparison.compare(remoteResult, localResult.getData(),
+                local.getEngine().getTargetFields(direction));
+
+            if (comparison.isMatch()) {
+                countComparison(direction, "match");
+            } else if (!comparison.getMismatchedFields().isEmpty()) {
+                log.warn("Case formatter engine disagrees with the formatter service on {} fields {}",
+                    direction, comparison.getMismatchedFields());
+                countComparison(direction, "mismatch");
+            } else if (localResult.isComplete()) {
+                // LOCAL mode would have answered without these fields
+                log.warn("Case formatter engine leaves out {} fields {} that the formatter service returns",
+                    direction, comparison.getUncoveredFields());
+                countComparison(direction, "uncovered");
+            } else {
+                countComparison(direction, "partial_match");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Case formatter engine failed to format {}", direction, e);
+            countComparison(direction, "failed");
+        }
+
+        return remoteResult;
+    }
+
+    private void countLocalRequest(FormatDirection direction, String outcome) {
+        meterRegistry.counter(LOCAL_REQUESTS_METRIC, "direction", direction.name(), "outcome", outcome).increment();
+    }
+
+    private void countComparison(FormatDirection direction, String outcome) {
+        meterRegistry.counter(COMPARISONS_METRIC, "direction", direction.name(), "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,48 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * How the formatter service builds a field that has no counterpart of its own from another field's value.
+ *
+ * <p>Values a derivation does not recognise produce nothing, so the field is left out.
+ */
+public enum Derivation {
+    DAY_OF_DATE {
+        @Override
+        Object derive(LocalDate date) {
+            return date.getDayOfMonth();
+        }
+    },
+
+    MONTH_OF_DATE {
+        @Override
+        Object derive(LocalDate date) {
+            return date.getMonthValue();
+        }
+    },
+
+    YEAR_OF_DATE {
+        @Override
+        Object derive(LocalDate date) {
+            return date.getYear();
+        }
+    };
+
+    abstract Object derive(LocalDate date);
+
+    /**
+     * Derives the field from a CCD date, e.g. 2001-02-02.
+     */
+    Object derive(Object value) {
+        if (value instanceof String) {
+            try {
+                return derive(LocalDate.parse((String) value));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
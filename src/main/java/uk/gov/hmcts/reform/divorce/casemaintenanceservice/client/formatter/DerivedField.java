@@ -0,0 +1,15 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DerivedField {
+    private FormatDirection direction;
+    private String source;
+    private String target;
+    private Derivation type;
+}
@@ -0,0 +1,22 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FieldMapping {
+    private String divorce;
+    private String ccd;
+    private FieldType type = FieldType.VALUE;
+
+    String source(FormatDirection direction) {
+        return direction == FormatDirection.TO_CCD ? divorce : ccd;
+    }
+
+    String target(FormatDirection direction) {
+        return direction == FormatDirection.TO_CCD ? ccd : divorce;
+    }
+}
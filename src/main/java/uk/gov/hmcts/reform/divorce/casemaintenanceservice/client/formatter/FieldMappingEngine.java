@@ -0,0 +1,81 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a {@link FieldMappingSpec} to top level session or case data fields, in either direction.
+ */
+public class FieldMappingEngine {
+
+    private final Map<FormatDirection, Map<String, FieldMapping>> mappingsBySource = new EnumMap<>(FormatDirection.class);
+    private final Map<FormatDirection, Set<String>> ignoredFields = new EnumMap<>(FormatDirection.class);
+    private final Map<FormatDirection, List<DerivedField>> derivedFields = new EnumMap<>(FormatDirection.class);
+    private final Map<FormatDirection, Set<String>> missingFields = new EnumMap<>(FormatDirection.class);
+
+    public FieldMappingEngine(FieldMappingSpec spec) {
+        for (FormatDirection direction : FormatDirection.values()) {
+            ImmutableMap.Builder<String, FieldMapping> mappings = ImmutableMap.builder();
+            spec.getMappings().forEach(mapping -> mappings.put(mapping.source(direction), mapping));
+
+            // Fails on fields that are mapped twice, the spec would be ambiguous otherwise
+            mappingsBySource.put(direction, mappings.build());
+            ignoredFields.put(direction, ImmutableSet.copyOf(spec.ignoredFields(direction)));
+            derivedFields.put(direction, spec.getDerivedFields().stream()
+                .filter(derived -> derived.getDirection() == direction)
+                .collect(ImmutableList.toImmutableList()));
+            missingFields.put(direction, ImmutableSet.copyOf(new TreeSet<>(spec.missingFields(direction))));
+        }
+    }
+
+    public FormattingResult format(FormatDirection direction, Map<String, Object> data) {
+        Map<String, FieldMapping> mappings = mappingsBySource.get(direction);
+        Set<String> ignored = ignoredFields.get(direction);
+
+        Map<String, Object> formatted = new LinkedHashMap<>();
+        Set<String> unmappedFields = new TreeSet<>();
+
+        data.forEach((field, value) -> {
+            if (value == null || ignored.contains(field)) {
+                return;
+            }
+
+            FieldMapping mapping = mappings.get(field);
+            if (mapping == null) {
+                unmappedFields.add(field);
+            } else {
+                formatted.put(mapping.target(direction), mapping.getType().convert(value, direction));
+            }
+        });
+
+        derivedFields.get(direction).forEach(derived -> {
+            Object value = derived.getType().derive(data.get(derived.getSource()));
+            if (value != null) {
+                formatted.put(derived.getTarget(), value);
+            }
+        });
+
+        return new FormattingResult(formatted, unmappedFields, missingFields.get(direction));
+    }
+
+    /**
+     * Fields the engine can produce in the given direction, whether mapped or derived.
+     */
+    public Set<String> getTargetFields(FormatDirection direction) {
+        FormatDirection reverse = direction == FormatDirection.TO_CCD ? FormatDirection.TO_DIVORCE : FormatDirection.TO_CCD;
+
+        return ImmutableSet.<String>builder()
+            .addAll(mappingsBySource.get(reverse).keySet())
+            .addAll(derivedFields.get(direction).stream().map(DerivedField::getTarget).collect(Collectors.toList()))
+            .build();
+    }
+}
@@ -0,0 +1,36 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Declarative description of how the divorce session maps onto CCD case data.
+ *
+ * <p>Fields listed as ignored are known to have no counterpart on the other side and are dropped. Any other field
+ * that is not mapped makes the payload unsupported, so it can be handed to the formatter service instead.
+ *
+ * <p>Derived fields are built from another field in the payload, as the formatter service does. Fields listed as
+ * missing are ones the formatter service adds to its output that the engine cannot build yet, so no payload formatted
+ * into that side is complete while any are listed.
+ */
+@Data
+public class FieldMappingSpec {
+    private List<FieldMapping> mappings = new ArrayList<>();
+    private Set<String> ignoredDivorceFields = new HashSet<>();
+    private Set<String> ignoredCcdFields = new HashSet<>();
+    private List<DerivedField> derivedFields = new ArrayList<>();
+    private Set<String> missingDivorceFields = new HashSet<>();
+    private Set<String> missingCcdFields = new HashSet<>();
+
+    Set<String> ignoredFields(FormatDirection direction) {
+        return direction == FormatDirection.TO_CCD ? ignoredDivorceFields : ignoredCcdFields;
+    }
+
+    Set<String> missingFields(FormatDirection direction) {
+        return direction == FormatDirection.TO_CCD ? missingCcdFields : missingDivorceFields;
+    }
+}
@@ -0,0 +1,148 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * How a single field's value changes between the divorce session and the CCD case data.
+ *
+ * <p>Values a type does not recognise are passed through as they are, which is what the formatter service does.
+ */
+public enum FieldType {
+    VALUE {
+        @Override
+        Object toCcd(Object value) {
+            return value;
+        }
+
+        @Override
+        Object toDivorce(Object value) {
+            return value;
+        }
+    },
+
+    /**
+     * "Yes" / "No" answers, which CCD holds in upper case.
+     */
+    YES_NO {
+        @Override
+        Object toCcd(Object value) {
+            if (YES.equalsIgnoreCase(String.valueOf(value))) {
+                return CCD_YES;
+            }
+            if (NO.equalsIgnoreCase(String.valueOf(value))) {
+                return CCD_NO;
+            }
+            return value;
+        }
+
+        @Override
+        Object toDivorce(Object value) {
+            if (CCD_YES.equalsIgnoreCase(String.valueOf(value))) {
+                return YES;
+            }
+            if (CCD_NO.equalsIgnoreCase(String.valueOf(value))) {
+                return NO;
+            }
+            return value;
+        }
+    },
+
+    /**
+     * Flags the session holds as booleans and CCD holds as "YES" / "NO".
+     */
+    BOOLEAN_YES_NO {
+        @Override
+        Object toCcd(Object value) {
+            if (value instanceof Boolean) {
+                return (Boolean) value ? CCD_YES : CCD_NO;
+            }
+            return value;
+        }
+
+        @Override
+        Object toDivorce(Object value) {
+            if (CCD_YES.equalsIgnoreCase(String.valueOf(value))) {
+                return Boolean.TRUE;
+            }
+            if (CCD_NO.equalsIgnoreCase(String.valueOf(value))) {
+                return Boolean.FALSE;
+            }
+            return value;
+        }
+    },
+
+    /**
+     * Dates the session holds as a UTC timestamp and CCD holds as an ISO date.
+     */
+    DATE {
+        @Override
+        Object toCcd(Object value) {
+            if (value instanceof String) {
+                try {
+                    return LocalDate.ofInstant(Instant.parse((String) value), ZoneOffset.UTC).toString();
+                } catch (DateTimeParseException e) {
+                    return value;
+                }
+            }
+            return value;
+        }
+
+        @Override
+        Object toDivorce(Object value) {
+            if (value instanceof String) {
+                try {
+                    return SESSION_DATE_FORMAT.format(LocalDate.parse((String) value).atStartOfDay(ZoneOffset.UTC));
+                } catch (DateTimeParseException e) {
+                    return value;
+                }
+            }
+            return value;
+        }
+    },
+
+    /**
+     * Free text the session holds as a list of lines and CCD holds as a single string.
+     */
+    LINES {
+        @Override
+        Object toCcd(Object value) {
+            if (value instanceof List) {
+                return ((List<?>) value).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(LINE_SEPARATOR));
+            }
+            return value;
+        }
+
+        @Override
+        Object toDivorce(Object value) {
+            if (value instanceof String) {
+                return new ArrayList<>(Arrays.asList(((String) value).split(LINE_SEPARATOR)));
+            }
+            return value;
+        }
+    };
+
+    private static final String YES = "Yes";
+    private static final String NO = "No";
+    private static final String CCD_YES = "YES";
+    private static final String CCD_NO = "NO";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final DateTimeFormatter SESSION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+    abstract Object toCcd(Object value);
+
+    abstract Object toDivorce(Object value);
+
+    Object convert(Object value, FormatDirection direction) {
+        return direction == FormatDirection.TO_CCD ? toCcd(value) : toDivorce(value);
+    }
+}
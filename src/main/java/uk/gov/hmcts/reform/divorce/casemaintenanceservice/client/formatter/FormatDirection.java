@@ -0,0 +1,6 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+public enum FormatDirection {
+    TO_CCD,
+    TO_DIVORCE
+}
@@ -0,0 +1,55 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Differences between what the formatter service returned and what the local engine produced for the same payload.
+ *
+ * <p>Only field names are kept, the values are case data and must not end up in logs.
+ */
+@Getter
+@AllArgsConstructor
+public class FormatterComparison {
+
+    /**
+     * Fields the engine maps, but to a different value than the formatter service.
+     */
+    private final Set<String> mismatchedFields;
+
+    /**
+     * Fields the formatter service returned that the engine has no mapping for.
+     */
+    private final Set<String> uncoveredFields;
+
+    public static FormatterComparison compare(Map<String, Object> remote, Map<String, Object> local, Set<String> mappedFields) {
+        Set<String> mismatchedFields = new TreeSet<>();
+        Set<String> uncoveredFields = new TreeSet<>();
+
+        for (String field : mappedFields) {
+            if (!Objects.equals(remote.get(field), local.get(field))) {
+                mismatchedFields.add(field);
+            }
+        }
+
+        remote.forEach((field, value) -> {
+            if (value != null && !mappedFields.contains(field)) {
+                uncoveredFields.add(field);
+            }
+        });
+
+        return new FormatterComparison(mismatchedFields, uncoveredFields);
+    }
+
+    /**
+     * Whether the engine produced exactly what the formatter service returned, with nothing left out.
+     */
+    public boolean isMatch() {
+        return mismatchedFields.isEmpty() && uncoveredFields.isEmpty();
+    }
+}
@@ -0,0 +1,30 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class FormattingResult {
+    private final Map<String, Object> data;
+
+    /**
+     * Input fields the engine has no mapping for.
+     */
+    private final Set<String> unmappedFields;
+
+    /**
+     * Output fields the formatter service would add that the engine cannot build.
+     */
+    private final Set<String> missingFields;
+
+    /**
+     * Whether the data is everything the formatter service would have returned, so it can be used in its place.
+     */
+    public boolean isComplete() {
+        return unmappedFields.isEmpty() && missingFields.isEmpty();
+    }
+}
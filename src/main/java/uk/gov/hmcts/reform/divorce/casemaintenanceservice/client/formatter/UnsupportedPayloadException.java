@@ -0,0 +1,18 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+@Getter
+public class UnsupportedPayloadException extends RuntimeException {
+
+    private final transient Set<String> unmappedFields;
+    private final transient Set<String> missingFields;
+
+    public UnsupportedPayloadException(FormatDirection direction, Set<String> unmappedFields, Set<String> missingFields) {
+        super(String.format("No %s mapping for fields %s, cannot build fields %s", direction, unmappedFields, missingFields));
+        this.unmappedFields = unmappedFields;
+        this.missingFields = missingFields;
+    }
+}
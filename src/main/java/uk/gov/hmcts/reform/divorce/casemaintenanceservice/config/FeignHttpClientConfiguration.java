@@ -0,0 +1,52 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import com.google.common.collect.ImmutableMap;
+import feign.Client;
+import feign.httpclient.ApacheHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the default Feign transport for every Feign client in the application, including the CCD, IDAM and
+ * S2S clients from the reform libraries, with one pooled and instrumented HTTP client per upstream.
+ */
+@Configuration
+public class FeignHttpClientConfiguration {
+
+    @Value("${core_case_data.api.url}")
+    private String ccdUrl;
+
+    @Value("${draft.store.api.baseurl}")
+    private String draftStoreUrl;
+
+    @Value("${case.formatter.service.api.baseurl}")
+    private String caseFormatterUrl;
+
+    @Value("${idam.api.url}")
+    private String idamUrl;
+
+    @Value("${idam.s2s-auth.url}")
+    private String serviceAuthUrl;
+
+    @Bean
+    public Client feignClient(PooledHttpClientFactory pooledHttpClientFactory) {
+        Map<String, String> upstreams = ImmutableMap.of(
+            "ccd", ccdUrl,
+            "draft-store", draftStoreUrl,
+            "case-formatter", caseFormatterUrl,
+            "idam", idamUrl,
+            "s2s", serviceAuthUrl
+        );
+
+        Map<String, Client> clientsByBaseUrl = new LinkedHashMap<>();
+        upstreams.forEach((name, baseUrl) ->
+            clientsByBaseUrl.put(baseUrl, new ApacheHttpClient(pooledHttpClientFactory.create(name))));
+
+        return new UpstreamRoutingFeignClient(clientsByBaseUrl,
+            new ApacheHttpClient(pooledHttpClientFactory.create("default")));
+    }
+}
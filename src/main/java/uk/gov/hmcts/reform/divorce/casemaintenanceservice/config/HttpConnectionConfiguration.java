@@ -3,8 +3,6 @@ package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -19,7 +17,6 @@ import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
-import uk.gov.hmcts.reform.logging.httpcomponents.OutboundRequestIdSettingInterceptor;
 
 import static java.util.Arrays.asList;
 
@@ -38,6 +35,9 @@ public class HttpConnectionConfiguration {
     @Value("${health.check.http.connect.request.timeout}")
     private int healthHttpConnectRequestTimeout;
 
+    @Autowired
+    private PooledHttpClientFactory pooledHttpClientFactory;
+
     @Bean
     @Primary
     public MappingJackson2HttpMessageConverter jackson2HttpCoverter(@Autowired ObjectMapper objectMapper) {
@@ -56,7 +56,7 @@ public class HttpConnectionConfiguration {
             new ByteArrayHttpMessageConverter(),
             new StringHttpMessageConverter()));
 
-        restTemplate.setRequestFactory(getClientHttpRequestFactory(httpConnectTimeout, httpConnectRequestTimeout));
+        restTemplate.setRequestFactory(getClientHttpRequestFactory("rest-template", httpConnectTimeout, httpConnectRequestTimeout));
 
         return restTemplate;
     }
@@ -69,27 +69,20 @@ public class HttpConnectionConfiguration {
             new ByteArrayHttpMessageConverter(),
             new StringHttpMessageConverter()));
 
-        restTemplate.setRequestFactory(getClientHttpRequestFactory(healthHttpConnectTimeout,
+        restTemplate.setRequestFactory(getClientHttpRequestFactory("health-check", healthHttpConnectTimeout,
             healthHttpConnectRequestTimeout));
 
         return restTemplate;
     }
 
     private ClientHttpRequestFactory getClientHttpRequestFactory(
-        int httpConnectTimeout, int httpConnectRequestTimeout) {
+        String poolName, int httpConnectTimeout, int httpConnectRequestTimeout) {
         RequestConfig config = RequestConfig.custom()
             .setConnectTimeout(httpConnectTimeout)
             .setConnectionRequestTimeout(httpConnectRequestTimeout)
             .setSocketTimeout(httpConnectRequestTimeout)
             .build();
 
-        CloseableHttpClient client = HttpClientBuilder
-            .create()
-            .useSystemProperties()
-            .addInterceptorFirst(new OutboundRequestIdSettingInterceptor())
-            .setDefaultRequestConfig(config)
-            .build();
-
-        return new HttpComponentsClientHttpRequestFactory(client);
+        return new HttpComponentsClientHttpRequestFactory(pooledHttpClientFactory.create(poolName, config));
     }
 }
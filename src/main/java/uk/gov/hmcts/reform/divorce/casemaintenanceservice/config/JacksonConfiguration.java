@@ -0,0 +1,24 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.CaseDataFieldFilter;
+
+@Configuration
+public class JacksonConfiguration {
+
+    /**
+     * Lets responses narrow down case data, see {@link CaseDataFieldFilter}. Anything written without a projection
+     * goes through the default filter, which writes every entry.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer caseDataProjectionCustomizer() {
+        return builder -> builder
+            .mixIn(CaseDetails.class, CaseDataFieldFilter.CaseDetailsMixin.class)
+            .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
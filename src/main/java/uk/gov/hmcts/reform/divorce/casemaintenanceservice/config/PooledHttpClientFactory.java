@@ -0,0 +1,113 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.MicrometerHttpRequestExecutor;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.logging.httpcomponents.OutboundRequestIdSettingInterceptor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+
+/**
+ * Creates Apache HTTP clients backed by their own bounded connection pool. Every pool publishes its connection
+ * gauges and a request timer tagged with the pool name, and is closed when the application shuts down.
+ */
+@Component
+@Slf4j
+public class PooledHttpClientFactory {
+
+    public static final String POOL_TAG = "client";
+
+    @Value("${http.client.pool.max-total}")
+    private int maxTotal;
+
+    @Value("${http.client.pool.max-per-route}")
+    private int maxPerRoute;
+
+    @Value("${http.client.pool.idle-eviction-seconds}")
+    private long idleEvictionSeconds;
+
+    @Value("${http.client.pool.keep-alive-seconds}")
+    private long keepAliveSeconds;
+
+    @Value("${http.client.pool.validate-after-inactivity-ms}")
+    private int validateAfterInactivityMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<CloseableHttpClient> clients = new CopyOnWriteArrayList<>();
+
+    public CloseableHttpClient create(String poolName) {
+        return create(poolName, null);
+    }
+
+    public CloseableHttpClient create(String poolName, RequestConfig defaultRequestConfig) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMs);
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, poolName).bindTo(meterRegistry);
+
+        HttpClientBuilder builder = HttpClientBuilder
+            .create()
+            .useSystemProperties()
+            .setConnectionManager(connectionManager)
+            .setRequestExecutor(MicrometerHttpRequestExecutor.builder(meterRegistry)
+                .tags(Tags.of(POOL_TAG, poolName))
+                .build())
+            .addInterceptorFirst(new OutboundRequestIdSettingInterceptor())
+            .setKeepAliveStrategy(keepAliveStrategy())
+            .evictExpiredConnections()
+            .evictIdleConnections(idleEvictionSeconds, TimeUnit.SECONDS);
+
+        if (defaultRequestConfig != null) {
+            builder.setDefaultRequestConfig(defaultRequestConfig);
+        }
+
+        CloseableHttpClient client = builder.build();
+        clients.add(client);
+
+        return client;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (CloseableHttpClient client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                log.warn("Failed to close pooled HTTP client", e);
+            }
+        }
+        clients.clear();
+    }
+
+    /**
+     * Honours a shorter keep-alive sent by the server, otherwise caps how long an idle connection is reused for.
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        final long keepAliveMs = TimeUnit.SECONDS.toMillis(keepAliveSeconds);
+
+        return (response, context) -> {
+            long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+
+            return serverKeepAliveMs > 0 ? Math.min(serverKeepAliveMs, keepAliveMs) : keepAliveMs;
+        };
+    }
+}
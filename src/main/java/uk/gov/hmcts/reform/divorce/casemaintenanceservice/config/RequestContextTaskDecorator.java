@@ -0,0 +1,47 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's request attributes and logging MDC over to the worker thread, restoring whatever
+ * the worker had before once the task is done. Restoring matters when a rejected task runs on the caller's thread.
+ */
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        return () -> {
+            final RequestAttributes previousRequestAttributes = RequestContextHolder.getRequestAttributes();
+            final Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+
+            apply(requestAttributes, mdc);
+            try {
+                runnable.run();
+            } finally {
+                apply(previousRequestAttributes, previousMdc);
+            }
+        };
+    }
+
+    private static void apply(RequestAttributes requestAttributes, Map<String, String> mdc) {
+        if (requestAttributes == null) {
+            RequestContextHolder.resetRequestAttributes();
+        } else {
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+        }
+
+        if (mdc == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(mdc);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext;
+
+import javax.servlet.ServletRequestEvent;
+import javax.servlet.ServletRequestListener;
+
+/**
+ * Records how many user and service token lookups each inbound request made upstream once it completes, for the
+ * requests that resolved any.
+ */
+@Component
+public class UpstreamAuthCallsRecorder implements ServletRequestListener {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void requestDestroyed(ServletRequestEvent event) {
+        RequestAuthContext.upstreamCalls(event.getServletRequest())
+            .ifPresent(calls -> meterRegistry.summary(RequestAuthContext.UPSTREAM_AUTH_CALLS_METRIC).record(calls));
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor used to fan out independent upstream lookups (draft store, CCD) made while serving a single request.
+ */
+@Configuration
+public class UpstreamLookupExecutorConfiguration {
+
+    public static final String UPSTREAM_LOOKUP_EXECUTOR = "upstreamLookupExecutor";
+
+    @Value("${upstream.lookup.executor.core-pool-size}")
+    private int corePoolSize;
+
+    @Value("${upstream.lookup.executor.max-pool-size}")
+    private int maxPoolSize;
+
+    @Value("${upstream.lookup.executor.queue-capacity}")
+    private int queueCapacity;
+
+    @Bean(name = UPSTREAM_LOOKUP_EXECUTOR)
+    public ThreadPoolTaskExecutor upstreamLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("upstream-lookup-");
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        // When saturated the lookup simply runs on the request thread, i.e. the old sequential behaviour
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder upstreamLookupExecutorMetrics(
+        @Qualifier(UPSTREAM_LOOKUP_EXECUTOR) ThreadPoolTaskExecutor upstreamLookupExecutor) {
+        return registry -> new ExecutorServiceMetrics(upstreamLookupExecutor.getThreadPoolExecutor(),
+            UPSTREAM_LOOKUP_EXECUTOR, Collections.emptyList()).bindTo(registry);
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Feign transport that sends each request through the client configured for its upstream, matched on the scheme,
+ * host and port of the request URL. Requests to any other origin use the default client.
+ */
+public class UpstreamRoutingFeignClient implements Client {
+
+    private final Map<String, Client> clientsByOrigin = new LinkedHashMap<>();
+    private final Client defaultClient;
+
+    public UpstreamRoutingFeignClient(Map<String, Client> clientsByBaseUrl, Client defaultClient) {
+        clientsByBaseUrl.forEach((baseUrl, client) -> clientsByOrigin.putIfAbsent(origin(baseUrl), client));
+        this.defaultClient = defaultClient;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        return route(request.url()).execute(request, options);
+    }
+
+    Client route(String url) {
+        return clientsByOrigin.getOrDefault(origin(url), defaultClient);
+    }
+
+    private static String origin(String url) {
+        try {
+            URI uri = URI.create(url);
+            return (uri.getScheme() + "://" + uri.getHost() + ":" + port(uri)).toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+}
@@ -1,11 +1,14 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,19 +21,33 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.CcdResponseRelay;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.IdempotentSubmissions;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.NdjsonWriter;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdate;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdateResult;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdAccessService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdRetrievalService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdSubmissionService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdUpdateService;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @RestController
+@Slf4j
 @RequestMapping(path = "casemaintenance/version/1")
 @Api(value = "Case Maintenance Services", consumes = "application/json", produces = "application/json")
 public class CcdController {
+    @Value("${ccd.passthrough.enabled}")
+    private boolean passthroughEnabled;
+
     @Autowired
     private CcdSubmissionService ccdSubmissionService;
 
@@ -43,20 +60,30 @@ public class CcdController {
     @Autowired
     private CcdRetrievalService ccdRetrievalService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotentSubmissions idempotentSubmissions;
 
     @PostMapping(path = "/submit", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
     @ApiOperation(value = "Submits a divorce session to CCD")
     @ApiResponses(value = {
         @ApiResponse(code = 200,
             message = "Case Data was submitted to CCD. The body payload returns the complete case back",
-            response = CaseDetails.class)
+            response = CaseDetails.class),
+        @ApiResponse(code = 400, message = "Returned when the Idempotency-Key was already used for different case data")
         }
     )
     public ResponseEntity<CaseDetails> submitCase(
         @RequestBody @ApiParam(value = "Case Data", required = true) Map<String, Object> data,
         @RequestHeader(HttpHeaders.AUTHORIZATION)
-        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt) {
-        return ResponseEntity.ok(ccdSubmissionService.submitCase(data, jwt));
+        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt,
+        @RequestHeader(value = IdempotentSubmissions.IDEMPOTENCY_KEY_HEADER, required = false)
+        @ApiParam(value = "Unique key for this submission, a retry with the same key returns the case created the first time")
+        final String idempotencyKey) {
+        return ResponseEntity.ok(idempotentSubmissions.submit(jwt, idempotencyKey, data,
+            () -> ccdSubmissionService.submitCase(data, jwt)));
     }
 
     @PostMapping(path = "/solicitor-submit", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
@@ -108,6 +135,23 @@ public class CcdController {
         return ResponseEntity.ok(ccdUpdateService. update(caseId, data, eventId, jwt));
     }
 
+    @PostMapping(path = "/updateCases", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Triggers an event on each of several cases")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200,
+            message = "Every update was sent to CCD. The body payload holds the outcome of each update, in the order given.",
+            response = CaseEventUpdateResult.class, responseContainer = "List"),
+        @ApiResponse(code = 400, message = "Returned when more updates were given than a batch allows")
+        }
+    )
+    public ResponseEntity<List<CaseEventUpdateResult>> updateCases(
+        @RequestBody
+        @ApiParam(value = "The case, event and case data of each update", required = true) List<CaseEventUpdate> updates,
+        @RequestHeader(HttpHeaders.AUTHORIZATION)
+        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt) {
+        return ResponseEntity.ok(ccdUpdateService.updateAll(updates, jwt));
+    }
+
     @PostMapping(path = "/bulk/updateCase/{caseId}/{eventId}", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
     @ApiOperation(value = "Updates bulk case details")
     @ApiResponses(value = {
@@ -174,11 +218,62 @@ public class CcdController {
     public ResponseEntity<SearchResult> search(
         @RequestHeader(HttpHeaders.AUTHORIZATION)
         @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt,
-        @RequestBody @ApiParam(value = "query", required = true) String query
+        @RequestBody @ApiParam(value = "query", required = true) String query,
+        final HttpServletResponse response
     ) {
+        // CCD's response is copied out as is, so there is no entity left to return. When CCD sent no body the search
+        // is made again the usual way, so the caller still gets a search result rather than an empty 200
+        if (passthroughEnabled && CcdResponseRelay.relay(ccdRetrievalService.searchRawCase(jwt, query),
+            "CcdPassthroughClient#searchCases", response)) {
+            return null;
+        }
+
         return ResponseEntity.ok(ccdRetrievalService.searchCase(jwt, query));
     }
 
+    @PostMapping(path = "/search/stream", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @ApiOperation(value = "Streams every CCD case matching the search criteria, one JSON document per line",
+        notes = "Cases are sorted by the query's sort, then by case reference, so every page orders the cases the same way. "
+            + "The sort may only use reference, created_date, last_modified, state, jurisdiction, case_type_id and data fields. "
+            + "If the search fails part way through, the last line is an object with an error field and the result is incomplete")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Returns the matching cases as newline delimited JSON"),
+        @ApiResponse(code = 400, message = "The query is not a JSON object, or sorts on a field it cannot be paged by")
+        })
+    public void searchStream(
+        @RequestHeader(HttpHeaders.AUTHORIZATION)
+        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt,
+        @RequestBody @ApiParam(value = "query, its from and size apply across all pages", required = true) String query,
+        final HttpServletResponse response
+    ) throws IOException {
+        Iterator<List<CaseDetails>> pages = ccdRetrievalService.searchCasePages(jwt, query);
+
+        // Fetched before anything is written, so a failing search still gets its own status
+        List<CaseDetails> page = pages.hasNext() ? pages.next() : Collections.emptyList();
+
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            while (true) {
+                for (CaseDetails caseDetails : page) {
+                    writer.write(caseDetails);
+                }
+                // Flushing blocks while the client catches up, so a slow reader holds back the next page
+                writer.flush();
+
+                try {
+                    if (!pages.hasNext()) {
+                        break;
+                    }
+                    page = pages.next();
+                } catch (RuntimeException e) {
+                    // The 200 has already been sent, so the error can only be reported in the body
+                    log.error("Search stream failed after the response was committed", e);
+                    writer.writeError("The search failed part way through, so the cases above are incomplete");
+                    break;
+                }
+            }
+        }
+    }
+
     @PutMapping(path = "/add-petitioner-solicitor-role/{caseId}", produces = APPLICATION_JSON_VALUE)
     @ApiOperation(value = "Assign the role of [PETSOLICITOR] for user and case")
     @ApiResponses(value = {
@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -7,6 +8,7 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -22,12 +24,23 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.CaseDataFieldFilter;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.CaseDataProjection;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.CcdResponseRelay;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.NdjsonWriter;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseReadResult;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.DraftList;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.DuplicateCaseException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdRetrievalService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.PetitionService;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.CaseETag;
 
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
 
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.PETITIONER_CASE_STATE_GROUPING;
@@ -38,24 +51,39 @@ import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.Ca
 @Slf4j
 public class PetitionController {
 
+    @Value("${ccd.passthrough.enabled}")
+    private boolean passthroughEnabled;
+
     @Autowired
     private PetitionService petitionService;
 
+    @Autowired
+    private CcdRetrievalService ccdRetrievalService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping(path = "/retrieveCase", produces = MediaType.APPLICATION_JSON_VALUE)
+    @CaseDataProjection
     @ApiOperation(value = "Retrieves a divorce case from CCD or Draft store")
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "A Petition exists. The petition is in the response body"),
+        @ApiResponse(code = 304, message = "The case has not changed since the version in If-None-Match"),
         @ApiResponse(code = 204, message = "When there are no petition exists"),
         @ApiResponse(code = 300, message = "Multiple Petition found")
         })
     public ResponseEntity<CaseDetails> retrievePetition(
         @RequestHeader(HttpHeaders.AUTHORIZATION)
-        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt) {
+        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt,
+        @RequestParam(value = CaseDataProjection.FIELDS_PARAMETER, required = false)
+        @ApiParam(value = "Comma separated case data keys to return, all of them when left out") final String fields,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+        @ApiParam(value = "ETag of the version of the case the client already holds") final String ifNoneMatch) {
 
         try {
             CaseDetails caseDetails = petitionService.retrievePetition(jwt, PETITIONER_CASE_STATE_GROUPING);
 
-            return caseDetails == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(caseDetails);
+            return caseDetails == null ? ResponseEntity.noContent().build() : conditionalOk(caseDetails, fields, ifNoneMatch);
         } catch (DuplicateCaseException e) {
             log.warn(e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.MULTIPLE_CHOICES).build();
@@ -87,15 +115,18 @@ public class PetitionController {
     @ApiOperation(value = "Retrieves a divorce case from CCD")
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "A Case exists. The case is in the response body"),
+        @ApiResponse(code = 304, message = "The case has not changed since the version in If-None-Match"),
         @ApiResponse(code = 404, message = "When no case exists"),
         @ApiResponse(code = 300, message = "Multiple Cases found")
         })
     public ResponseEntity<CaseDetails> retrieveCase(
         @RequestHeader(HttpHeaders.AUTHORIZATION)
-        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt) {
+        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+        @ApiParam(value = "ETag of the version of the case the client already holds") final String ifNoneMatch) {
         try {
             CaseDetails caseDetails = petitionService.retrievePetition(jwt);
-            return caseDetails == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(caseDetails);
+            return caseDetails == null ? ResponseEntity.notFound().build() : conditionalOk(caseDetails, null, ifNoneMatch);
         } catch (DuplicateCaseException e) {
             log.warn(e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.MULTIPLE_CHOICES).build();
@@ -233,21 +264,73 @@ public class PetitionController {
     }
 
     @GetMapping(path = "/case/{caseId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @CaseDataProjection
     @ApiOperation(value = "Retrieve CCD case by CaseId")
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "Returns case with CaseId"),
+        @ApiResponse(code = 304, message = "The case has not changed since the version in If-None-Match"),
         @ApiResponse(code = 404, message = "Returns case not found or not authorised to view")
         })
     public ResponseEntity<CaseDetails> retrieveCaseById(
         @RequestHeader(HttpHeaders.AUTHORIZATION)
         @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt,
         @PathVariable("caseId")
-        @ApiParam("Unique identifier of the session that was submitted to CCD") String caseId
+        @ApiParam("Unique identifier of the session that was submitted to CCD") String caseId,
+        @RequestParam(value = CaseDataProjection.FIELDS_PARAMETER, required = false)
+        @ApiParam(value = "Comma separated case data keys to return, all of them when left out") final String fields,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+        @ApiParam(value = "ETag of the version of the case the client already holds") final String ifNoneMatch,
+        final HttpServletResponse response
     ) {
+        // Nothing to do to the case, so CCD's response is copied out as is and there is no entity left to return. When
+        // CCD sent no body the case is read again the usual way, so the caller gets the same answer as without relaying
+        if (passthroughEnabled && fields == null && ifNoneMatch == null
+            && CcdResponseRelay.relay(ccdRetrievalService.retrieveRawCaseById(jwt, caseId), "CcdPassthroughClient#readCase", response)) {
+            return null;
+        }
+
         CaseDetails retrievedCase = Optional.ofNullable(
             petitionService.retrievePetitionByCaseId(jwt, caseId)
         ).orElse(CaseDetails.builder().build());
 
-        return retrievedCase.getId() == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(retrievedCase);
+        return retrievedCase.getId() == null ? ResponseEntity.notFound().build() : conditionalOk(retrievedCase, fields, ifNoneMatch);
+    }
+
+    @PostMapping(path = "/cases/batch-read", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @ApiOperation(value = "Retrieve several CCD cases by CaseId, one result per line as each case is read")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Returns the outcome of reading each case as newline delimited JSON, "
+            + "in the order the reads complete. Cases not found or not authorised to view are reported in their result"),
+        @ApiResponse(code = 400, message = "Returned when more cases were asked for than a batch allows")
+        })
+    public void retrieveCasesById(
+        @RequestHeader(HttpHeaders.AUTHORIZATION)
+        @ApiParam(value = "JWT authorisation token issued by IDAM", required = true) final String jwt,
+        @RequestBody
+        @ApiParam(value = "Unique identifiers of the cases to read", required = true) final List<String> caseIds,
+        final HttpServletResponse response
+    ) throws IOException {
+        Iterator<CaseReadResult> results = ccdRetrievalService.retrieveCasesById(jwt, caseIds);
+
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            while (results.hasNext()) {
+                writer.write(results.next());
+                writer.flush();
+            }
+        }
+    }
+
+    private static ResponseEntity<CaseDetails> conditionalOk(CaseDetails caseDetails, String fields, String ifNoneMatch) {
+        Optional<String> eTag = CaseETag.of(caseDetails, String.join(",", CaseDataFieldFilter.parseFields(fields)));
+
+        if (!eTag.isPresent()) {
+            return ResponseEntity.ok(caseDetails);
+        }
+        if (CaseETag.matches(ifNoneMatch, eTag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+        }
+
+        return ResponseEntity.ok().eTag(eTag.get()).body(caseDetails);
     }
 }
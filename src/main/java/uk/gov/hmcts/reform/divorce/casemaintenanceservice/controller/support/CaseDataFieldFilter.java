@@ -0,0 +1,93 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import io.micrometer.core.instrument.Counter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Leaves out the entries of a case's data map that were not asked for, while the case is being written out, so the
+ * full case never has to be copied.
+ *
+ * <p>When asked to, every entry left out is still written to a byte counting sink to record how many bytes were
+ * saved. That costs the serialisation of the dropped entries, so it is only done for a sample of responses, see
+ * {@link CaseDataProjectionAdvice}.
+ */
+public class CaseDataFieldFilter extends SimpleBeanPropertyFilter {
+
+    public static final String FILTER_ID = "caseDataFields";
+
+    private static final int OBJECT_DELIMITERS = 2;
+
+    private final Set<String> fields;
+    private final Counter bytesSaved;
+    private final long sampleWeight;
+
+    /**
+     * Records the bytes left out, multiplied by {@code sampleWeight}, in {@code bytesSaved}, unless it is null.
+     */
+    public CaseDataFieldFilter(Set<String> fields, Counter bytesSaved, long sampleWeight) {
+        this.fields = fields;
+        this.bytesSaved = bytesSaved;
+        this.sampleWeight = sampleWeight;
+    }
+
+    /**
+     * Parses a comma separated list of data keys, ignoring blanks. Sorted, so the same selection always reads the same.
+     */
+    public static SortedSet<String> parseFields(String fields) {
+        if (StringUtils.isBlank(fields)) {
+            return ImmutableSortedSet.of();
+        }
+
+        return Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(StringUtils::isNotEmpty)
+            .collect(ImmutableSortedSet.toImmutableSortedSet(String::compareTo));
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer)
+        throws Exception {
+        if (fields.contains(writer.getName())) {
+            writer.serializeAsField(pojo, gen, provider);
+        } else if (bytesSaved != null) {
+            bytesSaved.increment((double) measure(pojo, gen.getCodec(), provider, writer) * sampleWeight);
+        }
+    }
+
+    private static long measure(Object pojo, ObjectCodec codec, SerializerProvider provider, PropertyWriter writer)
+        throws Exception {
+        if (codec == null) {
+            return 0;
+        }
+
+        CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try (JsonGenerator counting = codec.getFactory().createGenerator(out)) {
+            counting.writeStartObject();
+            writer.serializeAsField(pojo, counting, provider);
+        }
+
+        return out.getCount() - OBJECT_DELIMITERS;
+    }
+
+    /**
+     * Routes the data map of every case written through the filter registered as {@link #FILTER_ID}.
+     */
+    public abstract static class CaseDetailsMixin {
+        @JsonFilter(FILTER_ID)
+        public abstract Map<String, Object> getData();
+    }
+}
@@ -0,0 +1,19 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler returning a case whose data the caller may narrow down with the {@value #FIELDS_PARAMETER} request
+ * parameter, a comma separated list of data keys.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CaseDataProjection {
+
+    String FIELDS_PARAMETER = "fields";
+}
@@ -0,0 +1,86 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.CaseDataProjection.FIELDS_PARAMETER;
+
+/**
+ * Applies the {@value CaseDataProjection#FIELDS_PARAMETER} request parameter to cases returned by handlers marked
+ * with {@link CaseDataProjection}.
+ *
+ * <p>Measuring the bytes left out means serialising them, so only one projected response in
+ * {@code case.data.projection.measure-one-in} is measured and the result is scaled up to estimate the total.
+ */
+@ControllerAdvice
+public class CaseDataProjectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String PROJECTION_METRIC = "case.data.projection";
+
+    @Value("${case.data.projection.measure-one-in}")
+    private long measureOneIn;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong responsesSinceMeasured = new AtomicLong();
+
+    private Counter projectedResponses;
+    private Counter bytesSaved;
+
+    @PostConstruct
+    public void init() {
+        projectedResponses = meterRegistry.counter(PROJECTION_METRIC + ".responses");
+        bytesSaved = Counter.builder(PROJECTION_METRIC + ".bytes.saved")
+            .description("Estimated bytes of case data left out of responses by the fields parameter")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return super.supports(returnType, converterType) && returnType.hasMethodAnnotation(CaseDataProjection.class);
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(bodyContainer.getValue() instanceof CaseDetails) || !(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+
+        String[] requested = ((ServletServerHttpRequest) request).getServletRequest().getParameterValues(FIELDS_PARAMETER);
+        Set<String> fields = requested == null ? null : CaseDataFieldFilter.parseFields(String.join(",", requested));
+        if (fields == null || fields.isEmpty()) {
+            return;
+        }
+
+        projectedResponses.increment();
+        bodyContainer.setFilters(new SimpleFilterProvider()
+            .addFilter(CaseDataFieldFilter.FILTER_ID, new CaseDataFieldFilter(fields, isMeasured() ? bytesSaved : null, measureOneIn))
+            .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    private boolean isMeasured() {
+        return measureOneIn > 0 && responsesSinceMeasured.getAndIncrement() % measureOneIn == 0;
+    }
+}
@@ -0,0 +1,73 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import feign.FeignException;
+import feign.Response;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Copies a CCD response body straight to our own response, for endpoints that would otherwise decode it and write it
+ * back out unchanged.
+ *
+ * <p>Error responses are turned into the same {@link FeignException} the decoding Feign clients throw, so they are
+ * handled exactly as before.
+ */
+@SuppressWarnings("squid:S1118")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CcdResponseRelay {
+
+    /**
+     * Relays the upstream response and closes it. Returns false, without writing anything, when CCD sent no body.
+     */
+    public static boolean relay(Response upstream, String methodKey, HttpServletResponse response) {
+        try (upstream) {
+            if (upstream.status() < HttpStatus.OK.value() || upstream.status() >= HttpStatus.MULTIPLE_CHOICES.value()) {
+                throw FeignException.errorStatus(methodKey, upstream);
+            }
+
+            Response.Body body = upstream.body();
+            if (body == null || upstream.status() == HttpStatus.NO_CONTENT.value()
+                || (body.length() != null && body.length() == 0)) {
+                return false;
+            }
+
+            response.setStatus(upstream.status());
+            response.setContentType(contentType(upstream));
+            if (body.length() != null) {
+                response.setContentLength(body.length());
+            }
+
+            try (InputStream inputStream = body.asInputStream()) {
+                StreamUtils.copy(inputStream, response.getOutputStream());
+            }
+
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not relay CCD response", e);
+        }
+    }
+
+    private static String contentType(Response upstream) {
+        for (String name : upstream.headers().keySet()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                Collection<String> values = upstream.headers().get(name);
+
+                if (!values.isEmpty()) {
+                    return values.iterator().next();
+                }
+            }
+        }
+
+        return MediaType.APPLICATION_JSON_VALUE;
+    }
+}
@@ -0,0 +1,167 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.SubmissionInProgressException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getBearerToken;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.FutureUtil.await;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveUser;
+
+/**
+ * Remembers recent case submissions by the caller's Idempotency-Key, so a client retrying a submission that timed
+ * out gets the case created the first time instead of a second case.
+ *
+ * <p>Keys are scoped to the caller's IDAM user, so a retry made after the client refreshed its token is still
+ * recognised. A retry arriving while the first submission is still in flight waits for it and gets its outcome,
+ * or a 409 once the wait passes its limit, so duplicates cannot hold servlet threads indefinitely. A
+ * submission that fails is forgotten, so it can be retried with the same key. Reusing a key for different case data
+ * is rejected; the case data is compared with its map keys sorted, so the same data sent in another order matches.
+ *
+ * <p>Replays are answered before the submission service is called, so they make no CCD round trip and raise no
+ * second case submitted event.
+ *
+ * <p>Submissions are remembered in this instance's memory only, so a retry that reaches another instance is not
+ * recognised and creates a second case.
+ */
+@Component
+@Slf4j
+public class IdempotentSubmissions {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String CACHE_NAME = "ccd.submission.idempotency";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${ccd.submission-idempotency.enabled}")
+    private boolean enabled;
+
+    @Value("${ccd.submission-idempotency.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Value("${ccd.submission-idempotency.max-size}")
+    private long maxSize;
+
+    @Value("${ccd.submission-idempotency.wait-seconds}")
+    private long waitSeconds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    private Cache<String, Submission> submissions;
+
+    private Counter replays;
+
+    private ObjectMapper canonicalMapper;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        submissions = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, submissions, CACHE_NAME);
+        replays = meterRegistry.counter(CACHE_NAME + ".replays");
+        canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    }
+
+    /**
+     * Runs the submission, unless one with the same key was made recently by the same user, in which case its
+     * outcome is returned instead. Without a key the submission always runs.
+     */
+    public CaseDetails submit(String authorisation, String idempotencyKey, Object data, Supplier<CaseDetails> submission) {
+        if (submissions == null || idempotencyKey == null) {
+            return submission.get();
+        }
+
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(
+                String.format("%s must be between 1 and %d characters long", IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH));
+        }
+
+        // The submission resolves the same user straight after, so this does not add a call to IDAM
+        final String userId = resolveUser(getBearerToken(authorisation), userService::retrieveUser).getUserDetails().getId();
+        final String key = userId + ":" + idempotencyKey;
+        final Submission mine = new Submission(fingerprint(data));
+        final Submission first = submissions.asMap().putIfAbsent(key, mine);
+
+        if (first != null) {
+            if (!first.fingerprint.equals(mine.fingerprint)) {
+                throw new InvalidRequestException(
+                    String.format("%s has already been used for a different submission", IDEMPOTENCY_KEY_HEADER));
+            }
+
+            replays.increment();
+            log.info("Replaying case submission for {} {}", IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+
+            try {
+                return await(first.result, waitSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                throw new SubmissionInProgressException(
+                    String.format("The submission for this %s is still in progress, retry later", IDEMPOTENCY_KEY_HEADER));
+            }
+        }
+
+        try {
+            CaseDetails caseDetails = submission.get();
+            mine.result.complete(caseDetails);
+
+            return caseDetails;
+        } catch (RuntimeException | Error e) {
+            submissions.asMap().remove(key, mine);
+            mine.result.completeExceptionally(e);
+
+            throw e;
+        }
+    }
+
+    private String fingerprint(Object data) {
+        try {
+            return Hashing.sha256().hashBytes(canonicalMapper.writeValueAsBytes(data)).toString();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Could not fingerprint submission", e);
+        }
+    }
+
+    private static class Submission {
+        private final String fingerprint;
+        private final CompletableFuture<CaseDetails> result = new CompletableFuture<>();
+
+        Submission(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Writes a 200 response as newline delimited JSON, one document per line, for endpoints that send their results as
+ * they get them rather than building one JSON array.
+ *
+ * <p>Opening the writer commits to the 200 status, so anything that can still fail the whole request should happen
+ * before it is opened.
+ */
+public class NdjsonWriter implements Closeable {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final JsonGenerator generator;
+
+    public NdjsonWriter(ObjectMapper objectMapper, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+
+        generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.setRootValueSeparator(null);
+    }
+
+    public void write(Object value) throws IOException {
+        generator.writeObject(value);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Writes a line with only an error field, the one way left to tell the client its result is incomplete once the
+     * 200 has been sent.
+     */
+    public void writeError(String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    /**
+     * Sends what has been written so far. It blocks while the client catches up, which holds back a slow reader's
+     * producer.
+     */
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -1,5 +1,14 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
 
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collection;
+import java.util.Set;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_INSUFFICIENT_DETAILS;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_CRITERIA;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_JURISDICTION;
+
 /*
  * These values are specifically for Amend Petition workflow, NOT for general usage
  */
@@ -285,6 +294,40 @@ public class AmendCaseRemovedProps {
         "D8FinancialOrderFor"
     };
 
+    // Removal profiles, one per combination of rejection reasons that affects what is removed, built once up front
+    private static final Set<String> AMEND_PROFILE = ImmutableSet.copyOf(propertiesToRemove);
+    private static final Set<String> REFUSAL_PROFILE = refusalProfile(false, false);
+    private static final Set<String> REFUSAL_NO_JURISDICTION_PROFILE = refusalProfile(true, false);
+    private static final Set<String> REFUSAL_ABOUT_DIVORCE_PROFILE = refusalProfile(false, true);
+    private static final Set<String> REFUSAL_NO_JURISDICTION_ABOUT_DIVORCE_PROFILE = refusalProfile(true, true);
+
+    public static Set<String> getAmendRemovalProfile() {
+        return AMEND_PROFILE;
+    }
+
+    public static Set<String> getRefusalRemovalProfile(Collection<?> rejectionReasons) {
+        boolean noJurisdiction = rejectionReasons.contains(REJECTION_NO_JURISDICTION);
+        boolean aboutDivorce = rejectionReasons.contains(REJECTION_NO_CRITERIA) || rejectionReasons.contains(REJECTION_INSUFFICIENT_DETAILS);
+
+        if (noJurisdiction) {
+            return aboutDivorce ? REFUSAL_NO_JURISDICTION_ABOUT_DIVORCE_PROFILE : REFUSAL_NO_JURISDICTION_PROFILE;
+        }
+        return aboutDivorce ? REFUSAL_ABOUT_DIVORCE_PROFILE : REFUSAL_PROFILE;
+    }
+
+    private static Set<String> refusalProfile(boolean noJurisdiction, boolean aboutDivorce) {
+        ImmutableSet.Builder<String> profile = ImmutableSet.<String>builder().add(propertiesToRemoveRejection);
+
+        if (noJurisdiction) {
+            profile.add(propertiesToRemoveJurisdiction);
+        }
+        if (aboutDivorce) {
+            profile.add(propertiesToRemoveAboutDivorce);
+        }
+
+        return profile.build();
+    }
+
     public static String[] getPropertiesToRemove() {
         return propertiesToRemove.clone();
     }
@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One item of a batch update: the event to trigger on a case and the case data to submit with it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CaseEventUpdate {
+    private String caseId;
+    private String eventId;
+    private Object data;
+}
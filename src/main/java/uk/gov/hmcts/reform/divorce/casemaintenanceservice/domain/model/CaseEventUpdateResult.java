@@ -0,0 +1,26 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * The outcome of one item of a batch update. Status is the HTTP status the single case update would have answered
+ * with, and error is only set when it failed.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CaseEventUpdateResult {
+    private final String caseId;
+    private final String eventId;
+    private final boolean success;
+    private final int status;
+    private final String error;
+
+    public static CaseEventUpdateResult succeeded(CaseEventUpdate update) {
+        return new CaseEventUpdateResult(update.getCaseId(), update.getEventId(), true, 200, null);
+    }
+
+    public static CaseEventUpdateResult failed(CaseEventUpdate update, int status, String error) {
+        return new CaseEventUpdateResult(update.getCaseId(), update.getEventId(), false, status, error);
+    }
+}
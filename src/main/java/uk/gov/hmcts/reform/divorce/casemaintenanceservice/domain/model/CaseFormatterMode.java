@@ -0,0 +1,7 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+public enum CaseFormatterMode {
+    REMOTE,
+    LOCAL,
+    COMPARE
+}
@@ -0,0 +1,28 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+/**
+ * The outcome of reading one case of a batch read. Status is the HTTP status reading the case on its own would have
+ * answered with; the case is only set when it was found and error only when it was not.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CaseReadResult {
+    private final String caseId;
+    private final int status;
+    @JsonProperty("case")
+    private final CaseDetails caseDetails;
+    private final String error;
+
+    public static CaseReadResult found(String caseId, CaseDetails caseDetails) {
+        return new CaseReadResult(caseId, 200, caseDetails, null);
+    }
+
+    public static CaseReadResult failed(String caseId, int status, String error) {
+        return new CaseReadResult(caseId, status, null, error);
+    }
+}
@@ -0,0 +1,6 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+public enum CaseRetrievalMode {
+    SEARCH_FOR_CITIZEN,
+    ELASTIC_SEARCH
+}
@@ -107,4 +107,24 @@ public class CaseRetrievalStateMap {
                 CaseState.ISSUED_TO_BAILIFF)
         );
 
+    public static final CaseStateClassifier PETITIONER_CASE_STATE_CLASSIFIER =
+        new CaseStateClassifier(PETITIONER_CASE_STATE_GROUPING);
+
+    public static final CaseStateClassifier RESPONDENT_CASE_STATE_CLASSIFIER =
+        new CaseStateClassifier(RESPONDENT_CASE_STATE_GROUPING);
+
+    /**
+     * Returns the precompiled classifier for the groupings above, compiling any other grouping on the fly.
+     */
+    public static CaseStateClassifier getClassifier(Map<CaseStateGrouping, List<CaseState>> caseStateGrouping) {
+        if (caseStateGrouping == PETITIONER_CASE_STATE_GROUPING) {
+            return PETITIONER_CASE_STATE_CLASSIFIER;
+        }
+
+        if (caseStateGrouping == RESPONDENT_CASE_STATE_GROUPING) {
+            return RESPONDENT_CASE_STATE_CLASSIFIER;
+        }
+
+        return new CaseStateClassifier(caseStateGrouping);
+    }
 }
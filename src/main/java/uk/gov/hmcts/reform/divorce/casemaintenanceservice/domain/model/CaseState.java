@@ -3,7 +3,10 @@ package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 @AllArgsConstructor
 @Getter
@@ -57,11 +60,25 @@ public enum CaseState {
     private final String value;
     private final ApplicationStatus status;
 
+    private static final Map<String, CaseState> STATES_BY_VALUE = indexByValue();
+
     public static CaseState getState(String state) {
-        return Arrays.stream(CaseState.values())
-            .filter(caseState -> caseState.value.equalsIgnoreCase(state))
-            .findFirst()
-            .orElse(UNKNOWN);
+        if (state == null) {
+            return UNKNOWN;
+        }
+
+        return STATES_BY_VALUE.getOrDefault(state.toLowerCase(Locale.ROOT), UNKNOWN);
+    }
+
+    private static Map<String, CaseState> indexByValue() {
+        Map<String, CaseState> statesByValue = new HashMap<>();
+
+        // Keep the first state declared for a value, as the previous linear scan did
+        for (CaseState caseState : values()) {
+            statesByValue.putIfAbsent(caseState.value.toLowerCase(Locale.ROOT), caseState);
+        }
+
+        return Collections.unmodifiableMap(statesByValue);
     }
 
 }
@@ -0,0 +1,28 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled form of a state grouping such as {@link CaseRetrievalStateMap#PETITIONER_CASE_STATE_GROUPING}.
+ *
+ * <p>A state listed under several groupings belongs to the first one in iteration order, matching the
+ * find-first lookup it replaces. States not listed anywhere are {@link CaseStateGrouping#UNKNOWN}.
+ */
+public class CaseStateClassifier {
+
+    private final Map<CaseState, CaseStateGrouping> groupingByState = new EnumMap<>(CaseState.class);
+
+    public CaseStateClassifier(Map<CaseStateGrouping, List<CaseState>> caseStateGrouping) {
+        caseStateGrouping.forEach((grouping, states) -> states.forEach(state -> groupingByState.putIfAbsent(state, grouping)));
+    }
+
+    public CaseStateGrouping classify(CaseState state) {
+        return groupingByState.getOrDefault(state, CaseStateGrouping.UNKNOWN);
+    }
+
+    public CaseStateGrouping classify(String ccdState) {
+        return classify(CaseState.getState(ccdState));
+    }
+}
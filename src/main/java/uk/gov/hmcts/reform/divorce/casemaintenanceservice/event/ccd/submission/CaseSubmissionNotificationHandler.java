@@ -7,6 +7,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getBearerToken;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveUser;
 
 @Aspect
 @Component
@@ -14,18 +18,26 @@ public class CaseSubmissionNotificationHandler {
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
 
+    @Autowired
+    private UserService userService;
+
     @Around("@annotation(NotifyCaseSubmission)")
     public Object notifyCaseSubmission(ProceedingJoinPoint joinPoint) throws Throwable {
 
         Object caseDetails = joinPoint.proceed();
 
         if (caseDetails != null) {
+            final String authToken = (String)joinPoint.getArgs()[joinPoint.getArgs().length - 1];
+
+            // The submission has just resolved the user for this request, so this does not call IDAM again,
+            // whereas the listeners run after the request and would have to
             applicationEventPublisher
                 .publishEvent(
                     new CaseSubmittedEvent(
                         joinPoint.getThis(),
                         (CaseDetails)caseDetails,
-                        (String)joinPoint.getArgs()[joinPoint.getArgs().length - 1]
+                        authToken,
+                        resolveUser(getBearerToken(authToken), userService::retrieveUser).getUserDetails().getId()
                 )
             );
         }
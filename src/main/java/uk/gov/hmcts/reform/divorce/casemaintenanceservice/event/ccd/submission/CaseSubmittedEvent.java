@@ -8,11 +8,13 @@ import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 public class CaseSubmittedEvent extends ApplicationEvent {
     private final transient CaseDetails caseDetails;
     private final String authToken;
+    private final String userId;
 
-    CaseSubmittedEvent(Object source, CaseDetails caseDetails, String authToken) {
+    CaseSubmittedEvent(Object source, CaseDetails caseDetails, String authToken, String userId) {
         super(source);
 
         this.authToken = authToken;
         this.caseDetails = caseDetails;
+        this.userId = userId;
     }
 }
@@ -1,22 +1,106 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.event.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
+@ConditionalOnProperty(value = "draft.delete.async", havingValue = "true")
+@Slf4j
 public class AsynchronousSpringEventsConfig {
 
+    public static final String EVENT_EXECUTOR = "applicationEventExecutor";
+
+    private static final String EVENT_EXECUTOR_METRIC = "cms.event.executor";
+
+    @Value("${draft.delete.executor.core-pool-size}")
+    private int corePoolSize;
+
+    @Value("${draft.delete.executor.max-pool-size}")
+    private int maxPoolSize;
+
+    @Value("${draft.delete.executor.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${draft.delete.executor.saturation-policy}")
+    private EventExecutorSaturationPolicy saturationPolicy;
+
+    @Value("${draft.delete.executor.await-termination-seconds}")
+    private int awaitTerminationSeconds;
+
+    /**
+     * Runs every application event, not only draft deletions, since it backs the application event multicaster.
+     *
+     * <p>The multicaster, and so this executor, is created early in the context refresh, which creates the meter
+     * registry and binds its binders there and then. The pool's metrics are therefore bound here as the pool is
+     * created rather than by a binder bean, which would need this executor while it is still being created.
+     */
+    @Bean(name = EVENT_EXECUTOR)
+    public ThreadPoolTaskExecutor applicationEventExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+            @Override
+            protected ExecutorService initializeExecutor(ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+                ExecutorService executorService = super.initializeExecutor(threadFactory, rejectedExecutionHandler);
+                new ExecutorServiceMetrics(executorService, EVENT_EXECUTOR, Collections.emptyList()).bindTo(meterRegistry);
+                return executorService;
+            }
+        };
+
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("application-event-");
+        executor.setTaskDecorator(new TimedTaskDecorator(meterRegistry, EVENT_EXECUTOR_METRIC));
+        executor.setRejectedExecutionHandler(countingRejections(saturationPolicy, meterRegistry));
+        // Let queued draft deletions finish rather than dropping them when the application stops, see EventExecutorDrain
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+
+        return executor;
+    }
+
+    @Bean
+    public EventExecutorDrain applicationEventExecutorDrain(
+        @Qualifier(EVENT_EXECUTOR) ThreadPoolTaskExecutor applicationEventExecutor) {
+        return new EventExecutorDrain(applicationEventExecutor);
+    }
+
     @Bean(name = "applicationEventMulticaster")
-    @ConditionalOnProperty(value = "draft.delete.async", havingValue = "true")
-    public ApplicationEventMulticaster simpleApplicationEventMulticaster() {
+    public ApplicationEventMulticaster simpleApplicationEventMulticaster(
+        @Qualifier(EVENT_EXECUTOR) ThreadPoolTaskExecutor applicationEventExecutor) {
         SimpleApplicationEventMulticaster eventMulticaster
             = new SimpleApplicationEventMulticaster();
 
-        eventMulticaster.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        eventMulticaster.setTaskExecutor(applicationEventExecutor);
         return eventMulticaster;
     }
+
+    private static RejectedExecutionHandler countingRejections(EventExecutorSaturationPolicy policy,
+                                                               MeterRegistry meterRegistry) {
+        final RejectedExecutionHandler handler = policy.newHandler();
+        final Counter rejected = Counter.builder(EVENT_EXECUTOR_METRIC + ".rejected")
+            .description("Tasks that found the event executor saturated")
+            .tag("policy", policy.name())
+            .register(meterRegistry);
+
+        return (runnable, executor) -> {
+            rejected.increment();
+            log.warn("Application event executor is saturated, applying {} policy", policy);
+            handler.rejectedExecution(runnable, executor);
+        };
+    }
 }
@@ -0,0 +1,52 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.event.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Drains the event executor when the application context starts closing, while the beans its tasks use are still
+ * alive.
+ *
+ * <p>Left to the executor's own destroy callback, queued draft deletions would run after the Feign clients and their
+ * connection pools, which were created later and so are destroyed earlier, have already been closed. Lifecycle beans
+ * are all stopped before any bean is destroyed. The phase puts this one just after the web server, so no request can
+ * publish an event once draining starts.
+ */
+@Slf4j
+public class EventExecutorDrain implements SmartLifecycle {
+
+    static final int PHASE = Integer.MAX_VALUE - 2;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private volatile boolean running;
+
+    public EventExecutorDrain(ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        log.info("Draining {} queued application event tasks", executor.getThreadPoolExecutor().getQueue().size());
+
+        // Waits for queued tasks, up to the executor's await termination seconds
+        executor.shutdown();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
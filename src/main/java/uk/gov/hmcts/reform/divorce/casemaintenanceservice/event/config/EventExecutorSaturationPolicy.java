@@ -0,0 +1,37 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.event.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * What the event executor does with a task once all its threads are busy and its queue is full.
+ */
+public enum EventExecutorSaturationPolicy {
+    /**
+     * Runs the listener on the publishing thread, slowing the submitting request down instead of losing the event.
+     */
+    CALLER_RUNS(ThreadPoolExecutor.CallerRunsPolicy::new),
+    /**
+     * Fails the publishing call with a {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    ABORT(ThreadPoolExecutor.AbortPolicy::new),
+    /**
+     * Drops the new event.
+     */
+    DISCARD(ThreadPoolExecutor.DiscardPolicy::new),
+    /**
+     * Drops the oldest queued event to make room for the new one.
+     */
+    DISCARD_OLDEST(ThreadPoolExecutor.DiscardOldestPolicy::new);
+
+    private final Supplier<RejectedExecutionHandler> handlerFactory;
+
+    EventExecutorSaturationPolicy(Supplier<RejectedExecutionHandler> handlerFactory) {
+        this.handlerFactory = handlerFactory;
+    }
+
+    public RejectedExecutionHandler newHandler() {
+        return handlerFactory.get();
+    }
+}
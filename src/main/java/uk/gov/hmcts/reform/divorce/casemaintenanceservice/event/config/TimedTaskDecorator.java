@@ -0,0 +1,56 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.event.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each task waited in the queue and how long it then took to run, and carries the publishing
+ * thread's logging MDC over to the worker so the listener's log lines keep the request id.
+ */
+public class TimedTaskDecorator implements TaskDecorator {
+
+    private final Timer queuedTimer;
+    private final Timer executionTimer;
+
+    public TimedTaskDecorator(MeterRegistry meterRegistry, String metricPrefix) {
+        this.queuedTimer = Timer.builder(metricPrefix + ".task.queued")
+            .description("Time a task spent waiting in the executor queue before starting")
+            .register(meterRegistry);
+        this.executionTimer = Timer.builder(metricPrefix + ".task.duration")
+            .description("Time a task took to run once started")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        final long submittedAt = System.nanoTime();
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        return () -> {
+            final long startedAt = System.nanoTime();
+            final Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            queuedTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+
+            setMdc(mdc);
+            try {
+                runnable.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> mdc) {
+        if (mdc == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(mdc);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class SubmissionInProgressException extends BaseException {
+    public SubmissionInProgressException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
@@ -1,12 +1,15 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service;
 
+import feign.Response;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseReadResult;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseStateGrouping;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.DuplicateCaseException;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -18,5 +21,29 @@ public interface CcdRetrievalService {
 
     CaseDetails retrieveCaseById(String authorisation, String caseId);
 
+    /**
+     * Reads several cases like {@link #retrieveCaseById(String, String)}, a few at a time, returning each result as
+     * soon as it arrives. A case that could not be read is reported in its result rather than failing the others.
+     */
+    Iterator<CaseReadResult> retrieveCasesById(String authorisation, List<String> caseIds);
+
     SearchResult searchCase(String authorisation, String query);
+
+    /**
+     * Pages through the cases matching a search query. Each page is only fetched from CCD when asked for, so holding
+     * the iterator costs no more than one page.
+     */
+    Iterator<List<CaseDetails>> searchCasePages(String authorisation, String query);
+
+    /**
+     * Reads a case like {@link #retrieveCaseById(String, String)}, but returns CCD's response as is for relaying.
+     * The caller must close it.
+     */
+    Response retrieveRawCaseById(String authorisation, String caseId);
+
+    /**
+     * Searches like {@link #searchCase(String, String)}, but returns CCD's response as is for relaying.
+     * The caller must close it.
+     */
+    Response searchRawCase(String authorisation, String query);
 }
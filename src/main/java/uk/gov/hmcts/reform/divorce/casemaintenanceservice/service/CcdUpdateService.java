@@ -1,9 +1,19 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service;
 
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdate;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdateResult;
+
+import java.util.List;
 
 public interface CcdUpdateService {
     CaseDetails update(String caseId, Object data, String eventId, String authorisation);
 
+    /**
+     * Triggers each event like {@link #update(String, Object, String, String)}, several at a time. A failed item does
+     * not stop the others; the results are in the order of the updates given.
+     */
+    List<CaseEventUpdateResult> updateAll(List<CaseEventUpdate> updates, String authorisation);
+
     CaseDetails updateBulkCase(String caseId, Object data, String eventId, String authorisation);
 }
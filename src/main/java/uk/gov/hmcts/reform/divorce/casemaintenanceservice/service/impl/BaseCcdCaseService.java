@@ -8,6 +8,8 @@ import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
 import uk.gov.hmcts.reform.idam.client.models.User;
 
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getBearerToken;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveServiceToken;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveUser;
 
 class BaseCcdCaseService {
     static final String DIVORCE_CASE_SUBMISSION_EVENT_SUMMARY = "Divorce case submission event";
@@ -40,6 +42,9 @@ class BaseCcdCaseService {
     @Autowired
     CoreCaseDataApi coreCaseDataApi;
 
+    @Autowired
+    UserCaseCache userCaseCache;
+
     @Autowired
     private UserService userService;
 
@@ -47,7 +52,7 @@ class BaseCcdCaseService {
     private AuthTokenGenerator authTokenGenerator;
 
     User getUser(String userToken) {
-        return userService.retrieveUser(getBearerToken(userToken));
+        return resolveUser(getBearerToken(userToken), userService::retrieveUser);
     }
 
     User getAnonymousCaseWorkerDetails() {
@@ -55,6 +60,6 @@ class BaseCcdCaseService {
     }
 
     String getServiceAuthToken() {
-        return authTokenGenerator.generate();
+        return resolveServiceToken(authTokenGenerator::generate);
     }
 }
@@ -50,6 +50,7 @@ public class CcdAccessServiceImpl extends BaseCcdCaseService implements CcdAcces
         User linkedUser = getUser(authorisation);
 
         updateCaseRoles(caseworkerUser, caseId, linkedUser.getUserDetails().getId(), null);
+        userCaseCache.invalidate(linkedUser.getUserDetails().getId());
     }
 
     @Override
@@ -60,6 +61,7 @@ public class CcdAccessServiceImpl extends BaseCcdCaseService implements CcdAcces
         caseRoles.add(CmsConstants.CREATOR_ROLE);
         caseRoles.add(CmsConstants.PET_SOL_ROLE);
         updateCaseRoles(caseworkerUser, caseId, solicitorUser.getUserDetails().getId(), caseRoles);
+        userCaseCache.invalidate(solicitorUser.getUserDetails().getId());
     }
 
     @Override
@@ -98,6 +100,7 @@ public class CcdAccessServiceImpl extends BaseCcdCaseService implements CcdAcces
         }
 
         updateCaseRoles(caseworkerUser, caseId, linkingUser.getUserDetails().getId(), getRolesForRespondentType(respondentType));
+        userCaseCache.invalidate(linkingUser.getUserDetails().getId());
     }
 
     private void updateCaseRoles(User anonymousCaseWorker, String caseId, String userId, Set<String> caseRoles) {
@@ -0,0 +1,108 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.Draft;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+
+/**
+ * Writes drafts still held in CCD format back in divorce format the first time they are transformed on read, so
+ * later reads skip the case formatter.
+ *
+ * <p>Write backs are rate limited; a read that finds no permit left simply transforms the draft as before and the
+ * draft is migrated on a later read. A failed write back never fails the read.
+ *
+ * <p>The remaining gauge only counts CCD format drafts read within the remaining ttl-seconds, up to remaining
+ * max-size of them, so it undercounts drafts that are not read often or when more than that many are left.
+ */
+@Component
+@Slf4j
+public class CcdFormatDraftMigrator {
+
+    private static final String METRIC_PREFIX = "cms.draft.ccd.format.migration";
+
+    @Value("${draft.store.ccd-format-migration.enabled}")
+    private boolean enabled;
+
+    @Value("${draft.store.ccd-format-migration.permits-per-second}")
+    private double permitsPerSecond;
+
+    @Value("${draft.store.ccd-format-migration.remaining.ttl-seconds}")
+    private long remainingTtlSeconds;
+
+    @Value("${draft.store.ccd-format-migration.remaining.max-size}")
+    private long remainingMaxSize;
+
+    @Autowired
+    private DraftServiceImpl draftService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private RateLimiter rateLimiter;
+
+    /**
+     * CCD format drafts read recently and not migrated yet, which approximates how many are left.
+     */
+    private Cache<String, Boolean> remainingDrafts;
+
+    private Counter migratedDrafts;
+    private Counter rateLimitedDrafts;
+    private Counter failedDrafts;
+
+    @PostConstruct
+    public void init() {
+        remainingDrafts = CacheBuilder.newBuilder()
+            .maximumSize(remainingMaxSize)
+            .expireAfterWrite(remainingTtlSeconds, TimeUnit.SECONDS)
+            .build();
+
+        Gauge.builder(METRIC_PREFIX + ".remaining", remainingDrafts, Cache::size)
+            .description("CCD format drafts read within the remaining ttl-seconds that have not been migrated")
+            .register(meterRegistry);
+        migratedDrafts = meterRegistry.counter(METRIC_PREFIX + ".drafts", "outcome", "migrated");
+        rateLimitedDrafts = meterRegistry.counter(METRIC_PREFIX + ".drafts", "outcome", "rate_limited");
+        failedDrafts = meterRegistry.counter(METRIC_PREFIX + ".drafts", "outcome", "failed");
+
+        if (enabled) {
+            rateLimiter = RateLimiter.create(permitsPerSecond);
+        }
+    }
+
+    /**
+     * Called with the result of transforming a CCD format draft, which is left untouched.
+     */
+    public void migrate(String userToken, Draft draft, Map<String, Object> divorceFormatData) {
+        remainingDrafts.put(draft.getId(), Boolean.TRUE);
+
+        if (!enabled) {
+            return;
+        }
+
+        if (!rateLimiter.tryAcquire()) {
+            rateLimitedDrafts.increment();
+            return;
+        }
+
+        try {
+            draftService.rewriteInDivorceFormat(userToken, draft, divorceFormatData);
+            remainingDrafts.invalidate(draft.getId());
+            migratedDrafts.increment();
+            log.info("Draft {} migrated from CCD to divorce format", draft.getId());
+        } catch (Exception e) {
+            failedDrafts.increment();
+            log.warn("Could not migrate draft {} to divorce format, it will be retried on a later read", draft.getId(), e);
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import com.google.common.base.Throwables;
+import feign.FeignException;
+import feign.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.CcdPassthroughClient;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.ApplicationStatus;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseReadResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalMode;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseStateClassifier;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseStateGrouping;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.DuplicateCaseException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdRetrievalService;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.CitizenCaseSearchQuery;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.PagedSearchQuery;
 import uk.gov.hmcts.reform.idam.client.models.User;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.stream.Collectors;
 
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.config.UpstreamLookupExecutorConfiguration.UPSTREAM_LOOKUP_EXECUTOR;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.CO_RESP_EMAIL_ADDRESS;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_PETITIONER_EMAIL;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.RESP_EMAIL_ADDRESS;
@@ -31,6 +58,25 @@ import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.g
 @Slf4j
 public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRetrievalService {
 
+    @Value("${ccd.case-retrieval.mode}")
+    private CaseRetrievalMode caseRetrievalMode;
+
+    @Value("${ccd.search-stream.page-size}")
+    private int searchPageSize;
+
+    @Value("${ccd.batch-read.max-items}")
+    private int batchReadMaxItems;
+
+    @Value("${ccd.batch-read.parallelism}")
+    private int batchReadParallelism;
+
+    @Autowired
+    private CcdPassthroughClient ccdPassthroughClient;
+
+    @Autowired
+    @Qualifier(UPSTREAM_LOOKUP_EXECUTOR)
+    private Executor upstreamLookupExecutor;
+
     @Override
     public CaseDetails retrieveCase(String authorisation, Map<CaseStateGrouping, List<CaseState>> caseStateGrouping,
                                     DivCaseRole role) {
@@ -45,23 +91,13 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
             log.warn("[{}] cases found for the user [{}]", caseDetailsList.size(), userDetails.getUserDetails().getId());
         }
 
-        Map<CaseStateGrouping, List<CaseDetails>> statusCaseDetailsMap = caseDetailsList.stream()
-            .collect(Collectors.groupingBy(
-                caseDetails -> caseStateGrouping.entrySet().stream()
-                    .filter(caseStateGroupingEntry -> caseStateGroupingEntry.getValue()
-                        .contains(
-                            CaseState.getState(caseDetails.getState())
-                        )
-                    )
-                    .map(Map.Entry::getKey)
-                    .findFirst()
-                    .orElse(CaseStateGrouping.UNKNOWN)
-            ));
+        Map<CaseStateGrouping, List<CaseDetails>> statusCaseDetailsMap = groupByState(caseDetailsList,
+            CaseRetrievalStateMap.getClassifier(caseStateGrouping));
 
         List<CaseDetails> completedCases = statusCaseDetailsMap.get(CaseStateGrouping.COMPLETE);
 
         if (CollectionUtils.isNotEmpty(completedCases)) {
-            return updateApplicationStatus(completedCases.get(0));
+            return updateApplicationStatus(readFullCase(userDetails, completedCases.get(0)));
         }
 
         List<CaseDetails> incompleteCases = statusCaseDetailsMap.get(CaseStateGrouping.INCOMPLETE);
@@ -73,7 +109,7 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
                 // Sort by Created Date in descending order
                 // so the first case is the latest created case in AmendPetition state
                 Collections.sort(amendCases, Comparator.comparing(CaseDetails::getCreatedDate).reversed());
-                return updateApplicationStatus(amendCases.get(0));
+                return updateApplicationStatus(readFullCase(userDetails, amendCases.get(0)));
             }
 
             return null;
@@ -84,7 +120,7 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
             throw new DuplicateCaseException(message);
         }
 
-        return updateApplicationStatus(incompleteCases.get(0));
+        return updateApplicationStatus(readFullCase(userDetails, incompleteCases.get(0)));
     }
 
     @Override
@@ -104,19 +140,31 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
                 caseDetailsList.size(), userDetails.getUserDetails().getId()));
         }
 
-        return caseDetailsList.get(0);
+        return readFullCase(userDetails, caseDetailsList.get(0));
     }
 
     @Override
     public CaseDetails retrieveCaseById(String authorisation, String caseId) {
-        User userDetails = getUser(authorisation);
-        List<String> userRoles = Optional.ofNullable(userDetails.getUserDetails().getRoles())
-            .orElse(Collections.emptyList());
+        return readCase(getUser(authorisation), getServiceAuthToken(), authorisation, caseId);
+    }
+
+    @Override
+    public Iterator<CaseReadResult> retrieveCasesById(String authorisation, List<String> caseIds) {
+        Set<String> distinctCaseIds = new LinkedHashSet<>(caseIds);
+        if (distinctCaseIds.size() > batchReadMaxItems) {
+            throw new InvalidRequestException(
+                String.format("A batch can read at most %d cases, %d were given", batchReadMaxItems, distinctCaseIds.size()));
+        }
+
+        // Resolved once for the whole batch rather than once per case
+        return new CaseReads(getUser(authorisation), getServiceAuthToken(), authorisation, distinctCaseIds);
+    }
 
-        if (userRoles.contains(CASEWORKER_ROLE) && !userRoles.contains(CITIZEN_ROLE)) {
+    private CaseDetails readCase(User userDetails, String serviceToken, String authorisation, String caseId) {
+        if (isCaseWorkerOnly(userDetails)) {
             return coreCaseDataApi.readForCaseWorker(
                 getBearerToken(authorisation),
-                getServiceAuthToken(),
+                serviceToken,
                 userDetails.getUserDetails().getId(),
                 jurisdictionId,
                 caseType,
@@ -126,7 +174,7 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
 
         return coreCaseDataApi.readForCitizen(
             getBearerToken(authorisation),
-            getServiceAuthToken(),
+            serviceToken,
             userDetails.getUserDetails().getId(),
             jurisdictionId,
             caseType,
@@ -144,6 +192,71 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
         );
     }
 
+    @Override
+    public Iterator<List<CaseDetails>> searchCasePages(String authorisation, String query) {
+        return new SearchPages(authorisation, PagedSearchQuery.of(query), searchPageSize);
+    }
+
+    @Override
+    public Response retrieveRawCaseById(String authorisation, String caseId) {
+        User userDetails = getUser(authorisation);
+
+        if (isCaseWorkerOnly(userDetails)) {
+            return ccdPassthroughClient.readForCaseWorker(
+                getBearerToken(authorisation),
+                getServiceAuthToken(),
+                userDetails.getUserDetails().getId(),
+                jurisdictionId,
+                caseType,
+                caseId
+            );
+        }
+
+        return ccdPassthroughClient.readForCitizen(
+            getBearerToken(authorisation),
+            getServiceAuthToken(),
+            userDetails.getUserDetails().getId(),
+            jurisdictionId,
+            caseType,
+            caseId
+        );
+    }
+
+    @Override
+    public Response searchRawCase(String authorisation, String query) {
+        return ccdPassthroughClient.searchCases(
+            getBearerToken(authorisation),
+            getServiceAuthToken(),
+            caseType,
+            query
+        );
+    }
+
+    private boolean isCaseWorkerOnly(User userDetails) {
+        List<String> userRoles = Optional.ofNullable(userDetails.getUserDetails().getRoles())
+            .orElse(Collections.emptyList());
+
+        return userRoles.contains(CASEWORKER_ROLE) && !userRoles.contains(CITIZEN_ROLE);
+    }
+
+    private Map<CaseStateGrouping, List<CaseDetails>> groupByState(List<CaseDetails> caseDetailsList,
+                                                                   CaseStateClassifier classifier) {
+        Map<CaseStateGrouping, List<CaseDetails>> statusCaseDetailsMap = new EnumMap<>(CaseStateGrouping.class);
+
+        for (CaseDetails caseDetails : caseDetailsList) {
+            CaseStateGrouping grouping = classifier.classify(caseDetails.getState());
+            List<CaseDetails> groupedCases = statusCaseDetailsMap.get(grouping);
+
+            if (groupedCases == null) {
+                groupedCases = new ArrayList<>();
+                statusCaseDetailsMap.put(grouping, groupedCases);
+            }
+            groupedCases.add(caseDetails);
+        }
+
+        return statusCaseDetailsMap;
+    }
+
     private List<CaseDetails> filterOutAmendedCases(List<CaseDetails> caseDetailsList) {
         caseDetailsList = Optional.ofNullable(caseDetailsList)
             .orElse(Collections.emptyList())
@@ -153,22 +266,68 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
         return caseDetailsList;
     }
 
+    private boolean isElasticSearchMode() {
+        return caseRetrievalMode == CaseRetrievalMode.ELASTIC_SEARCH;
+    }
+
     private List<CaseDetails> getCaseListForUser(User user, DivCaseRole role) {
-        List<CaseDetails> cases = Optional.ofNullable(
-            coreCaseDataApi.searchForCitizen(
-                getBearerToken(user.getAuthToken()),
-                getServiceAuthToken(),
-                user.getUserDetails().getId(),
-                jurisdictionId,
-                caseType,
-                Collections.emptyMap())
-        ).orElse(Collections.emptyList());
+        return userCaseCache.getCases(user.getUserDetails().getId(), role, () -> searchCaseListForUser(user, role));
+    }
 
+    private List<CaseDetails> searchCaseListForUser(User user, DivCaseRole role) {
+        List<CaseDetails> cases = isElasticSearchMode()
+            ? searchCasesForUser(user, role)
+            : Optional.ofNullable(
+                coreCaseDataApi.searchForCitizen(
+                    getBearerToken(user.getAuthToken()),
+                    getServiceAuthToken(),
+                    user.getUserDetails().getId(),
+                    jurisdictionId,
+                    caseType,
+                    Collections.emptyMap())
+            ).orElse(Collections.emptyList());
+
+        // Elasticsearch matching is analysed rather than exact, so the results are always checked here as well
         return cases.stream()
             .filter(caseDetails -> userHasSpecifiedRole(caseDetails, user.getUserDetails().getEmail(), role))
             .collect(Collectors.toList());
     }
 
+    private List<CaseDetails> searchCasesForUser(User user, DivCaseRole role) {
+        if (role == null) {
+            return Collections.emptyList();
+        }
+
+        // Every match is read, as a case left out could be the one the legacy search would have picked
+        Iterator<List<CaseDetails>> pages = new SearchPages(user.getAuthToken(),
+            PagedSearchQuery.of(CitizenCaseSearchQuery.build(user.getUserDetails().getEmail(), role)),
+            CitizenCaseSearchQuery.CASES_PER_PAGE);
+
+        List<CaseDetails> cases = new ArrayList<>();
+        pages.forEachRemaining(cases::addAll);
+
+        return cases;
+    }
+
+    /**
+     * Cases found through Elasticsearch only carry the fields needed to choose between them, so the chosen one is
+     * read in full before it is handed back.
+     */
+    private CaseDetails readFullCase(User user, CaseDetails caseDetails) {
+        if (!isElasticSearchMode()) {
+            return caseDetails;
+        }
+
+        return coreCaseDataApi.readForCitizen(
+            getBearerToken(user.getAuthToken()),
+            getServiceAuthToken(),
+            user.getUserDetails().getId(),
+            jurisdictionId,
+            caseType,
+            String.valueOf(caseDetails.getId())
+        );
+    }
+
     private boolean userHasSpecifiedRole(CaseDetails caseDetails, String userEmail, DivCaseRole role) {
         if (role == null) {
             return false;
@@ -192,4 +351,131 @@ public class CcdRetrievalServiceImpl extends BaseCcdCaseService implements CcdRe
 
         return caseDetails;
     }
+
+    /**
+     * Pages through a search with search_after, continuing each page from the last case of the page before.
+     */
+    private class SearchPages implements Iterator<List<CaseDetails>> {
+        private final String authorisation;
+        private final PagedSearchQuery query;
+        private final int pageSize;
+        private CaseDetails last;
+        private int read;
+        private int remaining;
+        private boolean exhausted;
+
+        SearchPages(String authorisation, PagedSearchQuery query, int pageSize) {
+            this.authorisation = authorisation;
+            this.query = query;
+            this.pageSize = pageSize;
+            this.read = query.getFrom();
+            this.remaining = query.getLimit();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !exhausted && remaining > 0;
+        }
+
+        @Override
+        public List<CaseDetails> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int size = Math.min(pageSize, remaining);
+            SearchResult page = searchCase(authorisation, query.page(size, last));
+            List<CaseDetails> cases = page == null || page.getCases() == null ? Collections.emptyList() : page.getCases();
+
+            read += cases.size();
+            remaining -= cases.size();
+            exhausted = page == null || cases.isEmpty() || cases.size() < size || read >= page.getTotal();
+            if (!cases.isEmpty()) {
+                last = cases.get(cases.size() - 1);
+            }
+
+            return cases;
+        }
+    }
+
+    /**
+     * Reads cases a few at a time and hands each result over as soon as it arrives, so results come in completion
+     * order. The next read is only started once a result has been taken, which bounds both the reads in flight and
+     * the results held waiting for a slow caller.
+     */
+    private class CaseReads implements Iterator<CaseReadResult> {
+        private final User userDetails;
+        private final String serviceToken;
+        private final String authorisation;
+        private final Iterator<String> pendingCaseIds;
+        private final CompletionService<CaseReadResult> completionService;
+        private int inFlight;
+
+        CaseReads(User userDetails, String serviceToken, String authorisation, Collection<String> caseIds) {
+            this.userDetails = userDetails;
+            this.serviceToken = serviceToken;
+            this.authorisation = authorisation;
+            this.pendingCaseIds = caseIds.iterator();
+            this.completionService = new ExecutorCompletionService<>(upstreamLookupExecutor);
+
+            while (inFlight < Math.max(batchReadParallelism, 1) && pendingCaseIds.hasNext()) {
+                readNext();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return inFlight > 0;
+        }
+
+        @Override
+        public CaseReadResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            CaseReadResult result;
+            try {
+                result = completionService.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a case read", e);
+            } catch (ExecutionException e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw new IllegalStateException("Case read failed", e.getCause());
+            }
+
+            inFlight--;
+            if (pendingCaseIds.hasNext()) {
+                readNext();
+            }
+
+            return result;
+        }
+
+        private void readNext() {
+            String caseId = pendingCaseIds.next();
+            completionService.submit(() -> read(caseId));
+            inFlight++;
+        }
+
+        private CaseReadResult read(String caseId) {
+            try {
+                CaseDetails caseDetails = readCase(userDetails, serviceToken, authorisation, caseId);
+
+                return caseDetails == null || caseDetails.getId() == null
+                    ? CaseReadResult.failed(caseId, HttpStatus.NOT_FOUND.value(), "Case not found")
+                    : CaseReadResult.found(caseId, caseDetails);
+            } catch (FeignException e) {
+                log.warn("Could not read case {} in batch read", caseId, e);
+
+                int status = e.status() > 0 ? e.status() : HttpStatus.INTERNAL_SERVER_ERROR.value();
+                return CaseReadResult.failed(caseId, status, e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Could not read case {} in batch read", caseId, e);
+
+                return CaseReadResult.failed(caseId, HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+            }
+        }
+    }
 }
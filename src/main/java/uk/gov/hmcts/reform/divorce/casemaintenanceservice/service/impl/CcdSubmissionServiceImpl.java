@@ -5,6 +5,7 @@ import uk.gov.hmcts.reform.ccd.client.model.CaseDataContent;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.Event;
 import uk.gov.hmcts.reform.ccd.client.model.StartEventResponse;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.event.ccd.submission.NotifyCaseSubmission;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdSubmissionService;
 import uk.gov.hmcts.reform.idam.client.models.User;
@@ -43,7 +44,7 @@ public class CcdSubmissionServiceImpl extends BaseCcdCaseService implements CcdS
             ).data(data)
             .build();
 
-        return coreCaseDataApi.submitForCitizen(
+        CaseDetails caseDetails = coreCaseDataApi.submitForCitizen(
             getBearerToken(authorisation),
             getServiceAuthToken(),
             userDetails.getUserDetails().getId(),
@@ -52,6 +53,10 @@ public class CcdSubmissionServiceImpl extends BaseCcdCaseService implements CcdS
             true,
             caseDataContent
         );
+
+        userCaseCache.addCase(userDetails.getUserDetails().getId(), DivCaseRole.PETITIONER, caseDetails);
+
+        return caseDetails;
     }
 
     @Override
@@ -1,27 +1,126 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import com.google.common.util.concurrent.RateLimiter;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDataContent;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.Event;
 import uk.gov.hmcts.reform.ccd.client.model.StartEventResponse;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdate;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdateResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdUpdateService;
 import uk.gov.hmcts.reform.idam.client.models.User;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.config.UpstreamLookupExecutorConfiguration.UPSTREAM_LOOKUP_EXECUTOR;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CmsConstants.CASEWORKER_ROLE;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CmsConstants.CITIZEN_ROLE;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getBearerToken;
 
 @Service
+@Slf4j
 public class CcdUpdateServiceImpl extends BaseCcdCaseService implements CcdUpdateService {
 
+    @Value("${ccd.batch-update.max-items}")
+    private int batchMaxItems;
+
+    @Value("${ccd.batch-update.parallelism}")
+    private int batchParallelism;
+
+    @Value("${ccd.batch-update.permits-per-second}")
+    private double batchPermitsPerSecond;
+
+    @Autowired
+    @Qualifier(UPSTREAM_LOOKUP_EXECUTOR)
+    private Executor upstreamLookupExecutor;
+
+    /**
+     * Shared by all batches, so concurrent batches together stay within the CCD event rate.
+     */
+    private RateLimiter batchRateLimiter;
+
+    @PostConstruct
+    public void init() {
+        batchRateLimiter = RateLimiter.create(batchPermitsPerSecond);
+    }
+
     @Override
     public CaseDetails update(String caseId, Object data, String eventId, String authorisation) {
+        return update(getUser(authorisation), getServiceAuthToken(), authorisation, caseId, data, eventId);
+    }
+
+    @Override
+    public List<CaseEventUpdateResult> updateAll(List<CaseEventUpdate> updates, String authorisation) {
+        if (updates.size() > batchMaxItems) {
+            throw new InvalidRequestException(
+                String.format("A batch can update at most %d cases, %d were given", batchMaxItems, updates.size()));
+        }
+
+        // Resolved once for the whole batch rather than once per case
         User userDetails = getUser(authorisation);
+        String serviceToken = getServiceAuthToken();
+
+        Semaphore inFlight = new Semaphore(batchParallelism);
+        List<CompletableFuture<CaseEventUpdateResult>> results = new ArrayList<>(updates.size());
+
+        for (CaseEventUpdate caseEventUpdate : updates) {
+            // The request thread paces the batch, so no worker sits blocked waiting for a slot or a permit
+            inFlight.acquireUninterruptibly();
+            batchRateLimiter.acquire();
+
+            CompletableFuture<CaseEventUpdateResult> result;
+            try {
+                result = CompletableFuture.supplyAsync(
+                    () -> updateItem(userDetails, serviceToken, authorisation, caseEventUpdate), upstreamLookupExecutor);
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+            results.add(result.whenComplete((outcome, failure) -> inFlight.release()));
+        }
+
+        return results.stream()
+            .map(CompletableFuture::join)
+            .collect(Collectors.toList());
+    }
+
+    private CaseEventUpdateResult updateItem(User userDetails, String serviceToken, String authorisation,
+                                             CaseEventUpdate caseEventUpdate) {
+        try {
+            update(userDetails, serviceToken, authorisation,
+                caseEventUpdate.getCaseId(), caseEventUpdate.getData(), caseEventUpdate.getEventId());
+
+            return CaseEventUpdateResult.succeeded(caseEventUpdate);
+        } catch (FeignException e) {
+            log.warn("Event {} failed on case {} in batch update", caseEventUpdate.getEventId(), caseEventUpdate.getCaseId(), e);
+
+            int status = e.status() > 0 ? e.status() : HttpStatus.INTERNAL_SERVER_ERROR.value();
+            return CaseEventUpdateResult.failed(caseEventUpdate, status, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Event {} failed on case {} in batch update", caseEventUpdate.getEventId(), caseEventUpdate.getCaseId(), e);
+
+            return CaseEventUpdateResult.failed(caseEventUpdate, HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+        }
+    }
+
+    private CaseDetails update(User userDetails, String serviceToken, String authorisation,
+                               String caseId, Object data, String eventId) {
         List<String> userRoles = Optional.ofNullable(
             userDetails.getUserDetails().getRoles()).orElse(Collections.emptyList()
         );
@@ -29,7 +128,7 @@ public class CcdUpdateServiceImpl extends BaseCcdCaseService implements CcdUpdat
         if (userRoles.contains(CASEWORKER_ROLE) && !userRoles.contains(CITIZEN_ROLE)) {
             StartEventResponse startEventResponse = coreCaseDataApi.startEventForCaseWorker(
                 getBearerToken(authorisation),
-                getServiceAuthToken(),
+                serviceToken,
                 userDetails.getUserDetails().getId(),
                 jurisdictionId,
                 caseType,
@@ -40,7 +139,7 @@ public class CcdUpdateServiceImpl extends BaseCcdCaseService implements CcdUpdat
 
             return coreCaseDataApi.submitEventForCaseWorker(
                 getBearerToken(authorisation),
-                getServiceAuthToken(),
+                serviceToken,
                 userDetails.getUserDetails().getId(),
                 jurisdictionId,
                 caseType,
@@ -52,7 +151,7 @@ public class CcdUpdateServiceImpl extends BaseCcdCaseService implements CcdUpdat
 
         StartEventResponse startEventResponse = coreCaseDataApi.startEventForCitizen(
             getBearerToken(authorisation),
-            getServiceAuthToken(),
+            serviceToken,
             userDetails.getUserDetails().getId(),
             jurisdictionId,
             caseType,
@@ -62,9 +161,9 @@ public class CcdUpdateServiceImpl extends BaseCcdCaseService implements CcdUpdat
 
         CaseDataContent caseDataContent = buildCaseDataContent(startEventResponse, data);
 
-        return coreCaseDataApi.submitEventForCitizen(
+        CaseDetails caseDetails = coreCaseDataApi.submitEventForCitizen(
             getBearerToken(authorisation),
-            getServiceAuthToken(),
+            serviceToken,
             userDetails.getUserDetails().getId(),
             jurisdictionId,
             caseType,
@@ -72,6 +171,10 @@ public class CcdUpdateServiceImpl extends BaseCcdCaseService implements CcdUpdat
             true,
             caseDataContent
         );
+
+        userCaseCache.updateCase(userDetails.getUserDetails().getId(), caseDetails);
+
+        return caseDetails;
     }
 
     @Override
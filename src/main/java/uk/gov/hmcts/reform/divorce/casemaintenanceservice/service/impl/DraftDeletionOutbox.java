@@ -0,0 +1,409 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getTokenExpiry;
+
+/**
+ * Journals the draft deletions that follow a case submission so that a slow or unavailable draft store does not
+ * lose them.
+ *
+ * <p>Every deletion is written to its own file in the outbox directory before it is attempted. The file is removed
+ * once the draft store confirms the deletion; otherwise it is retried in the background with exponential backoff,
+ * including after a restart, until it succeeds, runs out of attempts or the user's token expires.
+ *
+ * <p>The draft store only deletes a user's drafts for that user's own token; it has no service or caseworker
+ * equivalent. The token is therefore journalled, but only encrypted with AES-GCM under a key that is supplied through
+ * configuration and never written to the outbox directory. The directory and files are also only readable by the
+ * owner of the process.
+ */
+@Component
+@Slf4j
+public class DraftDeletionOutbox {
+
+    private static final String BACKLOG_METRIC = "cms.draft.deletion.outbox.backlog";
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String OWNER_ONLY_FILE = "rw-------";
+    private static final String OWNER_ONLY_DIRECTORY = "rwx------";
+    private static final String TOKEN_CIPHER = "AES/GCM/NoPadding";
+    private static final int TOKEN_IV_BYTES = 12;
+    private static final int TOKEN_TAG_BITS = 128;
+
+    @Value("${draft.delete.outbox.enabled}")
+    private boolean enabled;
+
+    @Value("${draft.delete.outbox.directory}")
+    private String directory;
+
+    @Value("${draft.delete.outbox.token-encryption-key}")
+    private String tokenEncryptionKey;
+
+    @Value("${draft.delete.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${draft.delete.outbox.initial-backoff-seconds}")
+    private long initialBackoffSeconds;
+
+    @Value("${draft.delete.outbox.max-backoff-seconds}")
+    private long maxBackoffSeconds;
+
+    @Value("${draft.delete.outbox.poll-interval-seconds}")
+    private long pollIntervalSeconds;
+
+    @Autowired
+    private DraftServiceImpl draftService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, PendingDeletion> backlog = new ConcurrentHashMap<>();
+    private final boolean posixFileSystem = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private Path outboxDirectory;
+    private SecretKey tokenKey;
+    private ScheduledExecutorService retrier;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        // A default such as the temporary directory would not survive a container restart, which is the point
+        if (StringUtils.isBlank(directory)) {
+            throw new IllegalStateException(
+                "draft.delete.outbox.directory must be set to a persistent directory when the outbox is enabled");
+        }
+
+        tokenKey = loadTokenKey();
+
+        outboxDirectory = Paths.get(directory);
+        if (posixFileSystem) {
+            Files.createDirectories(outboxDirectory,
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(OWNER_ONLY_DIRECTORY)));
+        } else {
+            Files.createDirectories(outboxDirectory);
+        }
+
+        loadBacklog();
+
+        Gauge.builder(BACKLOG_METRIC, backlog, Map::size)
+            .description("Draft deletions that have not been confirmed by the draft store yet")
+            .register(meterRegistry);
+
+        retrier = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("draft-deletion-outbox-%d")
+            .setDaemon(true)
+            .build());
+        retrier.scheduleWithFixedDelay(this::retryDue, pollIntervalSeconds, pollIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (retrier != null) {
+            retrier.shutdownNow();
+        }
+    }
+
+    /**
+     * Deletes all of the user's drafts, journalling the deletion first when the outbox is enabled so it is retried
+     * if the draft store cannot be reached now. The user's id is journalled with it, so retries do not look the user
+     * up again.
+     */
+    public void deleteDrafts(String authorisation, String userId) {
+        // Until the deletion is confirmed, saves must neither be skipped nor sent to the draft being deleted
+        draftService.forgetDraft(userId);
+
+        if (!enabled) {
+            draftService.deleteDraft(authorisation, userId);
+            return;
+        }
+
+        final Instant now = Instant.now();
+        final PendingDeletion entry = new PendingDeletion(UUID.randomUUID().toString(), userId,
+            getTokenExpiry(authorisation).map(Instant::toEpochMilli).orElse(null),
+            now.toEpochMilli(), now.plusSeconds(initialBackoffSeconds).toEpochMilli());
+
+        try {
+            entry.setEncryptedAuthToken(encryptToken(entry.getId(), authorisation));
+            persist(entry);
+        } catch (IOException | GeneralSecurityException e) {
+            log.warn("Could not journal draft deletion, deleting without retry", e);
+            draftService.deleteDraft(authorisation, userId);
+            return;
+        }
+
+        backlog.put(entry.getId(), entry);
+        attempt(entry);
+    }
+
+    public int getBacklogSize() {
+        return backlog.size();
+    }
+
+    void retryDue() {
+        final long now = Instant.now().toEpochMilli();
+
+        backlog.values().stream()
+            .filter(entry -> entry.getNextAttemptAt() <= now)
+            .forEach(this::attempt);
+    }
+
+    private void attempt(PendingDeletion entry) {
+        if (!entry.inFlight.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            if (entry.getTokenExpiresAt() != null && entry.getTokenExpiresAt() <= Instant.now().toEpochMilli()) {
+                discard(entry, "token expired");
+                return;
+            }
+
+            final String authToken;
+            try {
+                authToken = decryptToken(entry.getId(), entry.getEncryptedAuthToken());
+            } catch (GeneralSecurityException e) {
+                // Encrypted under a key that has since been rotated, or tampered with; retrying cannot help
+                log.error("Could not decrypt token for draft deletion {}", entry.getId(), e);
+                discard(entry, "token unreadable");
+                return;
+            }
+
+            draftService.deleteDraft(authToken, entry.getUserId());
+            remove(entry);
+        } catch (Exception e) {
+            entry.setAttempts(entry.getAttempts() + 1);
+
+            if (entry.getAttempts() >= maxAttempts) {
+                discard(entry, "attempts exhausted");
+                return;
+            }
+
+            entry.setNextAttemptAt(Instant.now().plusSeconds(backoffSeconds(entry.getAttempts())).toEpochMilli());
+            log.warn("Draft deletion {} failed on attempt {}, retrying at {}", entry.getId(), entry.getAttempts(),
+                Instant.ofEpochMilli(entry.getNextAttemptAt()), e);
+
+            try {
+                persist(entry);
+            } catch (IOException persistException) {
+                log.warn("Could not update journal for draft deletion {}", entry.getId(), persistException);
+            }
+        } finally {
+            entry.inFlight.set(false);
+        }
+    }
+
+    private long backoffSeconds(int attempts) {
+        long backoff = initialBackoffSeconds;
+        for (int i = 1; i < attempts && backoff < maxBackoffSeconds; i++) {
+            backoff *= 2;
+        }
+        return Math.min(backoff, maxBackoffSeconds);
+    }
+
+    private void discard(PendingDeletion entry, String reason) {
+        log.error("Giving up on draft deletion {} after {} attempts: {}", entry.getId(), entry.getAttempts(), reason);
+        meterRegistry.counter(BACKLOG_METRIC + ".discarded", "reason", reason).increment();
+        remove(entry);
+    }
+
+    private void remove(PendingDeletion entry) {
+        backlog.remove(entry.getId());
+
+        try {
+            Files.deleteIfExists(entryPath(entry.getId()));
+        } catch (IOException e) {
+            log.warn("Could not remove journal for draft deletion {}", entry.getId(), e);
+        }
+    }
+
+    private void loadBacklog() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(outboxDirectory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+
+                if (fileName.endsWith(TMP_SUFFIX)) {
+                    // Never renamed into place, so the deletion it belonged to was journalled again or not at all
+                    Files.deleteIfExists(file);
+                } else if (fileName.endsWith(ENTRY_SUFFIX)) {
+                    loadEntry(file);
+                }
+            }
+        }
+
+        if (!backlog.isEmpty()) {
+            log.info("Resuming {} pending draft deletions", backlog.size());
+        }
+    }
+
+    private void loadEntry(Path file) throws IOException {
+        try {
+            PendingDeletion entry = objectMapper.readValue(file.toFile(), PendingDeletion.class);
+            if (entry.getEncryptedAuthToken() == null) {
+                // Journalled before tokens were encrypted, so the plain token is not trusted back into memory
+                log.error("Dropping draft deletion journal {} without an encrypted token", file.getFileName());
+                Files.deleteIfExists(file);
+                return;
+            }
+            backlog.put(entry.getId(), entry);
+        } catch (IOException e) {
+            log.error("Dropping unreadable draft deletion journal {}", file.getFileName(), e);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes the entry to a temporary file and renames it into place, so a crash never leaves a half written entry.
+     */
+    private void persist(PendingDeletion entry) throws IOException {
+        final Path tmp = outboxDirectory.resolve(entry.getId() + TMP_SUFFIX);
+
+        Files.deleteIfExists(tmp);
+        if (posixFileSystem) {
+            Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(OWNER_ONLY_FILE)));
+        } else {
+            Files.createFile(tmp);
+        }
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(objectMapper.writeValueAsBytes(entry)));
+            channel.force(true);
+        }
+
+        Files.move(tmp, entryPath(entry.getId()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path entryPath(String id) {
+        return outboxDirectory.resolve(id + ENTRY_SUFFIX);
+    }
+
+    private SecretKey loadTokenKey() {
+        if (StringUtils.isBlank(tokenEncryptionKey)) {
+            throw new IllegalStateException(
+                "draft.delete.outbox.token-encryption-key must be set when the outbox is enabled");
+        }
+
+        final byte[] key;
+        try {
+            key = Base64.getDecoder().decode(tokenEncryptionKey.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("draft.delete.outbox.token-encryption-key must be base64 encoded", e);
+        }
+
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalStateException("draft.delete.outbox.token-encryption-key must be a 128, 192 or 256 bit key");
+        }
+
+        return new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * Encrypts the token with a fresh IV, bound to the entry id so a token cannot be moved to another entry.
+     */
+    private String encryptToken(String entryId, String authToken) throws GeneralSecurityException {
+        final byte[] iv = new byte[TOKEN_IV_BYTES];
+        secureRandom.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(TOKEN_CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, tokenKey, new GCMParameterSpec(TOKEN_TAG_BITS, iv));
+        cipher.updateAAD(entryId.getBytes(StandardCharsets.UTF_8));
+        final byte[] encrypted = cipher.doFinal(authToken.getBytes(StandardCharsets.UTF_8));
+
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length)
+            .put(iv)
+            .put(encrypted)
+            .array());
+    }
+
+    private String decryptToken(String entryId, String encryptedAuthToken) throws GeneralSecurityException {
+        final byte[] encrypted;
+        try {
+            encrypted = Base64.getDecoder().decode(encryptedAuthToken);
+        } catch (IllegalArgumentException e) {
+            throw new GeneralSecurityException("Encrypted token is not base64 encoded", e);
+        }
+
+        if (encrypted.length <= TOKEN_IV_BYTES) {
+            throw new GeneralSecurityException("Encrypted token is too short");
+        }
+
+        Cipher cipher = Cipher.getInstance(TOKEN_CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, tokenKey, new GCMParameterSpec(TOKEN_TAG_BITS, encrypted, 0, TOKEN_IV_BYTES));
+        cipher.updateAAD(entryId.getBytes(StandardCharsets.UTF_8));
+
+        return new String(cipher.doFinal(encrypted, TOKEN_IV_BYTES, encrypted.length - TOKEN_IV_BYTES),
+            StandardCharsets.UTF_8);
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    static class PendingDeletion {
+        private String id;
+        private String encryptedAuthToken;
+        private String userId;
+        private Long tokenExpiresAt;
+        private int attempts;
+        private long createdAt;
+        private long nextAttemptAt;
+
+        @JsonIgnore
+        private final transient AtomicBoolean inFlight = new AtomicBoolean();
+
+        PendingDeletion(String id, String userId, Long tokenExpiresAt, long createdAt, long nextAttemptAt) {
+            this.id = id;
+            this.userId = userId;
+            this.tokenExpiresAt = tokenExpiresAt;
+            this.createdAt = createdAt;
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+}
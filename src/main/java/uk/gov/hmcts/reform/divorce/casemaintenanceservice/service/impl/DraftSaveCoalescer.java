@@ -0,0 +1,245 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getBearerToken;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveUser;
+
+/**
+ * Merges a user's draft saves that arrive within a short window into a single draft store write.
+ *
+ * <p>The first save for a user starts the window and every save inside it replaces the pending data, so the last
+ * write wins. The pending save is written when the window closes, or straight away when the user's draft is read,
+ * created or the case is submitted. Writes for the same user are serialised, so they reach the draft store in the
+ * order they were made. A write that fails is put back and retried after another window, unless a newer save has
+ * replaced it, until it has failed {@code max-attempts} times, as the caller of a deferred write has already been
+ * answered.
+ *
+ * <p>Pending saves are only held in this instance's memory, so until they are written other instances serve the
+ * user's previous draft and a crash loses them.
+ */
+@Component
+@Slf4j
+public class DraftSaveCoalescer {
+
+    private static final String METRIC_PREFIX = "cms.draft.save.coalescer";
+
+    @Value("${draft.store.save-coalescing.enabled}")
+    private boolean enabled;
+
+    @Value("${draft.store.save-coalescing.window-millis}")
+    private long windowMillis;
+
+    @Value("${draft.store.save-coalescing.max-attempts}")
+    private int maxAttempts;
+
+    @Autowired
+    private DraftServiceImpl draftService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+    private final Striped<Lock> userLocks = Striped.lock(64);
+
+    private ScheduledExecutorService flusher;
+    private Counter absorbedSaves;
+    private Counter writtenSaves;
+    private Counter failedSaves;
+    private Counter droppedSaves;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("draft-save-coalescer-%d")
+            .setDaemon(true)
+            .build());
+
+        absorbedSaves = Counter.builder(METRIC_PREFIX + ".absorbed")
+            .description("Draft saves replaced by a later save before being written")
+            .register(meterRegistry);
+        writtenSaves = Counter.builder(METRIC_PREFIX + ".written")
+            .description("Coalesced draft saves written to the draft store")
+            .register(meterRegistry);
+        failedSaves = Counter.builder(METRIC_PREFIX + ".failed")
+            .description("Coalesced draft save attempts the draft store rejected")
+            .register(meterRegistry);
+        droppedSaves = Counter.builder(METRIC_PREFIX + ".dropped")
+            .description("Coalesced draft saves given up on after failing every attempt")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", pendingSaves, Map::size)
+            .description("Users with a draft save waiting to be written")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+
+        flusher.shutdownNow();
+        new ArrayList<>(pendingSaves.keySet()).forEach(userId -> {
+            try {
+                flushUser(userId);
+            } catch (Exception e) {
+                log.error("Failed to write pending draft save on shutdown", e);
+            }
+        });
+    }
+
+    public void saveDraft(String userToken, Map<String, Object> data, boolean divorceFormat) {
+        if (!enabled) {
+            draftService.saveDraft(userToken, data, divorceFormat);
+            return;
+        }
+
+        final String userId = getUserId(userToken);
+
+        PendingSave replaced = pendingSaves.put(userId, new PendingSave(userToken, data, divorceFormat));
+
+        if (replaced == null) {
+            flusher.schedule(() -> flushInBackground(userId), windowMillis, TimeUnit.MILLISECONDS);
+        } else {
+            absorbedSaves.increment();
+        }
+    }
+
+    /**
+     * Writes the user's pending save, if any, before returning.
+     */
+    public void flush(String userToken) {
+        if (!enabled || pendingSaves.isEmpty()) {
+            return;
+        }
+
+        flushUser(getUserId(userToken));
+    }
+
+    /**
+     * Drops the user's pending save, for when the user's drafts are about to be deleted anyway.
+     */
+    public void discard(String userToken) {
+        if (!enabled || pendingSaves.isEmpty()) {
+            return;
+        }
+
+        discardForUser(getUserId(userToken));
+    }
+
+    /**
+     * As {@link #discard(String)}, for callers that have already resolved the user's id. The draft service forgets the
+     * user's draft too, so no later save is skipped as unchanged against a draft that is being deleted.
+     */
+    public void discardForUser(String userId) {
+        draftService.forgetDraft(userId);
+
+        if (!enabled || pendingSaves.isEmpty()) {
+            return;
+        }
+
+        final Lock lock = userLocks.get(userId);
+
+        lock.lock();
+        try {
+            if (pendingSaves.remove(userId) != null) {
+                absorbedSaves.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushInBackground(String userId) {
+        try {
+            flushUser(userId);
+        } catch (Exception e) {
+            log.error("Failed to write coalesced draft save for user {}", userId, e);
+        }
+    }
+
+    private void flushUser(String userId) {
+        final Lock lock = userLocks.get(userId);
+
+        lock.lock();
+        try {
+            PendingSave pending = pendingSaves.remove(userId);
+            if (pending != null) {
+                try {
+                    draftService.saveDraft(pending.getUserToken(), pending.getData(), pending.isDivorceFormat());
+                } catch (RuntimeException e) {
+                    failedSaves.increment();
+                    retryLater(userId, pending);
+                    throw e;
+                }
+                writtenSaves.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts a failed save back to be written after another window, unless a newer save has taken its place in the
+     * meantime or it has used up its attempts.
+     */
+    private void retryLater(String userId, PendingSave failed) {
+        final int attempts = failed.getAttempts() + 1;
+
+        if (attempts >= maxAttempts || flusher.isShutdown()) {
+            droppedSaves.increment();
+            log.error("Dropping coalesced draft save for user {} after {} failed attempts", userId, attempts);
+            return;
+        }
+
+        PendingSave retry = new PendingSave(failed.getUserToken(), failed.getData(), failed.isDivorceFormat(), attempts);
+        if (pendingSaves.putIfAbsent(userId, retry) == null) {
+            flusher.schedule(() -> flushInBackground(userId), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private String getUserId(String userToken) {
+        return resolveUser(getBearerToken(userToken), userService::retrieveUser).getUserDetails().getId();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingSave {
+        private final String userToken;
+        private final Map<String, Object> data;
+        private final boolean divorceFormat;
+        private final int attempts;
+
+        PendingSave(String userToken, Map<String, Object> data, boolean divorceFormat) {
+            this(userToken, data, divorceFormat, 0);
+        }
+    }
+}
@@ -1,27 +1,64 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.DraftStoreClient;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.factory.DraftModelFactory;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.factory.EncryptionKeyFactory;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.CreateDraft;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.Draft;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.DraftList;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.UpdateDraft;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.DraftService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
 import uk.gov.hmcts.reform.idam.client.models.User;
 
+import java.net.URI;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getBearerToken;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveDraftSecret;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveServiceToken;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveUser;
 
 @Service
 @Slf4j
 public class DraftServiceImpl implements DraftService {
 
+    private static final String DRAFT_ID_INDEX_NAME = "draft.store.draft.id.index";
+    private static final String DRAFT_WRITES_METRIC = "draft.store.draft.writes";
+
+    @Value("${draft.store.draft-id-index.enabled}")
+    private boolean draftIdIndexEnabled;
+
+    @Value("${draft.store.draft-id-index.ttl-seconds}")
+    private long draftIdIndexTtlSeconds;
+
+    @Value("${draft.store.draft-id-index.max-size}")
+    private long draftIdIndexMaxSize;
+
+    @Value("${draft.store.skip-unchanged-writes.enabled}")
+    private boolean skipUnchangedWritesEnabled;
+
     @Autowired
     private AuthTokenGenerator serviceTokenGenerator;
 
@@ -37,63 +74,187 @@ public class DraftServiceImpl implements DraftService {
     @Autowired
     private DraftModelFactory modelFactory;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * What this instance knows about each user's divorce draft: its id, so that saving the draft does not have to list
+     * the user's drafts first, and the digest of the document last written to it, so that an unchanged save can be
+     * skipped. Both are kept in one entry, so every path that forgets the draft forgets both. Only deletions made
+     * through this instance are seen, so the time to live bounds how long a deletion made elsewhere can be masked.
+     */
+    private Cache<String, KnownDraft> knownDrafts;
+    private ObjectMapper canonicalMapper;
+    private Counter skippedWrites;
+    private Counter performedWrites;
+
+    @PostConstruct
+    public void init() {
+        if (draftIdIndexEnabled || skipUnchangedWritesEnabled) {
+            knownDrafts = CacheBuilder.newBuilder()
+                .maximumSize(draftIdIndexMaxSize)
+                .expireAfterWrite(draftIdIndexTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+            GuavaCacheMetrics.monitor(meterRegistry, knownDrafts, DRAFT_ID_INDEX_NAME);
+        }
+
+        if (skipUnchangedWritesEnabled) {
+            // Sorted keys, so the same document always serialises, and therefore hashes, the same way
+            canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+            skippedWrites = meterRegistry.counter(DRAFT_WRITES_METRIC, "outcome", "skipped");
+            performedWrites = meterRegistry.counter(DRAFT_WRITES_METRIC, "outcome", "written");
+        }
+    }
+
     @Override
     public DraftList getAllDrafts(String userToken) {
         return draftStoreClient.getAllDrafts(
-            getBearerToken(userToken), serviceTokenGenerator.generate(), getSecret(userToken)
+            getBearerToken(userToken), getServiceAuthToken(), getSecret(userToken)
         );
     }
 
     private DraftList getAllDrafts(String userToken, String after) {
         return draftStoreClient.getAllDrafts(
-            after, getBearerToken(userToken), serviceTokenGenerator.generate(), getSecret(userToken)
+            after, getBearerToken(userToken), getServiceAuthToken(), getSecret(userToken)
         );
     }
 
     @Override
     public void saveDraft(String userToken, Map<String, Object> data, boolean divorceFormat) {
-        Draft draft = getDraft(userToken);
+        final String userId = getUserKey(userToken);
+        final String digest = digestDraft(data, divorceFormat);
+
+        KnownDraft known = getKnownDraft(userId);
+
+        if (draftIdIndexEnabled && known != null) {
+            if (known.isWrittenWith(digest)) {
+                skipWrite();
+                return;
+            }
+
+            try {
+                log.debug("Updating the indexed divorce session draft");
+                updateDraft(userToken, userId, data, divorceFormat, known.draftId, digest);
+                return;
+            } catch (FeignException e) {
+                if (e.status() != HttpStatus.NOT_FOUND.value()) {
+                    throw e;
+                }
+                log.debug("Indexed divorce session draft no longer exists, looking it up again");
+                forgetDraft(userId);
+                known = null;
+            }
+        }
+
+        Draft draft = getDraft(userToken, userId);
 
         if (draft == null) {
             log.debug("Creating a new divorce session draft");
-            createDraft(userToken, data, divorceFormat);
+            createDraft(userToken, userId, data, divorceFormat, digest);
+        } else if (known != null && draft.getId().equals(known.draftId) && known.isWrittenWith(digest)) {
+            skipWrite();
         } else {
             log.debug("Updating the existing divorce session draft");
-            updateDraft(userToken, data, divorceFormat, draft);
+            updateDraft(userToken, userId, data, divorceFormat, draft.getId(), digest);
         }
     }
 
     @Override
     public void createDraft(String userToken, Map<String, Object> data, boolean divorceFormat) {
-        draftStoreClient.createSingleDraft(
-            modelFactory.createDraft(data, divorceFormat),
+        createDraft(userToken, getUserKey(userToken), data, divorceFormat, digestDraft(data, divorceFormat));
+    }
+
+    private void createDraft(String userToken, String userId, Map<String, Object> data, boolean divorceFormat,
+                             String digest) {
+        CreateDraft createDraft = modelFactory.createDraft(data, divorceFormat);
+
+        ResponseEntity<Void> response = draftStoreClient.createSingleDraft(
+            createDraft,
             getBearerToken(userToken),
-            serviceTokenGenerator.generate(),
+            getServiceAuthToken(),
             getSecret(userToken)
         );
+
+        recordWrittenDraft(userId, getCreatedDraftId(response), digest);
     }
 
-    private void updateDraft(String userToken, Map<String, Object> data, boolean divorceFormat, Draft draft) {
+    private void updateDraft(String userToken, String userId, Map<String, Object> data, boolean divorceFormat,
+                             String draftId, String digest) {
+        UpdateDraft updateDraft = modelFactory.updateDraft(data, divorceFormat);
+
         draftStoreClient.updateSingleDraft(
-            draft.getId(),
-            modelFactory.updateDraft(data, divorceFormat),
+            draftId,
+            updateDraft,
             getBearerToken(userToken),
-            serviceTokenGenerator.generate(),
+            getServiceAuthToken(),
             getSecret(userToken)
         );
+
+        recordWrittenDraft(userId, draftId, digest);
+    }
+
+    /**
+     * Overwrites a draft held in CCD format with its divorce format equivalent, so it no longer needs transforming
+     * every time it is read.
+     */
+    public void rewriteInDivorceFormat(String userToken, Draft draft, Map<String, Object> divorceFormatData) {
+        updateDraft(userToken, getUserKey(userToken), divorceFormatData, true, draft.getId(),
+            digestDraft(divorceFormatData, true));
     }
 
     @Override
     public void deleteDraft(String authorisation) {
+        deleteDraft(authorisation, getUserKey(authorisation));
+    }
+
+    /**
+     * Deletes all of the user's drafts for a caller that has already resolved the user's id, so deletions made outside
+     * of a request do not look the user up again. A null id is resolved from the token when it is needed.
+     */
+    public void deleteDraft(String authorisation, String userId) {
+        final String userKey = userId == null ? getUserKey(authorisation) : userId;
+
+        // Forgotten before and after, so neither a failed deletion nor a save racing it leaves the draft remembered
+        forgetDraft(userKey);
         log.debug("Deleting all divorce session draft");
-        draftStoreClient.deleteAllDrafts(getBearerToken(authorisation), serviceTokenGenerator.generate());
+        draftStoreClient.deleteAllDrafts(getBearerToken(authorisation), getServiceAuthToken());
+        forgetDraft(userKey);
+    }
+
+    /**
+     * Forgets the user's draft id and the digest of its last write, for callers about to delete the user's drafts,
+     * so that no save is skipped or sent to a draft that is no longer there.
+     */
+    public void forgetDraft(String userId) {
+        if (knownDrafts == null || userId == null) {
+            return;
+        }
+
+        knownDrafts.invalidate(userId);
     }
 
     @Override
     public Draft getDraft(String userToken) {
+        return getDraft(userToken, getUserKey(userToken));
+    }
+
+    private Draft getDraft(String userToken, String userId) {
         DraftList draftList = getAllDrafts(userToken);
 
-        return findDivorceDraft(userToken, draftList).orElse(null);
+        Draft draft = findDivorceDraft(userToken, draftList).orElse(null);
+        if (draft == null) {
+            // The draft may have expired or been removed elsewhere, so the next save must not be skipped
+            forgetDraft(userId);
+        } else {
+            rememberDraft(userId, draft.getId());
+        }
+
+        return draft;
     }
 
     @Override
@@ -124,8 +285,123 @@ public class DraftServiceImpl implements DraftService {
     }
 
     private String getSecret(String userToken) {
-        User userDetails = userService.retrieveUser(getBearerToken(userToken));
+        return resolveDraftSecret(getBearerToken(userToken), bearerToken -> {
+            User userDetails = resolveUser(bearerToken, userService::retrieveUser);
+
+            return encryptionKeyFactory.createEncryptionKey(userDetails.getUserDetails().getId());
+        });
+    }
+
+    private KnownDraft getKnownDraft(String userId) {
+        if (knownDrafts == null) {
+            return null;
+        }
+
+        return knownDrafts.getIfPresent(userId);
+    }
+
+    /**
+     * Records the id of the user's divorce draft, keeping the digest of its last write only if it is the same draft.
+     */
+    private void rememberDraft(String userId, String draftId) {
+        if (knownDrafts == null) {
+            return;
+        }
+
+        knownDrafts.asMap().compute(userId,
+            (key, known) -> known != null && draftId.equals(known.draftId) ? known : new KnownDraft(draftId, null));
+    }
+
+    /**
+     * Hash of the document and its format, or null when unchanged writes are not being skipped.
+     */
+    private String digestDraft(Map<String, Object> data, boolean divorceFormat) {
+        if (canonicalMapper == null) {
+            return null;
+        }
+
+        try {
+            return Hashing.sha256().newHasher()
+                .putBoolean(divorceFormat)
+                .putBytes(canonicalMapper.writeValueAsBytes(data))
+                .hash()
+                .toString();
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialise divorce session draft to compare it with the last write", e);
+            return null;
+        }
+    }
+
+    private void skipWrite() {
+        log.debug("Divorce session draft is unchanged, skipping the write");
+        skippedWrites.increment();
+    }
+
+    /**
+     * Records the draft just written for the user with the digest of what was written, or forgets the user's draft
+     * when the draft store did not say which draft it wrote.
+     */
+    private void recordWrittenDraft(String userId, String draftId, String digest) {
+        if (digest != null) {
+            performedWrites.increment();
+        }
 
-        return encryptionKeyFactory.createEncryptionKey(userDetails.getUserDetails().getId());
+        if (knownDrafts == null) {
+            return;
+        }
+
+        if (draftId == null) {
+            knownDrafts.invalidate(userId);
+        } else {
+            knownDrafts.put(userId, new KnownDraft(draftId, digest));
+        }
+    }
+
+    /**
+     * Id the user's draft id and digest are kept under, or null when neither is kept, so no user lookup is made.
+     * Resolved once per call and passed down, as outside of a request every lookup is an IDAM round trip.
+     */
+    private String getUserKey(String userToken) {
+        if (knownDrafts == null) {
+            return null;
+        }
+
+        return resolveUser(getBearerToken(userToken), userService::retrieveUser).getUserDetails().getId();
+    }
+
+    /**
+     * Draft store answers a create with the location of the new draft, e.g. /drafts/1234.
+     */
+    private static String getCreatedDraftId(ResponseEntity<Void> response) {
+        if (response == null || response.getHeaders().getLocation() == null) {
+            return null;
+        }
+
+        URI location = response.getHeaders().getLocation();
+        String draftId = StringUtils.substringAfterLast(StringUtils.removeEnd(location.getPath(), "/"), "/");
+
+        return StringUtils.isBlank(draftId) ? null : draftId;
+    }
+
+    private String getServiceAuthToken() {
+        return resolveServiceToken(serviceTokenGenerator::generate);
+    }
+
+    private static class KnownDraft {
+        private final String draftId;
+        private final String digest;
+
+        KnownDraft(String draftId, String digest) {
+            this.draftId = draftId;
+            this.digest = digest;
+        }
+
+        /**
+         * Whether the document with this digest is the one last written to the draft. Only asked once the draft is
+         * known to exist, from this entry or from listing the user's drafts.
+         */
+        boolean isWrittenWith(String documentDigest) {
+            return documentDigest != null && documentDigest.equals(digest);
+        }
     }
 }
@@ -1,7 +1,9 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import com.google.common.collect.Maps;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
@@ -21,21 +23,23 @@ import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
 import uk.gov.hmcts.reform.idam.client.models.User;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import javax.annotation.Nonnull;
 
 import static java.util.Collections.emptyList;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.config.UpstreamLookupExecutorConfiguration.UPSTREAM_LOOKUP_EXECUTOR;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.RESPONDENT_CASE_STATE_GROUPING;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REFUSAL_ORDER_REJECTION_REASONS;
-import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_INSUFFICIENT_DETAILS;
-import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_CRITERIA;
-import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_JURISDICTION;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole.PETITIONER;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole.RESPONDENT;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.FutureUtil.await;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext.resolveUser;
 
 @Service
 @Slf4j
@@ -50,18 +54,39 @@ public class PetitionServiceImpl implements PetitionService,
     @Autowired
     private DraftServiceImpl draftService;
 
+    @Autowired
+    private DraftDeletionOutbox draftDeletionOutbox;
+
+    @Autowired
+    private DraftSaveCoalescer draftSaveCoalescer;
+
+    @Autowired
+    private CcdFormatDraftMigrator ccdFormatDraftMigrator;
+
     @Autowired
     private FormatterServiceClient formatterServiceClient;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    @Qualifier(UPSTREAM_LOOKUP_EXECUTOR)
+    private Executor upstreamLookupExecutor;
+
     @Override
     public CaseDetails retrievePetition(String authorisation, Map<CaseStateGrouping, List<CaseState>> caseStateGrouping) {
 
-        Draft draft = draftService.getDraft(authorisation);
+        draftSaveCoalescer.flush(authorisation);
+
+        // The draft and the case are independent of each other, so fetch them concurrently
+        CompletableFuture<Draft> draftLookup = CompletableFuture.supplyAsync(
+            () -> draftService.getDraft(authorisation), upstreamLookupExecutor);
+        CompletableFuture<CaseDetails> caseLookup = CompletableFuture.supplyAsync(
+            () -> ccdRetrievalService.retrieveCase(authorisation, caseStateGrouping, PETITIONER), upstreamLookupExecutor);
 
-        CaseDetails caseDetails = ccdRetrievalService.retrieveCase(authorisation, caseStateGrouping, PETITIONER);
+        Draft draft = await(draftLookup);
+
+        CaseDetails caseDetails = await(caseLookup);
 
         if (caseDetails != null && CaseState.AMEND_PETITION.getValue().equalsIgnoreCase(caseDetails.getState())) {
             // If draft does not exist or is not an AmendPetition case, return case as draft
@@ -97,27 +122,31 @@ public class PetitionServiceImpl implements PetitionService,
 
     @Override
     public void saveDraft(String authorisation, Map<String, Object> data, boolean divorceFormat) {
-        draftService.saveDraft(authorisation, data, divorceFormat);
+        draftSaveCoalescer.saveDraft(authorisation, data, divorceFormat);
     }
 
     @Override
     public void createDraft(String authorisation, Map<String, Object> data, boolean divorceFormat) {
+        draftSaveCoalescer.flush(authorisation);
         draftService.createDraft(authorisation, data, divorceFormat);
     }
 
     @Override
     public DraftList getAllDrafts(String authorisation) {
+        draftSaveCoalescer.flush(authorisation);
         return draftService.getAllDrafts(authorisation);
     }
 
     @Override
     public void deleteDraft(String authorisation) {
+        draftSaveCoalescer.discard(authorisation);
         draftService.deleteDraft(authorisation);
     }
 
     @Override
     public void onApplicationEvent(@Nonnull CaseSubmittedEvent event) {
-        deleteDraft(event.getAuthToken());
+        draftSaveCoalescer.discardForUser(event.getUserId());
+        draftDeletionOutbox.deleteDrafts(event.getAuthToken(), event.getUserId());
     }
 
     @Override
@@ -164,7 +193,7 @@ public class PetitionServiceImpl implements PetitionService,
     }
 
     private CaseDetails retrieveAndValidatePetitionCase(String authorisation, String caseId) {
-        User userDetails = userService.retrieveUser(authorisation);
+        User userDetails = resolveUser(authorisation, userService::retrieveUser);
         if (userDetails == null) {
             log.warn("No user found for token");
             return null;
@@ -211,19 +240,17 @@ public class PetitionServiceImpl implements PetitionService,
             log.info("Old Case ID: {} - preparing amend case", oldCase.getId());
         }
 
-        Map<String, Object> caseData = oldCase.getData();
-        Object issueDateFromOriginalCase = caseData.get(CcdCaseProperties.ISSUE_DATE);
+        // remove all props from old case we do not want in new draft case
+        Set<String> propertiesToRemove = refusal
+            ? getRefusalRemovalProfile(oldCase.getData())
+            : AmendCaseRemovedProps.getAmendRemovalProfile();
+        Map<String, Object> caseData = copyWithout(oldCase.getData(), propertiesToRemove);
+
+        Object issueDateFromOriginalCase = oldCase.getData().get(CcdCaseProperties.ISSUE_DATE);
         if (issueDateFromOriginalCase != null) {
             caseData.put(CcdCaseProperties.PREVIOUS_ISSUE_DATE, issueDateFromOriginalCase);
         }
 
-        // remove all props from old case we do not want in new draft case
-        if (refusal) {
-            removePropertiesBasedOnListOfRejectionReasons(caseData);
-        } else {
-            Arrays.stream(AmendCaseRemovedProps.getPropertiesToRemove()).forEach(caseData::remove);
-        }
-
         caseData.put(CcdCaseProperties.D8_DIVORCE_UNIT, CmsConstants.CTSC_SERVICE_CENTRE);
 
         Map<String, Object> amendmentCaseDraft = formatterServiceClient.transformToDivorceFormat(caseData, authorisation);
@@ -238,30 +265,34 @@ public class PetitionServiceImpl implements PetitionService,
         return amendmentCaseDraft;
     }
 
-    private void removePropertiesBasedOnListOfRejectionReasons(Map<String, Object> caseData) {
+    private static Set<String> getRefusalRemovalProfile(Map<String, Object> caseData) {
         List<?> rejectionReasons = Optional.ofNullable(caseData.get(REFUSAL_ORDER_REJECTION_REASONS))
             .map(List.class::cast)
             .orElse(emptyList());
 
-        List<String> propertiesToRemove = new ArrayList<>(Arrays.asList(AmendCaseRemovedProps.getPropertiesToRemoveForRejection()));
+        return AmendCaseRemovedProps.getRefusalRemovalProfile(rejectionReasons);
+    }
 
-        if (rejectionReasons.contains(REJECTION_NO_JURISDICTION)) {
-            propertiesToRemove.addAll(Arrays.asList(AmendCaseRemovedProps.getPropertiesToRemoveForRejectionJurisdiction()));
-        }
+    private static Map<String, Object> copyWithout(Map<String, Object> caseData, Set<String> propertiesToRemove) {
+        Map<String, Object> copy = Maps.newLinkedHashMapWithExpectedSize(caseData.size());
 
-        if (rejectionReasons.contains(REJECTION_NO_CRITERIA) || rejectionReasons.contains(REJECTION_INSUFFICIENT_DETAILS)) {
-            propertiesToRemove.addAll(Arrays.asList(AmendCaseRemovedProps.getPropertiesToRemoveForRejectionAboutDivorce()));
-        }
+        caseData.forEach((key, value) -> {
+            if (!propertiesToRemove.contains(key)) {
+                copy.put(key, value);
+            }
+        });
 
-        propertiesToRemove.forEach(caseData::remove);
+        return copy;
     }
 
     private List<?> getPreviousReasonsForDivorce(CaseDetails caseDetails, String keyForPreviousDivorceReasons) {
-        Map<String, Object> caseData = new HashMap<>(caseDetails.getData());
+        Map<String, Object> caseData = caseDetails.getData();
 
-        List<? super Object> previousReasons = Optional.ofNullable(caseData.get(keyForPreviousDivorceReasons))
+        // Copied, the list read from the case must stay as it is
+        List<Object> previousReasons = new ArrayList<>();
+        Optional.ofNullable(caseData.get(keyForPreviousDivorceReasons))
             .map(List.class::cast)
-            .orElse(new ArrayList<>());
+            .ifPresent(previousReasons::addAll);
 
         if (!previousReasons.isEmpty()) {
             log.info("Previous reasons for divorce already exist for Case id: {}", caseDetails.getId());
@@ -284,7 +315,9 @@ public class PetitionServiceImpl implements PetitionService,
 
     private Map<String, Object> getFormattedPetition(Draft draft, String authorisation) {
         if (draftService.isInCcdFormat(draft)) {
-            return transformToDivorceFormat(draft.getDocument(), authorisation);
+            Map<String, Object> divorceFormatDraft = transformToDivorceFormat(draft.getDocument(), authorisation);
+            ccdFormatDraftMigrator.migrate(authorisation, draft, divorceFormatDraft);
+            return divorceFormatDraft;
         } else {
             return draft.getDocument();
         }
@@ -0,0 +1,162 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+
+/**
+ * Briefly holds the cases found for a user in a given role, so the several case lookups a frontend makes during one
+ * page flow only search CCD once.
+ *
+ * <p>Lists are held serialised and read back on every hit, callers are free to modify the cases they get. Cases
+ * the user submits or updates through this service are written through, links and unlinks drop the user's entries.
+ * Changes made to a case by anyone else show up once the entry expires, so the TTL is kept short.
+ */
+@Component
+@Slf4j
+public class UserCaseCache {
+
+    private static final String CACHE_NAME = "ccd.user.cases";
+    private static final TypeReference<List<CaseDetails>> CASE_LIST_TYPE = new TypeReference<List<CaseDetails>>() {
+    };
+
+    @Value("${ccd.user-case-cache.enabled}")
+    private boolean enabled;
+
+    @Value("${ccd.user-case-cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Value("${ccd.user-case-cache.max-size}")
+    private long maxSize;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, byte[]> userCases;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        userCases = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, userCases, CACHE_NAME);
+    }
+
+    public List<CaseDetails> getCases(String userId, DivCaseRole role, Supplier<List<CaseDetails>> search) {
+        if (userCases == null || role == null) {
+            return search.get();
+        }
+
+        final String key = key(userId, role);
+
+        byte[] cached = userCases.getIfPresent(key);
+        if (cached != null) {
+            return read(cached);
+        }
+
+        List<CaseDetails> cases = search.get();
+        userCases.put(key, write(cases));
+
+        return cases;
+    }
+
+    /**
+     * Adds a case the user has just created in the given role to their cached cases.
+     */
+    public void addCase(String userId, DivCaseRole role, CaseDetails caseDetails) {
+        if (userCases != null && caseDetails != null) {
+            rewrite(key(userId, role), caseDetails, true);
+        }
+    }
+
+    /**
+     * Replaces a case the user has just updated wherever it is cached for them.
+     */
+    public void updateCase(String userId, CaseDetails caseDetails) {
+        if (userCases != null && caseDetails != null) {
+            for (DivCaseRole role : DivCaseRole.values()) {
+                rewrite(key(userId, role), caseDetails, false);
+            }
+        }
+    }
+
+    public void invalidate(String userId) {
+        if (userCases != null) {
+            for (DivCaseRole role : DivCaseRole.values()) {
+                userCases.invalidate(key(userId, role));
+            }
+        }
+    }
+
+    private void rewrite(String key, CaseDetails caseDetails, boolean addIfMissing) {
+        // Only lists already held are changed, a list started from a single case would hide the user's other cases
+        userCases.asMap().computeIfPresent(key, (cacheKey, cached) -> {
+            List<CaseDetails> cases = new ArrayList<>(read(cached));
+            boolean replaced = false;
+
+            for (int i = 0; i < cases.size(); i++) {
+                if (Objects.equals(cases.get(i).getId(), caseDetails.getId())) {
+                    cases.set(i, caseDetails);
+                    replaced = true;
+                }
+            }
+
+            if (!replaced && !addIfMissing) {
+                return cached;
+            }
+            if (!replaced) {
+                cases.add(caseDetails);
+            }
+
+            return write(cases);
+        });
+    }
+
+    private List<CaseDetails> read(byte[] cases) {
+        try {
+            return objectMapper.readValue(cases, CASE_LIST_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read cached cases", e);
+        }
+    }
+
+    private byte[] write(List<CaseDetails> cases) {
+        try {
+            return objectMapper.writeValueAsBytes(cases);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not cache cases", e);
+        }
+    }
+
+    private static String key(String userId, DivCaseRole role) {
+        return userId + ":" + role;
+    }
+}
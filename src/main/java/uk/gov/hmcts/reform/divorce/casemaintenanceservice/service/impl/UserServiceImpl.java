@@ -1,5 +1,15 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -8,32 +18,228 @@ import uk.gov.hmcts.reform.idam.client.IdamClient;
 import uk.gov.hmcts.reform.idam.client.models.User;
 import uk.gov.hmcts.reform.idam.client.models.UserDetails;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.getTokenExpiry;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.hashToken;
+
 @Service
+@Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final String USER_CACHE_NAME = "idam.user.details";
+    private static final String CASEWORKER_TOKEN_METRIC = "idam.caseworker.token";
+
     @Value("${idam.caseworker.username}")
     private String caseworkerUserName;
 
     @Value("${idam.caseworker.password}")
     private String caseworkerPassword;
 
+    @Value("${idam.caseworker.token.max-age-seconds}")
+    private long caseWorkerTokenMaxAgeSeconds;
+
+    @Value("${idam.caseworker.token.refresh-ahead-seconds}")
+    private long caseWorkerTokenRefreshAheadSeconds;
+
+    @Value("${idam.caseworker.token.min-remaining-seconds}")
+    private long caseWorkerTokenMinRemainingSeconds;
+
+    @Value("${idam.user.cache.enabled}")
+    private boolean userCacheEnabled;
+
+    @Value("${idam.user.cache.ttl-seconds}")
+    private long userCacheTtlSeconds;
+
+    @Value("${idam.user.cache.max-size}")
+    private long userCacheMaxSize;
+
     @Autowired
     private IdamClient idamClient;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, CachedUser> userCache;
+
+    private final Object caseWorkerLock = new Object();
+    private volatile CachedUser caseWorker;
+    private ScheduledExecutorService caseWorkerRefresher;
+    private Timer caseWorkerRefreshTimer;
+
+    @PostConstruct
+    public void init() {
+        userCache = CacheBuilder.newBuilder()
+            .maximumSize(userCacheMaxSize)
+            .expireAfterWrite(userCacheTtlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, userCache, USER_CACHE_NAME);
+
+        caseWorkerRefresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("caseworker-token-refresh-%d")
+            .setDaemon(true)
+            .build());
+
+        caseWorkerRefreshTimer = Timer.builder(CASEWORKER_TOKEN_METRIC + ".refresh")
+            .description("Time taken to log the anonymous caseworker in and resolve its details")
+            .register(meterRegistry);
+
+        Gauge.builder(CASEWORKER_TOKEN_METRIC + ".age", this, UserServiceImpl::getCaseWorkerTokenAgeSeconds)
+            .description("Age of the anonymous caseworker token currently held in memory")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (caseWorkerRefresher != null) {
+            caseWorkerRefresher.shutdownNow();
+        }
+    }
+
     @Override
     public User retrieveUser(String authorisation) {
-        UserDetails userDetails = idamClient.getUserDetails(authorisation);
+        if (!userCacheEnabled) {
+            return fetchUser(authorisation);
+        }
 
-        return new User(authorisation, userDetails);
+        final String cacheKey = hashToken(authorisation);
+        final Instant now = Instant.now();
+
+        CachedUser cachedUser = userCache.getIfPresent(cacheKey);
+        if (cachedUser != null) {
+            if (cachedUser.getExpiresAt().isAfter(now)) {
+                return cachedUser.getUser();
+            }
+            userCache.invalidate(cacheKey);
+        }
+
+        User user = fetchUser(authorisation);
+
+        // Never hold on to details for longer than the token they were resolved with is valid for
+        Optional<Instant> tokenExpiry = getTokenExpiry(authorisation);
+        if (tokenExpiry.isPresent()) {
+            Instant expiresAt = min(now.plusSeconds(userCacheTtlSeconds), tokenExpiry.get());
+            if (expiresAt.isAfter(now)) {
+                userCache.put(cacheKey, new CachedUser(user, expiresAt, now));
+            }
+        } else {
+            log.debug("Token has no readable expiry, user details will not be cached");
+        }
+
+        return user;
     }
 
     @Override
     public User retrieveAnonymousCaseWorkerDetails() {
-        return retrieveUser(getIdamOauth2Token(caseworkerUserName, caseworkerPassword));
+        CachedUser current = caseWorker;
+
+        if (current != null && hasEnoughLifetimeLeft(current)) {
+            return current.getUser();
+        }
+
+        return refreshCaseWorker(current).getUser();
+    }
+
+    /**
+     * Single-flight refresh: whoever holds the lock logs in, everyone queued behind it reuses the result
+     * as long as it is newer than the token they originally saw.
+     */
+    private CachedUser refreshCaseWorker(CachedUser observed) {
+        synchronized (caseWorkerLock) {
+            CachedUser current = caseWorker;
+            if (current != null && current != observed && hasEnoughLifetimeLeft(current)) {
+                return current;
+            }
+
+            CachedUser refreshed = caseWorkerRefreshTimer.record(this::loginCaseWorker);
+
+            if (hasEnoughLifetimeLeft(refreshed)) {
+                caseWorker = refreshed;
+                scheduleCaseWorkerRefresh(refreshed);
+            } else {
+                caseWorker = null;
+                log.debug("Anonymous caseworker token is too short lived to be kept in memory");
+            }
+
+            return refreshed;
+        }
+    }
+
+    private CachedUser loginCaseWorker() {
+        final Instant obtainedAt = Instant.now();
+        final String token = getIdamOauth2Token(caseworkerUserName, caseworkerPassword);
+        final User user = fetchUser(token);
+
+        Instant expiresAt = obtainedAt.plusSeconds(caseWorkerTokenMaxAgeSeconds);
+        Optional<Instant> tokenExpiry = getTokenExpiry(token);
+        if (tokenExpiry.isPresent()) {
+            expiresAt = min(expiresAt, tokenExpiry.get());
+        }
+
+        return new CachedUser(user, expiresAt, obtainedAt);
+    }
+
+    private void scheduleCaseWorkerRefresh(CachedUser refreshed) {
+        Duration delay = Duration.between(Instant.now(),
+            refreshed.getExpiresAt().minusSeconds(caseWorkerTokenRefreshAheadSeconds));
+
+        // Tokens that are already inside the refresh window are renewed on demand instead, otherwise
+        // a short-lived token would make the background task spin
+        if (delay.isNegative() || delay.isZero()) {
+            return;
+        }
+
+        caseWorkerRefresher.schedule(() -> {
+            try {
+                refreshCaseWorker(refreshed);
+            } catch (Exception e) {
+                log.warn("Background refresh of the anonymous caseworker token failed, "
+                    + "it will be refreshed on next use", e);
+            }
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private boolean hasEnoughLifetimeLeft(CachedUser cachedUser) {
+        return cachedUser.getExpiresAt().minusSeconds(caseWorkerTokenMinRemainingSeconds).isAfter(Instant.now());
+    }
+
+    private double getCaseWorkerTokenAgeSeconds() {
+        CachedUser current = caseWorker;
+
+        return current == null
+            ? Double.NaN
+            : Duration.between(current.getObtainedAt(), Instant.now()).getSeconds();
+    }
+
+    private User fetchUser(String authorisation) {
+        UserDetails userDetails = idamClient.getUserDetails(authorisation);
+
+        return new User(authorisation, userDetails);
     }
 
     private String getIdamOauth2Token(String username, String password) {
         return idamClient.authenticateUser(username, password);
     }
 
+    private static Instant min(Instant first, Instant second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedUser {
+        private final User user;
+        private final Instant expiresAt;
+        private final Instant obtainedAt;
+    }
 }
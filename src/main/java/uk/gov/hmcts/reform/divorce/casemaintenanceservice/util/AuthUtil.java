@@ -1,9 +1,17 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
 import static uk.gov.hmcts.reform.idam.client.IdamClient.BEARER_AUTH_TYPE;
 
 @SuppressWarnings("squid:S1118")
@@ -11,6 +19,8 @@ import static uk.gov.hmcts.reform.idam.client.IdamClient.BEARER_AUTH_TYPE;
 public class AuthUtil {
 
     private static final String BEARER = BEARER_AUTH_TYPE + " ";
+    private static final String EXPIRY_CLAIM = "exp";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     public static String getBearerToken(String token) {
         if (StringUtils.isBlank(token)) {
@@ -19,4 +29,37 @@ public class AuthUtil {
 
         return token.startsWith(BEARER) ? token : BEARER.concat(token);
     }
+
+    /**
+     * Reads the expiry claim of an IDAM JWT without verifying its signature. Returns empty when the token is not
+     * a JWT or does not carry an expiry, so callers must treat the result as a hint and never as authentication.
+     */
+    public static Optional<Instant> getTokenExpiry(String token) {
+        if (StringUtils.isBlank(token)) {
+            return Optional.empty();
+        }
+
+        String[] tokenParts = StringUtils.removeStart(token, BEARER).split("\\.");
+        if (tokenParts.length != 3) {
+            return Optional.empty();
+        }
+
+        try {
+            JsonNode claims = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(tokenParts[1]));
+            JsonNode expiry = claims.get(EXPIRY_CLAIM);
+
+            return expiry != null && expiry.canConvertToLong()
+                ? Optional.of(Instant.ofEpochSecond(expiry.asLong()))
+                : Optional.empty();
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stable, non-reversible key for a token so that raw bearer tokens never end up as cache keys.
+     */
+    public static String hashToken(String token) {
+        return Hashing.sha256().hashString(getBearerToken(token), StandardCharsets.UTF_8).toString();
+    }
 }
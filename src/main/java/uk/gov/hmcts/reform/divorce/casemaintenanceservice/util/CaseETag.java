@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import com.google.common.hash.Hashing;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Strong entity tags for cases returned to citizens, derived from the case id, the time CCD last modified the case and
+ * the state as returned, which for citizen lookups is the computed application status.
+ *
+ * <p>CCD bumps the last modified time on every event, so the tag changes whenever the case data can have changed.
+ * Cases not yet in CCD, i.e. drafts, have neither and get no tag.
+ */
+@SuppressWarnings("squid:S1118")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CaseETag {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    public static Optional<String> of(CaseDetails caseDetails) {
+        return of(caseDetails, null);
+    }
+
+    /**
+     * Tag for one variant of the case, e.g. a projection of its data, so each variant is validated on its own.
+     */
+    public static Optional<String> of(CaseDetails caseDetails, String variant) {
+        if (caseDetails == null || caseDetails.getId() == null || caseDetails.getLastModified() == null) {
+            return Optional.empty();
+        }
+
+        String version = caseDetails.getId() + "|" + caseDetails.getLastModified() + "|" + caseDetails.getState()
+            + (StringUtils.isEmpty(variant) ? "" : "|" + variant);
+
+        return Optional.of("\"" + Hashing.sha256().hashString(version, StandardCharsets.UTF_8) + "\"");
+    }
+
+    /**
+     * Whether an If-None-Match header lists the given tag. Uses the weak comparison RFC 7232 prescribes for
+     * If-None-Match, so a client echoing the tag back with a W/ prefix still matches.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = StringUtils.removeStart(candidate.trim(), WEAK_PREFIX);
+
+            if (ANY.equals(tag) || tag.equals(eTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
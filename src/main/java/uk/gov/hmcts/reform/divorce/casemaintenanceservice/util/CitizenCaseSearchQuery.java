@@ -0,0 +1,79 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole;
+
+import java.util.Collections;
+import java.util.List;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.CO_RESP_EMAIL_ADDRESS;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_PETITIONER_EMAIL;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.RESP_EMAIL_ADDRESS;
+
+/**
+ * Builds the CCD Elasticsearch query used to find the cases a citizen holds a given role on. Only the fields needed
+ * to pick a case by state are returned, the chosen case is read in full afterwards.
+ *
+ * <p>Cases are picked by their position among the matches, so the matches are sorted the way the legacy citizen search
+ * returns them, oldest first, with the case reference breaking ties. The query has no size, as every match is read.
+ */
+@SuppressWarnings("squid:S1118")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CitizenCaseSearchQuery {
+
+    public static final int CASES_PER_PAGE = 100;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String DATA_PREFIX = "data.";
+
+    private static final List<String> PETITIONER_EMAIL_FIELDS = ImmutableList.of(D8_PETITIONER_EMAIL);
+    private static final List<String> RESPONDENT_EMAIL_FIELDS = ImmutableList.of(RESP_EMAIL_ADDRESS, CO_RESP_EMAIL_ADDRESS);
+
+    private static final List<String> SOURCE_FIELDS = ImmutableList.of(
+        "reference",
+        "state",
+        "created_date",
+        DATA_PREFIX + D8_PETITIONER_EMAIL,
+        DATA_PREFIX + RESP_EMAIL_ADDRESS,
+        DATA_PREFIX + CO_RESP_EMAIL_ADDRESS
+    );
+
+    private static List<String> getEmailFields(DivCaseRole role) {
+        if (role == null) {
+            return Collections.emptyList();
+        }
+
+        switch (role) {
+            case PETITIONER:
+                return PETITIONER_EMAIL_FIELDS;
+            case RESPONDENT:
+                return RESPONDENT_EMAIL_FIELDS;
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    public static String build(String email, DivCaseRole role) {
+        ObjectNode query = OBJECT_MAPPER.createObjectNode();
+
+        ArrayNode source = query.putArray("_source");
+        SOURCE_FIELDS.forEach(source::add);
+
+        ObjectNode bool = query.putObject("query").putObject("bool");
+        bool.put("minimum_should_match", 1);
+        ArrayNode should = bool.putArray("should");
+        getEmailFields(role).forEach(field ->
+            should.addObject().putObject("match_phrase").put(DATA_PREFIX + field, email));
+
+        ArrayNode sort = query.putArray("sort");
+        sort.addObject().put("created_date", "asc");
+        sort.addObject().put("reference", "asc");
+
+        return query.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits for futures and rethrows the original exception they failed with, so callers and the exception handler see
+ * exactly what the work threw rather than a wrapper around it.
+ */
+@SuppressWarnings("squid:S1118")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class FutureUtil {
+
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause(), e);
+        }
+    }
+
+    /**
+     * As {@link #await(CompletableFuture)}, giving up once the timeout passes. An interrupted wait keeps the thread's
+     * interrupt flag set and is reported as a {@link CompletionException}.
+     */
+    public static <T> T await(CompletableFuture<T> future, long timeout, TimeUnit unit) throws TimeoutException {
+        try {
+            return future.get(timeout, unit);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause(), new CompletionException(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException("Interrupted while waiting", e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause, RuntimeException wrapper) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return wrapper;
+    }
+}
@@ -0,0 +1,209 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A caller's CCD Elasticsearch query, split into pages. Whatever from and size the caller gave become the first hit
+ * and the most hits to return across all pages.
+ *
+ * <p>Only the first page uses from. Every later page continues with search_after from the last case of the page
+ * before, so paging is not bounded by the index's max_result_window the way from and size are.
+ *
+ * <p>search_after needs a sort with a unique last key, and the sort values of the last case. Case reference is unique,
+ * so it is appended as the last sort key unless the caller already sorts by it. CCD does not return the sort values of
+ * its hits, so they are read back from the case itself, which limits the sort to fields a case carries: reference,
+ * created_date, last_modified, state, jurisdiction, case_type_id and data fields.
+ */
+public class PagedSearchQuery {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String FROM = "from";
+    private static final String SIZE = "size";
+    private static final String SORT = "sort";
+    private static final String SEARCH_AFTER = "search_after";
+    private static final String TIEBREAKER_FIELD = "reference";
+    private static final String DATA_PREFIX = "data.";
+    private static final String KEYWORD_SUFFIX = ".keyword";
+
+    private final ObjectNode query;
+
+    private final List<String> sortFields;
+
+    @Getter
+    private final int from;
+
+    @Getter
+    private final int limit;
+
+    private PagedSearchQuery(ObjectNode query, List<String> sortFields, int from, int limit) {
+        this.query = query;
+        this.sortFields = sortFields;
+        this.from = from;
+        this.limit = limit;
+    }
+
+    public static PagedSearchQuery of(String query) {
+        JsonNode parsed;
+        try {
+            parsed = OBJECT_MAPPER.readTree(query);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("Search query is not valid JSON");
+        }
+
+        if (parsed == null || !parsed.isObject()) {
+            throw new InvalidRequestException("Search query must be a JSON object");
+        }
+
+        ObjectNode objectQuery = ((ObjectNode) parsed).deepCopy();
+        int from = objectQuery.path(FROM).asInt(0);
+        int limit = objectQuery.has(SIZE) ? objectQuery.get(SIZE).asInt(0) : Integer.MAX_VALUE;
+
+        ArrayNode sort = withTiebreaker(objectQuery.get(SORT));
+        List<String> sortFields = sortFields(sort);
+
+        objectQuery.remove(FROM);
+        objectQuery.remove(SIZE);
+        objectQuery.remove(SEARCH_AFTER);
+        objectQuery.set(SORT, sort);
+
+        return new PagedSearchQuery(objectQuery, sortFields, Math.max(from, 0), Math.max(limit, 0));
+    }
+
+    /**
+     * The page of up to {@code pageSize} hits following {@code after}, the last case of the previous page, or the
+     * first page when it is null.
+     */
+    public String page(int pageSize, CaseDetails after) {
+        ObjectNode page = query.deepCopy();
+        if (after == null) {
+            page.put(FROM, from);
+        } else {
+            page.set(SEARCH_AFTER, sortValues(after));
+        }
+        page.put(SIZE, pageSize);
+
+        return page.toString();
+    }
+
+    /**
+     * The caller's sort as an array, which is how Elasticsearch also accepts a single field or object, ending with the
+     * case reference.
+     */
+    private static ArrayNode withTiebreaker(JsonNode callerSort) {
+        ArrayNode sort = OBJECT_MAPPER.createArrayNode();
+        if (callerSort != null && callerSort.isArray()) {
+            sort.addAll((ArrayNode) callerSort);
+        } else if (callerSort != null && !callerSort.isNull()) {
+            sort.add(callerSort);
+        }
+
+        boolean sortedByReference = false;
+        for (JsonNode key : sort) {
+            sortedByReference |= TIEBREAKER_FIELD.equals(key.asText()) || key.has(TIEBREAKER_FIELD);
+        }
+        if (!sortedByReference) {
+            sort.addObject().put(TIEBREAKER_FIELD, "asc");
+        }
+
+        return sort;
+    }
+
+    private static List<String> sortFields(ArrayNode sort) {
+        ImmutableList.Builder<String> fields = ImmutableList.builder();
+
+        for (JsonNode key : sort) {
+            String field = key.isTextual() ? key.asText() : key.fieldNames().hasNext() ? key.fieldNames().next() : "";
+            String caseField = StringUtils.removeEnd(field, KEYWORD_SUFFIX);
+
+            if (!caseField.startsWith(DATA_PREFIX) && !isCaseProperty(caseField)) {
+                throw new InvalidRequestException(String.format("Search query cannot be paged when sorted by %s", field));
+            }
+            fields.add(caseField);
+        }
+
+        return fields.build();
+    }
+
+    private static boolean isCaseProperty(String field) {
+        switch (field) {
+            case TIEBREAKER_FIELD:
+            case "created_date":
+            case "last_modified":
+            case "state":
+            case "jurisdiction":
+            case "case_type_id":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private ArrayNode sortValues(CaseDetails caseDetails) {
+        ArrayNode values = OBJECT_MAPPER.createArrayNode();
+
+        for (String field : sortFields) {
+            Object value = sortValue(caseDetails, field);
+            if (value == null) {
+                // Elasticsearch cannot continue after a missing value, and skipping it would drop hits silently
+                throw new IllegalStateException(
+                    String.format("Case %s has no %s to continue the search after", caseDetails.getId(), field));
+            }
+            values.add(OBJECT_MAPPER.valueToTree(value));
+        }
+
+        return values;
+    }
+
+    private static Object sortValue(CaseDetails caseDetails, String field) {
+        switch (field) {
+            case TIEBREAKER_FIELD:
+                return caseDetails.getId();
+            case "created_date":
+                return epochMillis(caseDetails.getCreatedDate());
+            case "last_modified":
+                return epochMillis(caseDetails.getLastModified());
+            case "state":
+                return caseDetails.getState();
+            case "jurisdiction":
+                return caseDetails.getJurisdiction();
+            case "case_type_id":
+                return caseDetails.getCaseTypeId();
+            default:
+                return dataValue(caseDetails.getData(), field.substring(DATA_PREFIX.length()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object dataValue(Map<String, Object> data, String path) {
+        Object value = data;
+        for (String name : StringUtils.split(path, '.')) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map<String, Object>) value).get(name);
+        }
+
+        return value instanceof Map || value instanceof List ? null : value;
+    }
+
+    /**
+     * CCD's dates are UTC, and Elasticsearch sorts dates by their epoch milliseconds.
+     */
+    private static Long epochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,108 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import uk.gov.hmcts.reform.idam.client.models.User;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.servlet.ServletRequest;
+
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.AuthUtil.hashToken;
+
+/**
+ * Memoizes the user, service token and draft secret for the lifetime of one inbound HTTP request.
+ *
+ * <p>The state lives in the current {@link RequestAttributes}, so it is discarded with the request and is shared by
+ * any worker thread the request attributes are propagated to. When no request is bound to the calling thread, e.g.
+ * in asynchronous event listeners, every call goes straight to the given resolver.
+ *
+ * <p>The upstream calls each request made are recorded by
+ * {@link uk.gov.hmcts.reform.divorce.casemaintenanceservice.config.UpstreamAuthCallsRecorder} once it completes.
+ */
+@SuppressWarnings("squid:S1118")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RequestAuthContext {
+
+    public static final String UPSTREAM_AUTH_CALLS_METRIC = "cms.request.upstream.auth.calls";
+
+    private static final String STATE_ATTRIBUTE = RequestAuthContext.class.getName() + ".STATE";
+
+    public static User resolveUser(String authorisation, Function<String, User> resolver) {
+        State state = currentState();
+        if (state == null) {
+            return resolver.apply(authorisation);
+        }
+
+        return state.users.computeIfAbsent(hashToken(authorisation),
+            key -> state.countUpstreamCall(() -> resolver.apply(authorisation)));
+    }
+
+    public static String resolveServiceToken(Supplier<String> generator) {
+        State state = currentState();
+        if (state == null) {
+            return generator.get();
+        }
+
+        synchronized (state) {
+            if (state.serviceToken == null) {
+                state.serviceToken = state.countUpstreamCall(generator);
+            }
+            return state.serviceToken;
+        }
+    }
+
+    public static String resolveDraftSecret(String authorisation, Function<String, String> resolver) {
+        State state = currentState();
+        if (state == null) {
+            return resolver.apply(authorisation);
+        }
+
+        return state.draftSecrets.computeIfAbsent(hashToken(authorisation), key -> resolver.apply(authorisation));
+    }
+
+    /**
+     * The user and service token lookups the given request made upstream, or empty if it resolved nothing.
+     */
+    public static OptionalInt upstreamCalls(ServletRequest request) {
+        State state = (State) request.getAttribute(STATE_ATTRIBUTE);
+
+        return state == null ? OptionalInt.empty() : OptionalInt.of(state.upstreamCalls.get());
+    }
+
+    private static State currentState() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        synchronized (attributes) {
+            State state = (State) attributes.getAttribute(STATE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+            if (state == null) {
+                state = new State();
+                attributes.setAttribute(STATE_ATTRIBUTE, state, RequestAttributes.SCOPE_REQUEST);
+            }
+
+            return state;
+        }
+    }
+
+    private static class State {
+        private final Map<String, User> users = new ConcurrentHashMap<>();
+        private final Map<String, String> draftSecrets = new ConcurrentHashMap<>();
+        private final AtomicInteger upstreamCalls = new AtomicInteger();
+        private String serviceToken;
+
+        private <T> T countUpstreamCall(Supplier<T> call) {
+            upstreamCalls.incrementAndGet();
+            return call.get();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingFormatterServiceClientUTest {
+
+    private static final String OTHER_AUTH_TOKEN = "someOtherToken";
+    private static final String BYTES_METRIC = "case.formatter.transformations.bytes";
+
+    @Mock
+    private FormatterServiceClient delegate;
+
+    @InjectMocks
+    private CachingFormatterServiceClient classUnderTest;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void givenCacheDisabled_whenTransform_thenAlwaysCallFormatter() {
+        Map<String, Object> divorceData = ImmutableMap.of("key", "value");
+        Map<String, Object> ccdData = ImmutableMap.of("D8Key", "value");
+        when(delegate.transformToCCDFormat(divorceData, TEST_AUTH_TOKEN)).thenReturn(ccdData);
+
+        classUnderTest.transformToCCDFormat(divorceData, TEST_AUTH_TOKEN);
+        classUnderTest.transformToCCDFormat(divorceData, TEST_AUTH_TOKEN);
+
+        verify(delegate, times(2)).transformToCCDFormat(divorceData, TEST_AUTH_TOKEN);
+    }
+
+    @Test
+    public void givenSameBodyInAnyKeyOrder_whenTransform_thenCallFormatterOnceRegardlessOfToken() {
+        enableCache(1024 * 1024);
+
+        Map<String, Object> divorceData = new LinkedHashMap<>();
+        divorceData.put("first", "1");
+        divorceData.put("second", ImmutableMap.of("a", 1, "b", 2));
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("second", ImmutableMap.of("b", 2, "a", 1));
+        reordered.put("first", "1");
+        Map<String, Object> ccdData = ImmutableMap.of("D8First", "1");
+
+        when(delegate.transformToCCDFormat(divorceData, TEST_AUTH_TOKEN)).thenReturn(ccdData);
+
+        assertEquals(ccdData, classUnderTest.transformToCCDFormat(divorceData, TEST_AUTH_TOKEN));
+        assertEquals(ccdData, classUnderTest.transformToCCDFormat(reordered, OTHER_AUTH_TOKEN));
+
+        verify(delegate).transformToCCDFormat(divorceData, TEST_AUTH_TOKEN);
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "case.formatter.transformations")
+            .tag("result", "hit").functionCounter().count(), 0);
+    }
+
+    @Test
+    public void givenSameBody_whenTransformInEachDirection_thenCacheDirectionsSeparately() {
+        enableCache(1024 * 1024);
+
+        Map<String, Object> data = ImmutableMap.of("key", "value");
+        Map<String, Object> ccdData = ImmutableMap.of("D8Key", "value");
+        Map<String, Object> divorceData = ImmutableMap.of("divorceKey", "value");
+        when(delegate.transformToCCDFormat(data, TEST_AUTH_TOKEN)).thenReturn(ccdData);
+        when(delegate.transformToDivorceFormat(data, TEST_AUTH_TOKEN)).thenReturn(divorceData);
+
+        assertEquals(ccdData, classUnderTest.transformToCCDFormat(data, TEST_AUTH_TOKEN));
+        assertEquals(divorceData, classUnderTest.transformToDivorceFormat(data, TEST_AUTH_TOKEN));
+        assertEquals(ccdData, classUnderTest.transformToCCDFormat(data, TEST_AUTH_TOKEN));
+        assertEquals(divorceData, classUnderTest.transformToDivorceFormat(data, TEST_AUTH_TOKEN));
+
+        verify(delegate).transformToCCDFormat(data, TEST_AUTH_TOKEN);
+        verify(delegate).transformToDivorceFormat(data, TEST_AUTH_TOKEN);
+    }
+
+    @Test
+    public void givenCachedTransformation_whenCallerModifiesResult_thenCachedCopyIsUnaffected() {
+        enableCache(1024 * 1024);
+
+        Map<String, Object> data = ImmutableMap.of("key", "value");
+        when(delegate.transformToDivorceFormat(data, TEST_AUTH_TOKEN)).thenReturn(ImmutableMap.of("divorceKey", "value"));
+
+        Map<String, Object> first = classUnderTest.transformToDivorceFormat(data, TEST_AUTH_TOKEN);
+        first.put("amended", true);
+        Map<String, Object> second = classUnderTest.transformToDivorceFormat(data, TEST_AUTH_TOKEN);
+
+        assertNotSame(first, second);
+        assertEquals(ImmutableMap.of("divorceKey", "value"), second);
+    }
+
+    @Test
+    public void givenCachedTransformation_thenReportBytesHeld() {
+        enableCache(1024 * 1024);
+
+        Map<String, Object> data = ImmutableMap.of("key", "value");
+        when(delegate.transformToCCDFormat(data, TEST_AUTH_TOKEN)).thenReturn(ImmutableMap.of("D8Key", "value"));
+
+        classUnderTest.transformToCCDFormat(data, TEST_AUTH_TOKEN);
+
+        assertEquals("{\"D8Key\":\"value\"}".length(), meterRegistry.get(BYTES_METRIC).gauge().value(), 0);
+    }
+
+    @Test
+    public void givenResponseLargerThanBudget_whenTransform_thenDoNotHoldOnToIt() {
+        enableCache(10);
+
+        Map<String, Object> data = ImmutableMap.of("key", "value");
+        when(delegate.transformToCCDFormat(data, TEST_AUTH_TOKEN)).thenReturn(ImmutableMap.of("D8Key", "value"));
+
+        classUnderTest.transformToCCDFormat(data, TEST_AUTH_TOKEN);
+        classUnderTest.transformToCCDFormat(data, TEST_AUTH_TOKEN);
+
+        verify(delegate, times(2)).transformToCCDFormat(data, TEST_AUTH_TOKEN);
+        assertEquals(0, meterRegistry.get(BYTES_METRIC).gauge().value(), 0);
+    }
+
+    private void enableCache(long maxBytes) {
+        ReflectionTestUtils.setField(classUnderTest, "enabled", true);
+        ReflectionTestUtils.setField(classUnderTest, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(classUnderTest, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+        classUnderTest.init();
+    }
+}
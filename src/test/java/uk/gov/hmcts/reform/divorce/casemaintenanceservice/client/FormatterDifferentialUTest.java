@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormatDirection;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormatterComparison;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormattingResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the in-process engine over payloads recorded from the formatter service and reports every field where the
+ * two disagree, and every field the formatter service returned that the engine left out of a payload it claims to
+ * format completely, as LOCAL mode would answer with that result.
+ *
+ * <p>Recordings live under case-formatter-recordings/{to-ccd|to-divorce}, as a NAME.request.json sent to the formatter
+ * service next to the NAME.response.json it returned.
+ */
+public class FormatterDifferentialUTest {
+
+    private static final String RECORDINGS = "classpath:case-formatter-recordings/*/*.request.json";
+    private static final String REQUEST_SUFFIX = ".request.json";
+    private static final String RESPONSE_SUFFIX = ".response.json";
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LocalFormatterServiceClient localFormatter = new LocalFormatterServiceClient();
+
+    @Before
+    public void setUp() throws IOException {
+        ReflectionTestUtils.setField(localFormatter, "specLocation", new ClassPathResource("case-formatter/field-mappings.json"));
+        ReflectionTestUtils.setField(localFormatter, "objectMapper", objectMapper);
+        localFormatter.init();
+    }
+
+    @Test
+    public void givenRecordedPayloads_whenFormattedLocally_thenMappedFieldsMatchFormatterService() throws IOException {
+        Resource[] requests = new PathMatchingResourcePatternResolver().getResources(RECORDINGS);
+        List<String> report = new ArrayList<>();
+
+        assertTrue("No recorded formatter payloads found", requests.length > 0);
+
+        for (Resource request : requests) {
+            String recording = request.getFilename().replace(REQUEST_SUFFIX, "");
+            FormatDirection direction = directionOf(request);
+            Resource response = request.createRelative(recording + RESPONSE_SUFFIX);
+
+            FormattingResult local = localFormatter.format(direction, read(request));
+            FormatterComparison comparison = FormatterComparison.compare(read(response), local.getData(),
+                localFormatter.getEngine().getTargetFields(direction));
+
+            if (!comparison.getMismatchedFields().isEmpty()) {
+                report.add(String.format("%s %s: mismatched %s", direction, recording, comparison.getMismatchedFields()));
+            }
+            if (local.isComplete() && !comparison.isMatch()) {
+                report.add(String.format("%s %s: complete but left out %s", direction, recording, comparison.getUncoveredFields()));
+            }
+        }
+
+        assertTrue("Engine disagrees with the formatter service:\n" + String.join("\n", report), report.isEmpty());
+    }
+
+    private Map<String, Object> read(Resource resource) throws IOException {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return objectMapper.readValue(inputStream, MAP_TYPE);
+        }
+    }
+
+    private static FormatDirection directionOf(Resource request) throws IOException {
+        String directory = request.getURL().getPath();
+        directory = directory.substring(0, directory.lastIndexOf('/'));
+        directory = directory.substring(directory.lastIndexOf('/') + 1);
+
+        return FormatDirection.valueOf(directory.toUpperCase().replace('-', '_'));
+    }
+}
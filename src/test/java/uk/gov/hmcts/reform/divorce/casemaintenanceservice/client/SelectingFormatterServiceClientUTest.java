@@ -0,0 +1,141 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FieldMappingEngine;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormatDirection;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter.FormattingResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseFormatterMode;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SelectingFormatterServiceClientUTest {
+
+    private static final Map<String, Object> SESSION = ImmutableMap.of("petitionerFirstName", "John");
+    private static final Map<String, Object> CASE_DATA = ImmutableMap.of("D8PetitionerFirstName", "John");
+
+    @Mock
+    private FormatterServiceClient remote;
+
+    @Mock
+    private LocalFormatterServiceClient local;
+
+    @InjectMocks
+    private SelectingFormatterServiceClient classUnderTest;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(classUnderTest, "remote", remote);
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    public void givenRemoteMode_whenTransform_thenCallFormatterService() {
+        setMode(CaseFormatterMode.REMOTE);
+        when(remote.transformToCCDFormat(SESSION, TEST_AUTH_TOKEN)).thenReturn(CASE_DATA);
+
+        assertEquals(CASE_DATA, classUnderTest.transformToCCDFormat(SESSION, TEST_AUTH_TOKEN));
+
+        verifyNoInteractions(local);
+    }
+
+    @Test
+    public void givenLocalModeAndSupportedPayload_whenTransform_thenFormatInProcess() {
+        setMode(CaseFormatterMode.LOCAL);
+        when(local.format(FormatDirection.TO_CCD, SESSION)).thenReturn(complete(CASE_DATA));
+
+        assertEquals(CASE_DATA, classUnderTest.transformToCCDFormat(SESSION, TEST_AUTH_TOKEN));
+
+        verifyNoInteractions(remote);
+        assertEquals(1, meterRegistry.get(SelectingFormatterServiceClient.LOCAL_REQUESTS_METRIC)
+            .tag("outcome", "formatted").counter().count(), 0);
+    }
+
+    @Test
+    public void givenLocalModeAndUnmappedFields_whenTransform_thenFallBackToFormatterService() {
+        setMode(CaseFormatterMode.LOCAL);
+        Map<String, Object> remoteResult = ImmutableMap.of("D8PetitionerFirstName", "John", "D8PetitionerHomeAddress", "address");
+        when(local.format(FormatDirection.TO_CCD, SESSION))
+            .thenReturn(new FormattingResult(CASE_DATA, ImmutableSet.of("petitionerHomeAddress"), Collections.emptySet()));
+        when(remote.transformToCCDFormat(SESSION, TEST_AUTH_TOKEN)).thenReturn(remoteResult);
+
+        assertEquals(remoteResult, classUnderTest.transformToCCDFormat(SESSION, TEST_AUTH_TOKEN));
+
+        assertEquals(1, meterRegistry.get(SelectingFormatterServiceClient.LOCAL_REQUESTS_METRIC)
+            .tag("outcome", "unsupported").counter().count(), 0);
+    }
+
+    @Test
+    public void givenCompareModeAndDisagreement_whenTransform_thenReturnFormatterServiceResultAndCountMismatch() {
+        setMode(CaseFormatterMode.COMPARE);
+        Map<String, Object> remoteResult = ImmutableMap.of("petitionerFirstName", "Johnny");
+        FieldMappingEngine engine = mock(FieldMappingEngine.class);
+        when(remote.transformToDivorceFormat(CASE_DATA, TEST_AUTH_TOKEN)).thenReturn(remoteResult);
+        when(local.format(FormatDirection.TO_DIVORCE, CASE_DATA)).thenReturn(complete(SESSION));
+        when(local.getEngine()).thenReturn(engine);
+        when(engine.getTargetFields(FormatDirection.TO_DIVORCE)).thenReturn(ImmutableSet.of("petitionerFirstName"));
+
+        assertEquals(remoteResult, classUnderTest.transformToDivorceFormat(CASE_DATA, TEST_AUTH_TOKEN));
+
+        verify(remote).transformToDivorceFormat(CASE_DATA, TEST_AUTH_TOKEN);
+        assertEquals(1, meterRegistry.get(SelectingFormatterServiceClient.COMPARISONS_METRIC)
+            .tag("outcome", "mismatch").counter().count(), 0);
+    }
+
+    @Test
+    public void givenLocalModeAndFieldsEngineCannotBuild_whenTransform_thenFallBackToFormatterService() {
+        setMode(CaseFormatterMode.LOCAL);
+        Map<String, Object> remoteResult = ImmutableMap.of("D8PetitionerFirstName", "John", "D8Cohort", "cohort");
+        when(local.format(FormatDirection.TO_CCD, SESSION))
+            .thenReturn(new FormattingResult(CASE_DATA, Collections.emptySet(), ImmutableSet.of("D8Cohort")));
+        when(remote.transformToCCDFormat(SESSION, TEST_AUTH_TOKEN)).thenReturn(remoteResult);
+
+        assertEquals(remoteResult, classUnderTest.transformToCCDFormat(SESSION, TEST_AUTH_TOKEN));
+
+        assertEquals(1, meterRegistry.get(SelectingFormatterServiceClient.LOCAL_REQUESTS_METRIC)
+            .tag("outcome", "unsupported").counter().count(), 0);
+    }
+
+    @Test
+    public void givenCompareModeAndCompleteResultMissingFields_whenTransform_thenCountUncovered() {
+        setMode(CaseFormatterMode.COMPARE);
+        Map<String, Object> remoteResult = ImmutableMap.of("petitionerFirstName", "John", "marriageDateDay", 2);
+        FieldMappingEngine engine = mock(FieldMappingEngine.class);
+        when(remote.transformToDivorceFormat(CASE_DATA, TEST_AUTH_TOKEN)).thenReturn(remoteResult);
+        when(local.format(FormatDirection.TO_DIVORCE, CASE_DATA)).thenReturn(complete(SESSION));
+        when(local.getEngine()).thenReturn(engine);
+        when(engine.getTargetFields(FormatDirection.TO_DIVORCE)).thenReturn(ImmutableSet.of("petitionerFirstName"));
+
+        assertEquals(remoteResult, classUnderTest.transformToDivorceFormat(CASE_DATA, TEST_AUTH_TOKEN));
+
+        assertEquals(1, meterRegistry.get(SelectingFormatterServiceClient.COMPARISONS_METRIC)
+            .tag("outcome", "uncovered").counter().count(), 0);
+    }
+
+    private static FormattingResult complete(Map<String, Object> data) {
+        return new FormattingResult(data, Collections.emptySet(), Collections.emptySet());
+    }
+
+    private void setMode(CaseFormatterMode mode) {
+        ReflectionTestUtils.setField(classUnderTest, "mode", mode);
+    }
+}
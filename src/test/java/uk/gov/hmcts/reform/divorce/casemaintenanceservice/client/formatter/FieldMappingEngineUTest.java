@@ -0,0 +1,161 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.formatter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FieldMappingEngineUTest {
+
+    private static final Map<String, Object> DIVORCE_SESSION = ImmutableMap.<String, Object>builder()
+        .put("petitionerFirstName", "John")
+        .put("screenHasMarriageBroken", "Yes")
+        .put("respondentCorrespondenceUseHomeAddress", "Solicitor")
+        .put("marriageCanDivorce", true)
+        .put("marriageDate", "2001-02-02T00:00:00.000Z")
+        .put("reasonForDivorceBehaviourDetails", ImmutableList.of("First line", "Second line"))
+        .build();
+
+    private static final Map<String, Object> CCD_CASE_DATA = ImmutableMap.<String, Object>builder()
+        .put("D8PetitionerFirstName", "John")
+        .put("D8ScreenHasMarriageBroken", "YES")
+        .put("D8RespondentCorrespondenceUseHomeAddress", "Solicitor")
+        .put("D8MarriageCanDivorce", "YES")
+        .put("D8MarriageDate", "2001-02-02")
+        .put("D8ReasonForDivorceBehaviourDetails", "First line\nSecond line")
+        .build();
+
+    private final FieldMappingEngine classUnderTest = new FieldMappingEngine(spec());
+
+    @Test
+    public void givenSession_whenFormatToCcd_thenConvertEachField() {
+        FormattingResult result = classUnderTest.format(FormatDirection.TO_CCD, DIVORCE_SESSION);
+
+        assertTrue(result.isComplete());
+        assertEquals(CCD_CASE_DATA, result.getData());
+    }
+
+    @Test
+    public void givenCaseData_whenFormatToDivorce_thenConvertEachFieldBack() {
+        FormattingResult result = classUnderTest.format(FormatDirection.TO_DIVORCE, CCD_CASE_DATA);
+
+        assertTrue(result.isComplete());
+        assertEquals(DIVORCE_SESSION, result.getData());
+    }
+
+    @Test
+    public void givenIgnoredNullAndUnmappedFields_whenFormat_thenOnlyReportUnmappedFields() {
+        Map<String, Object> session = new HashMap<>();
+        session.put("petitionerFirstName", "John");
+        session.put("petitionerLastName", null);
+        session.put("sessionKey", "someKey");
+        session.put("petitionerHomeAddress", ImmutableMap.of("postcode", "SW9 9PE"));
+
+        FormattingResult result = classUnderTest.format(FormatDirection.TO_CCD, session);
+
+        assertEquals(ImmutableMap.of("D8PetitionerFirstName", "John"), result.getData());
+        assertEquals(ImmutableSet.of("petitionerHomeAddress"), result.getUnmappedFields());
+    }
+
+    @Test
+    public void givenDerivedFields_whenFormatToDivorce_thenBuildThemFromTheirSource() {
+        FieldMappingSpec spec = spec();
+        spec.setDerivedFields(Arrays.asList(
+            new DerivedField(FormatDirection.TO_DIVORCE, "D8MarriageDate", "marriageDateDay", Derivation.DAY_OF_DATE),
+            new DerivedField(FormatDirection.TO_DIVORCE, "D8MarriageDate", "marriageDateMonth", Derivation.MONTH_OF_DATE),
+            new DerivedField(FormatDirection.TO_DIVORCE, "D8MarriageDate", "marriageDateYear", Derivation.YEAR_OF_DATE)
+        ));
+        FieldMappingEngine engine = new FieldMappingEngine(spec);
+
+        FormattingResult result = engine.format(FormatDirection.TO_DIVORCE, ImmutableMap.of("D8MarriageDate", "2001-03-04"));
+
+        assertTrue(result.isComplete());
+        assertEquals(ImmutableMap.of("marriageDate", "2001-03-04T00:00:00.000Z",
+            "marriageDateDay", 4, "marriageDateMonth", 3, "marriageDateYear", 2001), result.getData());
+        assertTrue(engine.getTargetFields(FormatDirection.TO_DIVORCE).contains("marriageDateDay"));
+        assertFalse(engine.getTargetFields(FormatDirection.TO_CCD).contains("marriageDateDay"));
+    }
+
+    @Test
+    public void givenDatesInAnotherFormat_whenFormat_thenPassThemThroughUnchanged() {
+        FormattingResult toCcd = classUnderTest.format(FormatDirection.TO_CCD, ImmutableMap.of("marriageDate", "2001-02-02"));
+        FormattingResult toDivorce = classUnderTest.format(FormatDirection.TO_DIVORCE, ImmutableMap.of("D8MarriageDate", "02/02/2001"));
+
+        assertEquals(ImmutableMap.of("D8MarriageDate", "2001-02-02"), toCcd.getData());
+        assertEquals(ImmutableMap.of("marriageDate", "02/02/2001"), toDivorce.getData());
+    }
+
+    @Test
+    public void givenDerivedFieldSourceInAnotherFormat_whenFormatToDivorce_thenLeaveTheDerivedFieldOut() {
+        FieldMappingSpec spec = spec();
+        spec.setDerivedFields(Arrays.asList(
+            new DerivedField(FormatDirection.TO_DIVORCE, "D8MarriageDate", "marriageDateDay", Derivation.DAY_OF_DATE)
+        ));
+        FieldMappingEngine engine = new FieldMappingEngine(spec);
+
+        FormattingResult result = engine.format(FormatDirection.TO_DIVORCE, ImmutableMap.of("D8MarriageDate", "02/02/2001"));
+
+        assertEquals(ImmutableMap.of("marriageDate", "02/02/2001"), result.getData());
+    }
+
+    @Test
+    public void givenFieldsEngineCannotBuild_whenFormatIntoThatSide_thenResultIsIncomplete() {
+        FieldMappingSpec spec = spec();
+        spec.setMissingCcdFields(ImmutableSet.of("D8DerivedPetitionerCurrentFullName"));
+        FieldMappingEngine engine = new FieldMappingEngine(spec);
+
+        FormattingResult toCcd = engine.format(FormatDirection.TO_CCD, DIVORCE_SESSION);
+        FormattingResult toDivorce = engine.format(FormatDirection.TO_DIVORCE, CCD_CASE_DATA);
+
+        assertFalse(toCcd.isComplete());
+        assertEquals(ImmutableSet.of("D8DerivedPetitionerCurrentFullName"), toCcd.getMissingFields());
+        assertTrue(toDivorce.isComplete());
+    }
+
+    @Test
+    public void givenLocalResult_whenCompare_thenReportMismatchedAndUncoveredFields() {
+        FormatterComparison comparison = FormatterComparison.compare(
+            ImmutableMap.of("D8PetitionerFirstName", "Johnny", "D8DerivedPetitionerCurrentFullName", "Johnny Smith"),
+            ImmutableMap.of("D8PetitionerFirstName", "John"),
+            classUnderTest.getTargetFields(FormatDirection.TO_CCD));
+
+        assertEquals(ImmutableSet.of("D8PetitionerFirstName"), comparison.getMismatchedFields());
+        assertEquals(ImmutableSet.of("D8DerivedPetitionerCurrentFullName"), comparison.getUncoveredFields());
+        assertFalse(comparison.isMatch());
+    }
+
+    @Test
+    public void givenLocalResultLeavingFieldsOut_whenCompare_thenItIsNotAMatch() {
+        FormatterComparison comparison = FormatterComparison.compare(
+            ImmutableMap.of("D8PetitionerFirstName", "John", "D8Cohort", "onlineSubmissionPrivateBeta"),
+            ImmutableMap.of("D8PetitionerFirstName", "John"),
+            classUnderTest.getTargetFields(FormatDirection.TO_CCD));
+
+        assertTrue(comparison.getMismatchedFields().isEmpty());
+        assertFalse(comparison.isMatch());
+    }
+
+    private static FieldMappingSpec spec() {
+        FieldMappingSpec spec = new FieldMappingSpec();
+        spec.setMappings(Arrays.asList(
+            new FieldMapping("petitionerFirstName", "D8PetitionerFirstName", FieldType.VALUE),
+            new FieldMapping("petitionerLastName", "D8PetitionerLastName", FieldType.VALUE),
+            new FieldMapping("screenHasMarriageBroken", "D8ScreenHasMarriageBroken", FieldType.YES_NO),
+            new FieldMapping("respondentCorrespondenceUseHomeAddress", "D8RespondentCorrespondenceUseHomeAddress", FieldType.YES_NO),
+            new FieldMapping("marriageCanDivorce", "D8MarriageCanDivorce", FieldType.BOOLEAN_YES_NO),
+            new FieldMapping("marriageDate", "D8MarriageDate", FieldType.DATE),
+            new FieldMapping("reasonForDivorceBehaviourDetails", "D8ReasonForDivorceBehaviourDetails", FieldType.LINES)
+        ));
+        spec.setIgnoredDivorceFields(ImmutableSet.of("sessionKey"));
+
+        return spec;
+    }
+}
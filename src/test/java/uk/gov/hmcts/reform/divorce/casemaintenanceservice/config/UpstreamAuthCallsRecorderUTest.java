@@ -0,0 +1,55 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.RequestAuthContext;
+
+import javax.servlet.ServletRequestEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class UpstreamAuthCallsRecorderUTest {
+
+    private final UpstreamAuthCallsRecorder classUnderTest = new UpstreamAuthCallsRecorder();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void givenRequestResolvedTokens_whenRequestDestroyed_thenRecordUpstreamCallsMadeByRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        RequestAuthContext.resolveServiceToken(() -> "ServiceToken");
+        RequestAuthContext.resolveServiceToken(() -> "ServiceToken");
+
+        classUnderTest.requestDestroyed(new ServletRequestEvent(new MockServletContext(), request));
+
+        DistributionSummary summary = meterRegistry.get(RequestAuthContext.UPSTREAM_AUTH_CALLS_METRIC).summary();
+        assertEquals(1, summary.count());
+        assertEquals(1, summary.totalAmount(), 0);
+    }
+
+    @Test
+    public void givenRequestResolvedNothing_whenRequestDestroyed_thenRecordNothing() {
+        classUnderTest.requestDestroyed(new ServletRequestEvent(new MockServletContext(), request));
+
+        assertNull(meterRegistry.find(RequestAuthContext.UPSTREAM_AUTH_CALLS_METRIC).summary());
+    }
+}
@@ -0,0 +1,74 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.config;
+
+import com.google.common.collect.ImmutableMap;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UpstreamRoutingFeignClientUTest {
+
+    @Mock
+    private Client ccdClient;
+
+    @Mock
+    private Client draftStoreClient;
+
+    @Mock
+    private Client defaultClient;
+
+    private UpstreamRoutingFeignClient classUnderTest() {
+        return new UpstreamRoutingFeignClient(ImmutableMap.of(
+            "http://localhost:4452", ccdClient,
+            "https://draft-store.example.com/", draftStoreClient
+        ), defaultClient);
+    }
+
+    @Test
+    public void givenUrlOfKnownUpstream_whenRoute_thenUseItsClient() {
+        UpstreamRoutingFeignClient routingClient = classUnderTest();
+
+        assertSame(ccdClient, routingClient.route("http://localhost:4452/citizens/1/jurisdictions/DIVORCE/case-types"));
+        assertSame(draftStoreClient, routingClient.route("https://draft-store.example.com/drafts?page=1"));
+        assertSame(draftStoreClient, routingClient.route("https://DRAFT-STORE.example.com:443/drafts"));
+    }
+
+    @Test
+    public void givenUrlOfUnknownUpstream_whenRoute_thenUseDefaultClient() {
+        UpstreamRoutingFeignClient routingClient = classUnderTest();
+
+        assertSame(defaultClient, routingClient.route("http://localhost:4453/citizens"));
+        assertSame(defaultClient, routingClient.route("https://localhost:4452/citizens"));
+        assertSame(defaultClient, routingClient.route("not a url"));
+    }
+
+    @Test
+    public void whenExecute_thenDelegateToRoutedClient() throws Exception {
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost:4452/cases/1",
+            Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+        Request.Options options = new Request.Options();
+        Response response = Response.builder()
+            .status(200)
+            .request(request)
+            .headers(Collections.emptyMap())
+            .build();
+        when(ccdClient.execute(request, options)).thenReturn(response);
+
+        assertSame(response, classUnderTest().execute(request, options));
+
+        verify(ccdClient).execute(request, options);
+        verifyNoInteractions(draftStoreClient, defaultClient);
+    }
+}
@@ -1,27 +1,48 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
+import feign.Request;
+import feign.Response;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.IdempotentSubmissions;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.NdjsonWriter;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdate;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdateResult;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdAccessService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdRetrievalService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdSubmissionService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdUpdateService;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
@@ -46,6 +67,9 @@ public class CcdControllerUTest {
     @Mock
     private CcdRetrievalService ccdRetrievalService;
 
+    @Spy
+    private IdempotentSubmissions idempotentSubmissions = new IdempotentSubmissions();
+
     @InjectMocks
     private CcdController classUnderTest;
 
@@ -53,7 +77,7 @@ public class CcdControllerUTest {
     public void whenSubmitCase_thenProceedAsExpected() {
         when(ccdSubmissionService.submitCase(CASE_DATA_CONTENT, TEST_AUTH_TOKEN)).thenReturn(CASE_DETAILS);
 
-        ResponseEntity<CaseDetails> responseEntity = classUnderTest.submitCase(CASE_DATA_CONTENT, TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> responseEntity = classUnderTest.submitCase(CASE_DATA_CONTENT, TEST_AUTH_TOKEN, null);
 
         assertEquals(CASE_DETAILS, responseEntity.getBody());
         assertEquals(HttpStatus.OK.value(), responseEntity.getStatusCodeValue());
@@ -87,6 +111,19 @@ public class CcdControllerUTest {
         verify(ccdUpdateService).update(TEST_CASE_ID, CASE_DATA_CONTENT, TEST_EVENT_ID, TEST_AUTH_TOKEN);
     }
 
+    @Test
+    public void whenUpdateCases_thenReturnEachOutcome() {
+        CaseEventUpdate update = new CaseEventUpdate(TEST_CASE_ID, TEST_EVENT_ID, CASE_DATA_CONTENT);
+        List<CaseEventUpdateResult> results = Collections.singletonList(CaseEventUpdateResult.succeeded(update));
+        when(ccdUpdateService.updateAll(Collections.singletonList(update), TEST_AUTH_TOKEN)).thenReturn(results);
+
+        ResponseEntity<List<CaseEventUpdateResult>> responseEntity =
+            classUnderTest.updateCases(Collections.singletonList(update), TEST_AUTH_TOKEN);
+
+        assertEquals(results, responseEntity.getBody());
+        assertEquals(HttpStatus.OK.value(), responseEntity.getStatusCodeValue());
+    }
+
     @Test
     public void whenLinkRespondent_thenProceedAsExpected() {
         doNothing().when(ccdAccessService).linkRespondent(TEST_AUTH_TOKEN, TEST_CASE_ID, TEST_LETTER_HOLDER_ID_CODE);
@@ -131,12 +168,111 @@ public class CcdControllerUTest {
             .build();
         when(ccdRetrievalService.searchCase(TEST_AUTH_TOKEN, query)).thenReturn(expectedResult);
 
-        ResponseEntity<SearchResult> caseResult = classUnderTest.search(TEST_AUTH_TOKEN, query);
+        ResponseEntity<SearchResult> caseResult = classUnderTest.search(TEST_AUTH_TOKEN, query, null);
 
         assertEquals(HttpStatus.OK, caseResult.getStatusCode());
         assertEquals(expectedResult, caseResult.getBody());
     }
 
+    @Test
+    public void givenPassthroughEnabled_whenSearchCases_thenRelayCcdResponse() {
+        ReflectionTestUtils.setField(classUnderTest, "passthroughEnabled", true);
+        String query = "anyQuery";
+        byte[] ccdBody = "{\"total\":0,\"cases\":[]}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(ccdRetrievalService.searchRawCase(TEST_AUTH_TOKEN, query)).thenReturn(Response.builder()
+            .status(200)
+            .request(Request.create(Request.HttpMethod.POST, "http://localhost:4452/searchCases",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+            .headers(Collections.emptyMap())
+            .body(ccdBody)
+            .build());
+
+        assertNull(classUnderTest.search(TEST_AUTH_TOKEN, query, response));
+
+        assertArrayEquals(ccdBody, response.getContentAsByteArray());
+        verify(ccdRetrievalService, never()).searchCase(TEST_AUTH_TOKEN, query);
+    }
+
+    @Test
+    public void givenPassthroughEnabledAndCcdSendsNoBody_whenSearchCases_thenSearchAsUsual() {
+        ReflectionTestUtils.setField(classUnderTest, "passthroughEnabled", true);
+        String query = "anyQuery";
+        SearchResult expectedResult = SearchResult.builder().total(0).cases(Collections.emptyList()).build();
+
+        when(ccdRetrievalService.searchRawCase(TEST_AUTH_TOKEN, query)).thenReturn(Response.builder()
+            .status(204)
+            .request(Request.create(Request.HttpMethod.POST, "http://localhost:4452/searchCases",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+            .headers(Collections.emptyMap())
+            .build());
+        when(ccdRetrievalService.searchCase(TEST_AUTH_TOKEN, query)).thenReturn(expectedResult);
+
+        ResponseEntity<SearchResult> caseResult = classUnderTest.search(TEST_AUTH_TOKEN, query, new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.OK, caseResult.getStatusCode());
+        assertEquals(expectedResult, caseResult.getBody());
+    }
+
+    @Test
+    public void whenSearchStream_thenWriteEveryPageAsNewlineDelimitedJson() throws IOException {
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper());
+        String query = "{\"query\":{\"match_all\":{}}}";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(ccdRetrievalService.searchCasePages(TEST_AUTH_TOKEN, query)).thenReturn(Arrays.asList(
+            Arrays.asList(CaseDetails.builder().id(1L).build(), CaseDetails.builder().id(2L).build()),
+            Collections.singletonList(CaseDetails.builder().id(3L).build())
+        ).iterator());
+
+        classUnderTest.searchStream(TEST_AUTH_TOKEN, query, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(NdjsonWriter.APPLICATION_NDJSON_VALUE, response.getContentType());
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(3L, new ObjectMapper().readTree(lines[2]).get("id").asLong());
+        assertTrue(response.getContentAsString().endsWith("\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenSearchFailsAfterFirstPage_whenSearchStream_thenEndWithErrorLine() throws IOException {
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper());
+        String query = "{\"query\":{\"match_all\":{}}}";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Iterator<List<CaseDetails>> pages = mock(Iterator.class);
+
+        when(ccdRetrievalService.searchCasePages(TEST_AUTH_TOKEN, query)).thenReturn(pages);
+        when(pages.hasNext()).thenReturn(true);
+        when(pages.next())
+            .thenReturn(Collections.singletonList(CaseDetails.builder().id(1L).build()))
+            .thenThrow(new IllegalStateException("CCD rejected the page"));
+
+        classUnderTest.searchStream(TEST_AUTH_TOKEN, query, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, new ObjectMapper().readTree(lines[0]).get("id").asLong());
+        assertTrue(new ObjectMapper().readTree(lines[1]).has("error"));
+    }
+
+    @Test
+    public void givenNoMatches_whenSearchStream_thenWriteNothing() throws IOException {
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(ccdRetrievalService.searchCasePages(TEST_AUTH_TOKEN, "{}")).thenReturn(Collections.emptyIterator());
+
+        classUnderTest.searchStream(TEST_AUTH_TOKEN, "{}", response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
     @Test
     public void whenSubmitBulkCase_thenProceedAsExpected() {
         Map<String, Object> inputData = ImmutableMap.of("key", "value");
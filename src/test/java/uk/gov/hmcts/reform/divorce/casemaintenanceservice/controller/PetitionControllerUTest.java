@@ -1,5 +1,9 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.Response;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -7,24 +11,37 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support.NdjsonWriter;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseReadResult;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CmsConstants;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivorceSessionProperties;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.DraftList;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.DuplicateCaseException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.CcdRetrievalService;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.PetitionService;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.util.CaseETag;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_CASE_ID;
@@ -37,6 +54,9 @@ public class PetitionControllerUTest {
     @Mock
     private PetitionService petitionService;
 
+    @Mock
+    private CcdRetrievalService ccdRetrievalService;
+
     @InjectMocks
     private PetitionController classUnderTest;
 
@@ -48,7 +68,7 @@ public class PetitionControllerUTest {
         when(petitionService.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING))
                 .thenReturn(caseDetails);
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(caseDetails, actual.getBody());
@@ -79,7 +99,7 @@ public class PetitionControllerUTest {
         when(petitionService.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING))
                 .thenReturn(caseDetails);
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(caseDetails, actual.getBody());
@@ -93,7 +113,7 @@ public class PetitionControllerUTest {
         when(petitionService.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING))
                 .thenReturn(null);
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, null, null);
 
         assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
         assertNull(actual.getBody());
@@ -106,7 +126,7 @@ public class PetitionControllerUTest {
         when(petitionService.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING))
                 .thenThrow(new DuplicateCaseException("Duplicate"));
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, null, null);
 
         assertEquals(HttpStatus.MULTIPLE_CHOICES, actual.getStatusCode());
 
@@ -118,7 +138,7 @@ public class PetitionControllerUTest {
 
         when(petitionService.retrievePetition(TEST_AUTH_TOKEN)).thenReturn(null);
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCase(TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCase(TEST_AUTH_TOKEN, null);
 
         assertEquals(HttpStatus.NOT_FOUND, actual.getStatusCode());
         assertNull(actual.getBody());
@@ -131,7 +151,7 @@ public class PetitionControllerUTest {
 
         when(petitionService.retrievePetition(TEST_AUTH_TOKEN)).thenThrow(new DuplicateCaseException("Some Error"));
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCase(TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCase(TEST_AUTH_TOKEN, null);
 
         assertEquals(HttpStatus.MULTIPLE_CHOICES, actual.getStatusCode());
         assertNull(actual.getBody());
@@ -145,7 +165,7 @@ public class PetitionControllerUTest {
 
         when(petitionService.retrievePetition(TEST_AUTH_TOKEN)).thenReturn(caseDetails);
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCase(TEST_AUTH_TOKEN);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCase(TEST_AUTH_TOKEN, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(caseDetails, actual.getBody());
@@ -159,7 +179,7 @@ public class PetitionControllerUTest {
 
         when(petitionService.retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(caseDetails);
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID, null, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(caseDetails, actual.getBody());
@@ -171,13 +191,138 @@ public class PetitionControllerUTest {
     public void givenCaseNotFound_whenRetrieveCaseById_thenNotFound() {
         when(petitionService.retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(null);
 
-        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID);
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID, null, null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, actual.getStatusCode());
 
         verify(petitionService).retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID);
     }
 
+    @Test
+    public void givenCaseInCcd_whenRetrieveCaseById_thenReturnCaseWithETag() {
+        final CaseDetails caseDetails = ccdCase();
+
+        when(petitionService.retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(caseDetails);
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID, null,
+            "\"someOtherVersion\"", null);
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(caseDetails, actual.getBody());
+        assertEquals(CaseETag.of(caseDetails).get(), actual.getHeaders().getETag());
+    }
+
+    @Test
+    public void givenClientHoldsCurrentVersion_whenRetrieveCase_thenNotModified() {
+        final CaseDetails caseDetails = ccdCase();
+        final String eTag = CaseETag.of(caseDetails).get();
+
+        when(petitionService.retrievePetition(TEST_AUTH_TOKEN)).thenReturn(caseDetails);
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCase(TEST_AUTH_TOKEN, eTag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+        assertEquals(eTag, actual.getHeaders().getETag());
+        assertNull(actual.getBody());
+    }
+
+    @Test
+    public void givenClientHoldsCurrentVersion_whenRetrievePetition_thenNotModified() {
+        final CaseDetails caseDetails = ccdCase();
+
+        when(petitionService.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING)).thenReturn(caseDetails);
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, null,
+            "\"someOtherVersion\", W/" + CaseETag.of(caseDetails).get());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+        assertNull(actual.getBody());
+    }
+
+    @Test
+    public void givenFieldsRequested_whenRetrieveCaseById_thenTagProjectionSeparately() {
+        final CaseDetails caseDetails = ccdCase();
+        final String fullCaseETag = CaseETag.of(caseDetails).get();
+
+        when(petitionService.retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(caseDetails);
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID,
+            "D8caseReference, D8PetitionerEmail", fullCaseETag, null);
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(CaseETag.of(caseDetails, "D8PetitionerEmail,D8caseReference").get(), actual.getHeaders().getETag());
+    }
+
+    @Test
+    public void givenDraftReturned_whenRetrievePetition_thenReturnItWithoutETag() {
+        final CaseDetails caseDetails = CaseDetails.builder().data(Collections.singletonMap("isDraft", true)).build();
+
+        when(petitionService.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING)).thenReturn(caseDetails);
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, null, "*");
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(caseDetails, actual.getBody());
+        assertNull(actual.getHeaders().getETag());
+    }
+
+    @Test
+    public void givenPassthroughEnabled_whenRetrieveCaseById_thenRelayCcdResponse() {
+        ReflectionTestUtils.setField(classUnderTest, "passthroughEnabled", true);
+        final byte[] ccdBody = "{\"id\":123456789}".getBytes(StandardCharsets.UTF_8);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(ccdRetrievalService.retrieveRawCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(ccdResponse(200, ccdBody));
+
+        assertNull(classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID, null, null, response));
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertArrayEquals(ccdBody, response.getContentAsByteArray());
+        verifyNoInteractions(petitionService);
+    }
+
+    @Test
+    public void givenPassthroughEnabledAndCcdSendsNoCase_whenRetrieveCaseById_thenReadCaseAsUsual() {
+        ReflectionTestUtils.setField(classUnderTest, "passthroughEnabled", true);
+        final CaseDetails caseDetails = ccdCase();
+
+        when(ccdRetrievalService.retrieveRawCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(ccdResponse(200, new byte[0]));
+        when(petitionService.retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(caseDetails);
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID, null, null,
+            new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(caseDetails, actual.getBody());
+    }
+
+    @Test
+    public void givenPassthroughEnabledAndCaseNotFoundEitherWay_whenRetrieveCaseById_thenNotFound() {
+        ReflectionTestUtils.setField(classUnderTest, "passthroughEnabled", true);
+
+        when(ccdRetrievalService.retrieveRawCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(ccdResponse(200, new byte[0]));
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID, null, null,
+            new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.NOT_FOUND, actual.getStatusCode());
+        verify(petitionService).retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID);
+    }
+
+    @Test
+    public void givenPassthroughEnabledAndFieldsRequested_whenRetrieveCaseById_thenReadCaseAsUsual() {
+        ReflectionTestUtils.setField(classUnderTest, "passthroughEnabled", true);
+        final CaseDetails caseDetails = ccdCase();
+
+        when(petitionService.retrievePetitionByCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID)).thenReturn(caseDetails);
+
+        ResponseEntity<CaseDetails> actual = classUnderTest.retrieveCaseById(TEST_AUTH_TOKEN, TEST_CASE_ID,
+            "D8caseReference", null, new MockHttpServletResponse());
+
+        assertEquals(caseDetails, actual.getBody());
+        verifyNoInteractions(ccdRetrievalService);
+    }
+
     @Test
     public void givenDivorceFormatIsNull_whenSaveDraft_thenProceedAsExpected() {
         final Map<String, Object> data = Collections.emptyMap();
@@ -416,4 +561,52 @@ public class PetitionControllerUTest {
 
         verify(petitionService).createAmendedPetitionDraftRefusalFromCaseId(TEST_AUTH_TOKEN, TEST_CASE_ID);
     }
+
+    @Test
+    public void whenRetrieveCasesById_thenWriteEachResultOnItsOwnLine() throws IOException {
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<String> caseIds = Arrays.asList("1", "2");
+
+        when(ccdRetrievalService.retrieveCasesById(TEST_AUTH_TOKEN, caseIds)).thenReturn(Arrays.asList(
+            CaseReadResult.failed("2", HttpStatus.NOT_FOUND.value(), "Case not found"),
+            CaseReadResult.found("1", CaseDetails.builder().id(1L).build())
+        ).iterator());
+
+        classUnderTest.retrieveCasesById(TEST_AUTH_TOKEN, caseIds, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(NdjsonWriter.APPLICATION_NDJSON_VALUE, response.getContentType());
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+
+        JsonNode notFound = new ObjectMapper().readTree(lines[0]);
+        assertEquals("2", notFound.get("caseId").asText());
+        assertEquals(404, notFound.get("status").asInt());
+        assertFalse(notFound.has("case"));
+
+        JsonNode found = new ObjectMapper().readTree(lines[1]);
+        assertEquals(200, found.get("status").asInt());
+        assertEquals(1L, found.get("case").get("id").asLong());
+        assertFalse(found.has("error"));
+    }
+
+    private static Response ccdResponse(int status, byte[] body) {
+        return Response.builder()
+            .status(status)
+            .request(Request.create(Request.HttpMethod.GET, "http://localhost:4452/cases/1",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+            .headers(Collections.emptyMap())
+            .body(body)
+            .build();
+    }
+
+    private static CaseDetails ccdCase() {
+        return CaseDetails.builder()
+            .id(123456789L)
+            .state("AwaitingDecreeNisi")
+            .lastModified(LocalDateTime.of(2020, 5, 1, 10, 30))
+            .build();
+    }
 }
@@ -0,0 +1,162 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.config.JacksonConfiguration;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CaseDataProjectionAdviceUTest {
+
+    private static final String BYTES_SAVED_METRIC = CaseDataProjectionAdvice.PROJECTION_METRIC + ".bytes.saved";
+    private static final Map<String, Object> CASE_DATA = ImmutableMap.of(
+        "D8caseReference", "LV17D80101",
+        "D8PetitionerEmail", "petitioner@test.com",
+        "D8DocumentsUploaded", ImmutableMap.of("value", "someLargeDocument")
+    );
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CaseDataProjectionAdvice classUnderTest = new CaseDataProjectionAdvice();
+
+    private ObjectMapper objectMapper;
+
+    @Before
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfiguration().caseDataProjectionCustomizer().customize(builder);
+        objectMapper = builder.build();
+
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(classUnderTest, "measureOneIn", 1L);
+        classUnderTest.init();
+    }
+
+    @Test
+    public void givenHandlerNotMarked_thenDoNotSupportIt() throws NoSuchMethodException {
+        assertTrue(classUnderTest.supports(returnType("projectable"), MappingJackson2HttpMessageConverter.class));
+        assertFalse(classUnderTest.supports(returnType("notProjectable"), MappingJackson2HttpMessageConverter.class));
+    }
+
+    @Test
+    public void givenFieldsRequested_thenWriteOnlyThoseDataKeysAndRecordBytesSaved() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter(CaseDataProjection.FIELDS_PARAMETER, "D8caseReference, D8PetitionerEmail");
+
+        Map<String, Object> written = write(request);
+
+        assertEquals(123L, ((Number) written.get("id")).longValue());
+        assertEquals("Submitted", written.get("state"));
+        assertEquals(ImmutableMap.of("D8caseReference", "LV17D80101", "D8PetitionerEmail", "petitioner@test.com"),
+            written.get("case_data"));
+
+        String dropped = "\"D8DocumentsUploaded\":{\"value\":\"someLargeDocument\"}";
+        assertEquals(dropped.length(), meterRegistry.get(BYTES_SAVED_METRIC).counter().count(), 0);
+        assertEquals(1, meterRegistry.get(CaseDataProjectionAdvice.PROJECTION_METRIC + ".responses").counter().count(), 0);
+    }
+
+    @Test
+    public void givenSampledMeasurement_thenMeasureOneResponseInNAndScaleItUp() throws Exception {
+        ReflectionTestUtils.setField(classUnderTest, "measureOneIn", 3L);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter(CaseDataProjection.FIELDS_PARAMETER, "D8caseReference, D8PetitionerEmail");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ImmutableMap.of("D8caseReference", "LV17D80101", "D8PetitionerEmail", "petitioner@test.com"),
+                write(request).get("case_data"));
+        }
+
+        String dropped = "\"D8DocumentsUploaded\":{\"value\":\"someLargeDocument\"}";
+        assertEquals(dropped.length() * 3, meterRegistry.get(BYTES_SAVED_METRIC).counter().count(), 0);
+    }
+
+    @Test
+    public void givenMeasurementTurnedOff_thenRecordNoBytesSaved() throws Exception {
+        ReflectionTestUtils.setField(classUnderTest, "measureOneIn", 0L);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter(CaseDataProjection.FIELDS_PARAMETER, "D8caseReference");
+
+        assertEquals(ImmutableMap.of("D8caseReference", "LV17D80101"), write(request).get("case_data"));
+        assertEquals(0, meterRegistry.get(BYTES_SAVED_METRIC).counter().count(), 0);
+    }
+
+    @Test
+    public void givenNoFieldsRequested_thenWriteTheWholeCase() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter(CaseDataProjection.FIELDS_PARAMETER, " , ");
+
+        Map<String, Object> written = write(request);
+
+        assertEquals(CASE_DATA, written.get("case_data"));
+        assertEquals(0, meterRegistry.get(BYTES_SAVED_METRIC).counter().count(), 0);
+    }
+
+    @Test
+    public void givenCaseWrittenOutsideOfProjection_thenWriteTheWholeCase() throws Exception {
+        Map<String, Object> written = objectMapper.readValue(objectMapper.writeValueAsBytes(caseDetails()), Map.class);
+
+        assertEquals(CASE_DATA, written.get("case_data"));
+    }
+
+    @Test
+    public void givenNoBody_thenLeaveItAlone() throws NoSuchMethodException {
+        assertNull(classUnderTest.beforeBodyWrite(null, returnType("projectable"), MediaType.APPLICATION_JSON,
+            MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(new MockHttpServletRequest()),
+            new ServletServerHttpResponse(new MockHttpServletResponse())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> write(MockHttpServletRequest request) throws Exception {
+        MappingJacksonValue body = (MappingJacksonValue) classUnderTest.beforeBodyWrite(caseDetails(), returnType("projectable"),
+            MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request),
+            new ServletServerHttpResponse(new MockHttpServletResponse()));
+
+        byte[] json = body.getFilters() == null
+            ? objectMapper.writeValueAsBytes(body.getValue())
+            : objectMapper.writer(body.getFilters()).writeValueAsBytes(body.getValue());
+
+        return objectMapper.readValue(json, Map.class);
+    }
+
+    private static CaseDetails caseDetails() {
+        return CaseDetails.builder()
+            .id(123L)
+            .state("Submitted")
+            .data(CASE_DATA)
+            .build();
+    }
+
+    private static MethodParameter returnType(String methodName) throws NoSuchMethodException {
+        return new MethodParameter(Handlers.class.getDeclaredMethod(methodName), -1);
+    }
+
+    private static class Handlers {
+        @CaseDataProjection
+        ResponseEntity<CaseDetails> projectable() {
+            return null;
+        }
+
+        ResponseEntity<CaseDetails> notProjectable() {
+            return null;
+        }
+    }
+}
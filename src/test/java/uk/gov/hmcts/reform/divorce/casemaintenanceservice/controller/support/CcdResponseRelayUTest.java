@@ -0,0 +1,109 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import com.google.common.collect.ImmutableMap;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CcdResponseRelayUTest {
+
+    private static final String METHOD_KEY = "CcdPassthroughClient#readCase";
+    private static final byte[] CASE_JSON = "{\"id\":1,\"case_data\":{\"D8caseReference\":\"LV17D80101\"}}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void givenCaseReturned_whenRelay_thenCopyBodyStatusAndContentType() {
+        Map<String, Collection<String>> headers = ImmutableMap.of("content-type", List.of("application/json;charset=UTF-8"));
+
+        assertTrue(CcdResponseRelay.relay(upstream(200, headers, CASE_JSON), METHOD_KEY, response));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        assertEquals(CASE_JSON.length, response.getContentLength());
+        assertArrayEquals(CASE_JSON, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void givenNoContentType_whenRelay_thenSendJson() {
+        CcdResponseRelay.relay(upstream(200, Collections.emptyMap(), CASE_JSON), METHOD_KEY, response);
+
+        assertEquals("application/json", response.getContentType());
+    }
+
+    @Test
+    public void givenEmptyBody_whenRelay_thenWriteNothing() {
+        assertFalse(CcdResponseRelay.relay(upstream(200, Collections.emptyMap(), new byte[0]), METHOD_KEY, response));
+        assertFalse(CcdResponseRelay.relay(upstream(204, Collections.emptyMap(), null), METHOD_KEY, response));
+
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void givenErrorStatus_whenRelay_thenThrowFeignExceptionWithCcdBody() {
+        byte[] error = "{\"message\":\"Case reference is not valid\"}".getBytes(StandardCharsets.UTF_8);
+
+        try {
+            CcdResponseRelay.relay(upstream(400, Collections.emptyMap(), error), METHOD_KEY, response);
+            fail("Expected a FeignException");
+        } catch (FeignException e) {
+            assertEquals(400, e.status());
+            assertTrue(e.contentUTF8().contains("Case reference is not valid"));
+        }
+
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void whenRelay_thenCloseUpstreamBody() {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayInputStream body = new ByteArrayInputStream(CASE_JSON) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        Response upstream = Response.builder()
+            .status(200)
+            .request(request())
+            .headers(Collections.emptyMap())
+            .body(body, CASE_JSON.length)
+            .build();
+
+        CcdResponseRelay.relay(upstream, METHOD_KEY, response);
+
+        assertTrue(closed.get());
+    }
+
+    private static Response upstream(int status, Map<String, Collection<String>> headers, byte[] body) {
+        return Response.builder()
+            .status(status)
+            .request(request())
+            .headers(headers)
+            .body(body)
+            .build();
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://localhost:4452/cases/1",
+            Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,245 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.controller.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.SubmissionInProgressException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IdempotentSubmissionsUTest {
+
+    private static final String AUTH_TOKEN = "someToken";
+    private static final String REFRESHED_AUTH_TOKEN = "someRefreshedToken";
+    private static final String OTHER_AUTH_TOKEN = "someOtherToken";
+    private static final String USER_ID = "1";
+    private static final String OTHER_USER_ID = "2";
+    private static final String IDEMPOTENCY_KEY = "5f0c7a6e-2a8e-4c4b-9d6b-1f1a1c0e9b11";
+    private static final Map<String, Object> CASE_DATA = ImmutableMap.of("D8PetitionerFirstName", "John");
+
+    private final IdempotentSubmissions classUnderTest = new IdempotentSubmissions();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserService userService = mock(UserService.class);
+    private final AtomicInteger submissions = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void givenDisabled_whenSubmit_thenSubmitEveryTime() {
+        classUnderTest.init();
+
+        classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(1L));
+        classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(2L));
+
+        assertEquals(2, submissions.get());
+    }
+
+    @Test
+    public void givenNoKey_whenSubmit_thenSubmitEveryTime() {
+        enable();
+
+        classUnderTest.submit(AUTH_TOKEN, null, CASE_DATA, submission(1L));
+        classUnderTest.submit(AUTH_TOKEN, null, CASE_DATA, submission(2L));
+
+        assertEquals(2, submissions.get());
+    }
+
+    @Test
+    public void givenKeyUsedBefore_whenSubmit_thenReturnFirstCaseWithoutSubmitting() {
+        enable();
+
+        CaseDetails first = classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(1L));
+        CaseDetails replay = classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, ImmutableMap.copyOf(CASE_DATA), submission(2L));
+
+        assertSame(first, replay);
+        assertEquals(1, submissions.get());
+        assertEquals(1.0, meterRegistry.get("ccd.submission.idempotency.replays").counter().count(), 0.0);
+    }
+
+    @Test
+    public void givenKeyUsedBeforeWithDataInAnotherOrder_whenSubmit_thenReturnFirstCaseWithoutSubmitting() {
+        enable();
+        Map<String, Object> caseData = ImmutableMap.of("D8PetitionerFirstName", "John", "D8PetitionerLastName", "Smith");
+        Map<String, Object> reordered = ImmutableMap.of("D8PetitionerLastName", "Smith", "D8PetitionerFirstName", "John");
+
+        CaseDetails first = classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, caseData, submission(1L));
+        CaseDetails replay = classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, reordered, submission(2L));
+
+        assertSame(first, replay);
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    public void givenKeyUsedBeforeWithAnotherTokenOfTheSameUser_whenSubmit_thenReturnFirstCaseWithoutSubmitting() {
+        enable();
+
+        CaseDetails first = classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(1L));
+        CaseDetails replay = classUnderTest.submit(REFRESHED_AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(2L));
+
+        assertSame(first, replay);
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    public void givenKeyUsedByAnotherUser_whenSubmit_thenSubmit() {
+        enable();
+
+        classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(1L));
+        CaseDetails other = classUnderTest.submit(OTHER_AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(2L));
+
+        assertEquals(Long.valueOf(2L), other.getId());
+        assertEquals(2, submissions.get());
+    }
+
+    @Test
+    public void givenKeyUsedForDifferentData_whenSubmit_thenThrowInvalidRequestException() {
+        enable();
+
+        classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(1L));
+
+        try {
+            classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, ImmutableMap.of("D8PetitionerFirstName", "Jane"), submission(2L));
+            fail("Expected an InvalidRequestException");
+        } catch (InvalidRequestException e) {
+            assertEquals(1, submissions.get());
+        }
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void givenEmptyKey_whenSubmit_thenThrowInvalidRequestException() {
+        enable();
+
+        classUnderTest.submit(AUTH_TOKEN, "", CASE_DATA, submission(1L));
+    }
+
+    @Test
+    public void givenFirstSubmissionFailed_whenSubmitAgain_thenSubmit() {
+        enable();
+
+        try {
+            classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, () -> {
+                throw new IllegalStateException("CCD timed out");
+            });
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("CCD timed out", e.getMessage());
+        }
+
+        CaseDetails retried = classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(1L));
+
+        assertEquals(Long.valueOf(1L), retried.getId());
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    public void givenFirstSubmissionInFlight_whenSubmit_thenWaitForItsCase() throws Exception {
+        enable();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        Supplier<CaseDetails> slowSubmission = () -> {
+            firstStarted.countDown();
+            try {
+                releaseFirst.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return submission(1L).get();
+        };
+
+        Future<CaseDetails> first = executor.submit(() -> classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, slowSubmission));
+        firstStarted.await(5, TimeUnit.SECONDS);
+        Future<CaseDetails> retry = executor.submit(() -> classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(2L)));
+
+        Thread.sleep(100);
+        assertFalse(retry.isDone());
+
+        releaseFirst.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), retry.get(5, TimeUnit.SECONDS));
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    public void givenFirstSubmissionStillInFlightAfterTheWait_whenSubmit_thenThrowSubmissionInProgressException() throws Exception {
+        enable();
+        ReflectionTestUtils.setField(classUnderTest, "waitSeconds", 0L);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CompletableFuture<Void> releaseFirst = new CompletableFuture<>();
+        Supplier<CaseDetails> slowSubmission = () -> {
+            firstStarted.countDown();
+            releaseFirst.join();
+            return submission(1L).get();
+        };
+
+        Future<CaseDetails> first = executor.submit(() -> classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, slowSubmission));
+        firstStarted.await(5, TimeUnit.SECONDS);
+        Future<CaseDetails> retry = executor.submit(() -> classUnderTest.submit(AUTH_TOKEN, IDEMPOTENCY_KEY, CASE_DATA, submission(2L)));
+
+        try {
+            retry.get(5, TimeUnit.SECONDS);
+            fail("Expected a SubmissionInProgressException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SubmissionInProgressException);
+        }
+
+        releaseFirst.complete(null);
+
+        assertEquals(Long.valueOf(1L), first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(1, submissions.get());
+    }
+
+    private void enable() {
+        ReflectionTestUtils.setField(classUnderTest, "enabled", true);
+        ReflectionTestUtils.setField(classUnderTest, "ttlSeconds", 900L);
+        ReflectionTestUtils.setField(classUnderTest, "maxSize", 100L);
+        ReflectionTestUtils.setField(classUnderTest, "waitSeconds", 30L);
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(classUnderTest, "userService", userService);
+        givenUser(AUTH_TOKEN, USER_ID);
+        givenUser(REFRESHED_AUTH_TOKEN, USER_ID);
+        givenUser(OTHER_AUTH_TOKEN, OTHER_USER_ID);
+        classUnderTest.init();
+    }
+
+    private void givenUser(String authToken, String userId) {
+        when(userService.retrieveUser("Bearer " + authToken))
+            .thenReturn(new User(authToken, UserDetails.builder().id(userId).build()));
+    }
+
+    private Supplier<CaseDetails> submission(Long caseId) {
+        return () -> {
+            submissions.incrementAndGet();
+            return CaseDetails.builder().id(caseId).build();
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_INSUFFICIENT_DETAILS;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_CRITERIA;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_JURISDICTION;
+
+public class AmendCaseRemovedPropsTest {
+
+    @Test
+    public void amendProfileHoldsEveryAmendProperty() {
+        assertThat(AmendCaseRemovedProps.getAmendRemovalProfile())
+            .containsExactlyInAnyOrder(AmendCaseRemovedProps.getPropertiesToRemove())
+            .isInstanceOf(ImmutableSet.class);
+    }
+
+    @Test
+    public void refusalProfileMatchesRejectionReasons() {
+        assertThat(AmendCaseRemovedProps.getRefusalRemovalProfile(Collections.emptyList()))
+            .isEqualTo(union(AmendCaseRemovedProps.getPropertiesToRemoveForRejection()));
+        assertThat(AmendCaseRemovedProps.getRefusalRemovalProfile(Collections.singletonList(REJECTION_NO_JURISDICTION)))
+            .isEqualTo(union(AmendCaseRemovedProps.getPropertiesToRemoveForRejection(),
+                AmendCaseRemovedProps.getPropertiesToRemoveForRejectionJurisdiction()));
+        assertThat(AmendCaseRemovedProps.getRefusalRemovalProfile(Collections.singletonList(REJECTION_INSUFFICIENT_DETAILS)))
+            .isEqualTo(union(AmendCaseRemovedProps.getPropertiesToRemoveForRejection(),
+                AmendCaseRemovedProps.getPropertiesToRemoveForRejectionAboutDivorce()));
+        assertThat(AmendCaseRemovedProps.getRefusalRemovalProfile(Arrays.asList(REJECTION_NO_CRITERIA, REJECTION_NO_JURISDICTION)))
+            .isEqualTo(union(AmendCaseRemovedProps.getPropertiesToRemoveForRejection(),
+                AmendCaseRemovedProps.getPropertiesToRemoveForRejectionJurisdiction(),
+                AmendCaseRemovedProps.getPropertiesToRemoveForRejectionAboutDivorce()));
+    }
+
+    @Test
+    public void sameRejectionReasonsShareOneProfile() {
+        List<String> reasons = Arrays.asList(REJECTION_NO_JURISDICTION, REJECTION_NO_CRITERIA);
+
+        assertThat(AmendCaseRemovedProps.getRefusalRemovalProfile(reasons))
+            .isSameAs(AmendCaseRemovedProps.getRefusalRemovalProfile(Arrays.asList(REJECTION_NO_CRITERIA, REJECTION_NO_JURISDICTION)));
+    }
+
+    private static Set<String> union(String[]... properties) {
+        Set<String> union = new HashSet<>();
+        Arrays.stream(properties).map(Arrays::asList).forEach(union::addAll);
+        return union;
+    }
+}
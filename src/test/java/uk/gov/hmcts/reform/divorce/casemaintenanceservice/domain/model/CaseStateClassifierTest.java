@@ -0,0 +1,58 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.PETITIONER_CASE_STATE_CLASSIFIER;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.PETITIONER_CASE_STATE_GROUPING;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.RESPONDENT_CASE_STATE_CLASSIFIER;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.RESPONDENT_CASE_STATE_GROUPING;
+
+public class CaseStateClassifierTest {
+
+    @Test
+    public void classifierMatchesFirstMatchingGroupingForEveryState() {
+        for (CaseState state : CaseState.values()) {
+            assertThat(PETITIONER_CASE_STATE_CLASSIFIER.classify(state))
+                .isEqualTo(findFirstGrouping(PETITIONER_CASE_STATE_GROUPING, state));
+            assertThat(RESPONDENT_CASE_STATE_CLASSIFIER.classify(state))
+                .isEqualTo(findFirstGrouping(RESPONDENT_CASE_STATE_GROUPING, state));
+        }
+    }
+
+    @Test
+    public void stateListedInSeveralGroupingsBelongsToTheFirst() {
+        assertThat(RESPONDENT_CASE_STATE_CLASSIFIER.classify(CaseState.AOS_STARTED)).isEqualTo(CaseStateGrouping.INCOMPLETE);
+        assertThat(PETITIONER_CASE_STATE_CLASSIFIER.classify(CaseState.AWAITING_DECREE_NISI)).isEqualTo(CaseStateGrouping.INCOMPLETE);
+    }
+
+    @Test
+    public void ccdStateIsMatchedIgnoringCase() {
+        assertThat(PETITIONER_CASE_STATE_CLASSIFIER.classify("SUBMITTED")).isEqualTo(CaseStateGrouping.COMPLETE);
+        assertThat(PETITIONER_CASE_STATE_CLASSIFIER.classify("awaitingpayment")).isEqualTo(CaseStateGrouping.INCOMPLETE);
+    }
+
+    @Test
+    public void unknownOrMissingStateIsUnknown() {
+        assertThat(PETITIONER_CASE_STATE_CLASSIFIER.classify("NotAState")).isEqualTo(CaseStateGrouping.UNKNOWN);
+        assertThat(PETITIONER_CASE_STATE_CLASSIFIER.classify((String) null)).isEqualTo(CaseStateGrouping.UNKNOWN);
+        assertThat(PETITIONER_CASE_STATE_CLASSIFIER.classify(CaseState.REJECTED)).isEqualTo(CaseStateGrouping.UNKNOWN);
+    }
+
+    @Test
+    public void knownGroupingsUsePrecompiledClassifiers() {
+        assertThat(CaseRetrievalStateMap.getClassifier(PETITIONER_CASE_STATE_GROUPING)).isSameAs(PETITIONER_CASE_STATE_CLASSIFIER);
+        assertThat(CaseRetrievalStateMap.getClassifier(RESPONDENT_CASE_STATE_GROUPING)).isSameAs(RESPONDENT_CASE_STATE_CLASSIFIER);
+    }
+
+    private static CaseStateGrouping findFirstGrouping(Map<CaseStateGrouping, List<CaseState>> grouping, CaseState state) {
+        return grouping.entrySet().stream()
+            .filter(entry -> entry.getValue().contains(state))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElse(CaseStateGrouping.UNKNOWN);
+    }
+}
@@ -9,6 +9,9 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.context.ApplicationEventPublisher;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -20,10 +23,15 @@ import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.T
 
 @RunWith(MockitoJUnitRunner.class)
 public class CaseSubmissionNotificationHandlerUTest {
+    private static final String BEARER_AUTH_TOKEN = "Bearer " + TEST_AUTH_TOKEN;
+    private static final String USER_ID = "1";
 
     @Mock
     private ApplicationEventPublisher applicationEventPublisher;
 
+    @Mock
+    private UserService userService;
+
     @InjectMocks
     private CaseSubmissionNotificationHandler classUnderTest;
 
@@ -44,11 +52,13 @@ public class CaseSubmissionNotificationHandlerUTest {
 
         final CaseDetails caseDetails = CaseDetails.builder().build();
         final Object source = new Object();
-        final CaseSubmittedEvent caseSubmittedEvent = new CaseSubmittedEvent(source, caseDetails, TEST_AUTH_TOKEN);
+        final CaseSubmittedEvent caseSubmittedEvent = new CaseSubmittedEvent(source, caseDetails, TEST_AUTH_TOKEN, USER_ID);
 
         when(joinPoint.proceed()).thenReturn(caseDetails);
         when(joinPoint.getThis()).thenReturn(source);
         when(joinPoint.getArgs()).thenReturn(new Object[]{TEST_AUTH_TOKEN});
+        when(userService.retrieveUser(BEARER_AUTH_TOKEN))
+            .thenReturn(new User(TEST_AUTH_TOKEN, UserDetails.builder().id(USER_ID).build()));
 
         Object actual = classUnderTest.notifyCaseSubmission(joinPoint);
 
@@ -67,6 +77,7 @@ public class CaseSubmissionNotificationHandlerUTest {
         @Override
         public boolean matches(CaseSubmittedEvent actual) {
             return actual.getAuthToken().equals(expected.getAuthToken())
+                && actual.getUserId().equals(expected.getUserId())
                 && actual.getCaseDetails() == expected.getCaseDetails();
         }
     }
@@ -0,0 +1,90 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.event.config;
+
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class EventExecutorDrainUTest {
+
+    @Test
+    public void givenQueuedDeletion_whenContextCloses_thenDeletionReachesClientBeforeItIsClosed() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", ImmutableMap.<String, Object>builder()
+            .put("draft.delete.async", "true")
+            .put("draft.delete.executor.core-pool-size", "1")
+            .put("draft.delete.executor.max-pool-size", "1")
+            .put("draft.delete.executor.queue-capacity", "10")
+            .put("draft.delete.executor.saturation-policy", "CALLER_RUNS")
+            .put("draft.delete.executor.await-termination-seconds", "10")
+            .build()));
+        context.registerBean(SimpleMeterRegistry.class);
+        context.register(AsynchronousSpringEventsConfig.class, DraftStoreClient.class, DraftDeletionListener.class);
+        context.refresh();
+
+        DraftStoreClient draftStoreClient = context.getBean(DraftStoreClient.class);
+        assertNotNull(context.getBean(SimpleMeterRegistry.class).find("executor.completed")
+            .tag("name", AsynchronousSpringEventsConfig.EVENT_EXECUTOR).functionCounter());
+
+        context.publishEvent(new DraftDeletionRequested(this));
+        context.publishEvent(new DraftDeletionRequested(this));
+        context.close();
+
+        assertEquals(2, draftStoreClient.deleted.get());
+        assertEquals(0, draftStoreClient.failed.get());
+    }
+
+    static class DraftDeletionRequested extends ApplicationEvent {
+        DraftDeletionRequested(Object source) {
+            super(source);
+        }
+    }
+
+    /**
+     * Stands in for a Feign client whose connection pool is closed when the context destroys it.
+     */
+    static class DraftStoreClient {
+        private final AtomicInteger deleted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile boolean closed;
+
+        void deleteDraft() {
+            if (closed) {
+                failed.incrementAndGet();
+            } else {
+                deleted.incrementAndGet();
+            }
+        }
+
+        @PreDestroy
+        void close() {
+            closed = true;
+        }
+    }
+
+    static class DraftDeletionListener implements ApplicationListener<DraftDeletionRequested> {
+        @Autowired
+        private DraftStoreClient draftStoreClient;
+
+        @Override
+        public void onApplicationEvent(DraftDeletionRequested event) {
+            try {
+                // Slow enough that the deletions are still queued when the context starts closing
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            draftStoreClient.deleteDraft();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.event.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TimedTaskDecoratorUTest {
+
+    private static final String METRIC_PREFIX = "test.executor";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TimedTaskDecorator classUnderTest = new TimedTaskDecorator(meterRegistry, METRIC_PREFIX);
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void whenTaskRuns_thenRecordQueuedAndExecutionTime() {
+        Runnable decorated = classUnderTest.decorate(() -> { });
+
+        decorated.run();
+        decorated.run();
+
+        assertEquals(2, meterRegistry.get(METRIC_PREFIX + ".task.queued").timer().count());
+        assertEquals(2, meterRegistry.get(METRIC_PREFIX + ".task.duration").timer().count());
+    }
+
+    @Test
+    public void givenTaskFails_thenStillRecordExecutionTime() {
+        Runnable decorated = classUnderTest.decorate(() -> {
+            throw new IllegalStateException();
+        });
+
+        try {
+            decorated.run();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+
+        assertEquals(1, meterRegistry.get(METRIC_PREFIX + ".task.duration").timer().count());
+    }
+
+    @Test
+    public void whenTaskRuns_thenUsePublisherMdcAndRestoreWorkerMdc() throws Exception {
+        MDC.put("requestId", "publisher");
+        AtomicReference<String> seenByTask = new AtomicReference<>();
+        Runnable decorated = classUnderTest.decorate(() -> seenByTask.set(MDC.get("requestId")));
+        MDC.clear();
+
+        AtomicReference<String> workerAfterTask = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            MDC.put("requestId", "worker");
+            decorated.run();
+            workerAfterTask.set(MDC.get("requestId"));
+        });
+        worker.start();
+        worker.join();
+
+        assertEquals("publisher", seenByTask.get());
+        assertEquals("worker", workerAfterTask.get());
+        assertNull(MDC.get("requestId"));
+    }
+}
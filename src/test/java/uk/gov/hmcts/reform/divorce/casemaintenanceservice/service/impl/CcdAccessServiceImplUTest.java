@@ -8,6 +8,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
@@ -114,6 +115,9 @@ public class CcdAccessServiceImplUTest {
     @Mock
     private CaseUserApi caseUserApi;
 
+    @Spy
+    private UserCaseCache userCaseCache = new UserCaseCache();
+
     @InjectMocks
     private CcdAccessServiceImpl classUnderTest;
 
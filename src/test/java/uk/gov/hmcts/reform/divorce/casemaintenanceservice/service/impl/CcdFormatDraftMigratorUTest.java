@@ -0,0 +1,112 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.model.Draft;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_DRAFT_DOCUMENT_TYPE_CCD_FORMAT;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CcdFormatDraftMigratorUTest {
+
+    private static final String METRIC = "cms.draft.ccd.format.migration.drafts";
+    private static final Map<String, Object> DIVORCE_FORMAT_DATA = Collections.singletonMap("petitionerFirstName", "John");
+
+    @Mock
+    private DraftServiceImpl draftService;
+
+    @InjectMocks
+    private CcdFormatDraftMigrator classUnderTest;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    public void givenMigrationDisabled_whenMigrate_thenOnlyCountRemainingDraft() {
+        configure(false, 1);
+
+        classUnderTest.migrate(TEST_AUTH_TOKEN, draft("1"), DIVORCE_FORMAT_DATA);
+
+        verifyNoInteractions(draftService);
+        assertEquals(1, meterRegistry.get("cms.draft.ccd.format.migration.remaining").gauge().value(), 0);
+    }
+
+    @Test
+    public void givenMigrationEnabled_whenMigrate_thenRewriteDraftInDivorceFormat() {
+        configure(true, 100);
+        final Draft draft = draft("1");
+
+        classUnderTest.migrate(TEST_AUTH_TOKEN, draft, DIVORCE_FORMAT_DATA);
+
+        verify(draftService).rewriteInDivorceFormat(TEST_AUTH_TOKEN, draft, DIVORCE_FORMAT_DATA);
+        assertEquals(1, meterRegistry.get(METRIC).tag("outcome", "migrated").counter().count(), 0);
+        assertEquals(0, meterRegistry.get("cms.draft.ccd.format.migration.remaining").gauge().value(), 0);
+    }
+
+    @Test
+    public void givenRateExceeded_whenMigrate_thenLeaveDraftForLaterRead() {
+        configure(true, 0.001);
+
+        classUnderTest.migrate(TEST_AUTH_TOKEN, draft("1"), DIVORCE_FORMAT_DATA);
+        classUnderTest.migrate(TEST_AUTH_TOKEN, draft("2"), DIVORCE_FORMAT_DATA);
+
+        assertEquals(1, meterRegistry.get(METRIC).tag("outcome", "migrated").counter().count(), 0);
+        assertEquals(1, meterRegistry.get(METRIC).tag("outcome", "rate_limited").counter().count(), 0);
+        assertEquals(1, meterRegistry.get("cms.draft.ccd.format.migration.remaining").gauge().value(), 0);
+    }
+
+    @Test
+    public void givenWriteBackFails_whenMigrate_thenDoNotThrow() {
+        configure(true, 100);
+        doThrow(new RuntimeException("draft store down")).when(draftService).rewriteInDivorceFormat(any(), any(), any());
+
+        classUnderTest.migrate(TEST_AUTH_TOKEN, draft("1"), DIVORCE_FORMAT_DATA);
+
+        assertEquals(1, meterRegistry.get(METRIC).tag("outcome", "failed").counter().count(), 0);
+    }
+
+    @Test
+    public void givenMoreDraftsThanRemainingMaxSize_whenMigrate_thenCountAtMostMaxSize() {
+        configure(false, 1, 1L);
+
+        classUnderTest.migrate(TEST_AUTH_TOKEN, draft("1"), DIVORCE_FORMAT_DATA);
+        classUnderTest.migrate(TEST_AUTH_TOKEN, draft("2"), DIVORCE_FORMAT_DATA);
+
+        assertEquals(1, meterRegistry.get("cms.draft.ccd.format.migration.remaining").gauge().value(), 0);
+    }
+
+    private void configure(boolean enabled, double permitsPerSecond) {
+        configure(enabled, permitsPerSecond, 100L);
+    }
+
+    private void configure(boolean enabled, double permitsPerSecond, long remainingMaxSize) {
+        ReflectionTestUtils.setField(classUnderTest, "enabled", enabled);
+        ReflectionTestUtils.setField(classUnderTest, "permitsPerSecond", permitsPerSecond);
+        ReflectionTestUtils.setField(classUnderTest, "remainingTtlSeconds", 86400L);
+        ReflectionTestUtils.setField(classUnderTest, "remainingMaxSize", remainingMaxSize);
+        classUnderTest.init();
+    }
+
+    private static Draft draft(String id) {
+        return new Draft(id, Collections.emptyMap(), TEST_DRAFT_DOCUMENT_TYPE_CCD_FORMAT);
+    }
+}
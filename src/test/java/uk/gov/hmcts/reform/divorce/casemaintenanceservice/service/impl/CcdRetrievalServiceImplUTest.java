@@ -1,35 +1,52 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
 import com.google.common.collect.ImmutableMap;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
 import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.CcdPassthroughClient;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseReadResult;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.domain.model.CitizenCaseState;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.DuplicateCaseException;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
 import uk.gov.hmcts.reform.idam.client.models.User;
 import uk.gov.hmcts.reform.idam.client.models.UserDetails;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTHORISATION;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_BEARER_AUTHORISATION;
@@ -57,6 +74,8 @@ public class CcdRetrievalServiceImplUTest {
         .build();
     private static final User USER = new User(TEST_BEARER_AUTHORISATION, USER_DETAILS);
     private static final Long CASE_ID_1 = 1L;
+    private static final Long CASE_ID_2 = 2L;
+    private static final Long CASE_ID_3 = 3L;
 
     @Mock(name = "uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi")
     private CoreCaseDataApi coreCaseDataApi;
@@ -67,6 +86,12 @@ public class CcdRetrievalServiceImplUTest {
     @Mock
     private AuthTokenGenerator authTokenGenerator;
 
+    @Mock
+    private CcdPassthroughClient ccdPassthroughClient;
+
+    @Spy
+    private UserCaseCache userCaseCache = new UserCaseCache();
+
     @InjectMocks
     private CcdRetrievalServiceImpl classUnderTest;
 
@@ -600,6 +625,182 @@ public class CcdRetrievalServiceImplUTest {
         assertEquals(expectedResult, result);
     }
 
+    @Test
+    public void givenSizeLimit_whenSearchCasePages_thenPageThroughCcdAfterEachPagesLastCaseUntilLimitReached() {
+        ReflectionTestUtils.setField(classUnderTest, "searchPageSize", 2);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        stubSearchPage("{\"query\":{},\"sort\":[{\"reference\":\"asc\"}],\"from\":0,\"size\":2}", 10, CASE_ID_1, CASE_ID_2);
+        stubSearchPage("{\"query\":{},\"sort\":[{\"reference\":\"asc\"}],\"search_after\":[2],\"size\":1}", 10, CASE_ID_3);
+
+        Iterator<List<CaseDetails>> pages = classUnderTest.searchCasePages(TEST_AUTHORISATION, "{\"query\":{},\"size\":3}");
+
+        assertEquals(2, pages.next().size());
+        assertEquals(CASE_ID_3, pages.next().get(0).getId());
+        assertFalse(pages.hasNext());
+    }
+
+    @Test
+    public void givenShortPage_whenSearchCasePages_thenStopPaging() {
+        ReflectionTestUtils.setField(classUnderTest, "searchPageSize", 2);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        stubSearchPage("{\"query\":{},\"sort\":[{\"reference\":\"asc\"}],\"from\":5,\"size\":2}", 100, CASE_ID_1);
+
+        Iterator<List<CaseDetails>> pages = classUnderTest.searchCasePages(TEST_AUTHORISATION, "{\"query\":{},\"from\":5}");
+
+        assertEquals(1, pages.next().size());
+        assertFalse(pages.hasNext());
+    }
+
+    @Test
+    public void givenTotalReached_whenSearchCasePages_thenStopPaging() {
+        ReflectionTestUtils.setField(classUnderTest, "searchPageSize", 2);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        stubSearchPage("{\"query\":{},\"sort\":[{\"reference\":\"asc\"}],\"from\":0,\"size\":2}", 2, CASE_ID_1, CASE_ID_2);
+
+        Iterator<List<CaseDetails>> pages = classUnderTest.searchCasePages(TEST_AUTHORISATION, "{\"query\":{}}");
+
+        assertEquals(2, pages.next().size());
+        assertFalse(pages.hasNext());
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void givenQueryIsNotJson_whenSearchCasePages_thenThrowInvalidRequestException() {
+        classUnderTest.searchCasePages(TEST_AUTHORISATION, "QueryToTest");
+    }
+
+    private void stubSearchPage(String pageQuery, int total, Long... caseIds) {
+        List<CaseDetails> cases = Arrays.stream(caseIds)
+            .map(caseId -> CaseDetails.builder().id(caseId).build())
+            .collect(Collectors.toList());
+
+        when(coreCaseDataApi.searchCases(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, TEST_CASE_TYPE, pageQuery))
+            .thenReturn(SearchResult.builder().total(total).cases(cases).build());
+    }
+
+    @Test
+    public void givenCaseworker_whenRetrieveRawCaseById_thenReturnCcdResponseUndecoded() {
+        String testCaseId = String.valueOf(CASE_ID_1);
+        Response ccdResponse = ccdResponse();
+
+        final User userDetails = new User(
+            TEST_AUTHORISATION,
+            UserDetails.builder().id(USER_ID).roles(Collections.singletonList(CASEWORKER_ROLE)).build()
+        );
+
+        when(userService.retrieveUser(TEST_BEARER_AUTHORISATION)).thenReturn(userDetails);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        when(ccdPassthroughClient
+            .readForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, USER_ID, TEST_JURISDICTION_ID, TEST_CASE_TYPE,
+                testCaseId)).thenReturn(ccdResponse);
+
+        assertSame(ccdResponse, classUnderTest.retrieveRawCaseById(TEST_AUTHORISATION, testCaseId));
+
+        verifyNoInteractions(coreCaseDataApi);
+    }
+
+    @Test
+    public void givenCitizen_whenRetrieveRawCaseById_thenReadAsCitizen() {
+        String testCaseId = String.valueOf(CASE_ID_1);
+        Response ccdResponse = ccdResponse();
+
+        final User userDetails = new User(
+            TEST_AUTHORISATION,
+            UserDetails.builder().id(USER_ID).roles(Arrays.asList(CASEWORKER_ROLE, CITIZEN_ROLE)).build()
+        );
+
+        when(userService.retrieveUser(TEST_BEARER_AUTHORISATION)).thenReturn(userDetails);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        when(ccdPassthroughClient
+            .readForCitizen(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, USER_ID, TEST_JURISDICTION_ID, TEST_CASE_TYPE,
+                testCaseId)).thenReturn(ccdResponse);
+
+        assertSame(ccdResponse, classUnderTest.retrieveRawCaseById(TEST_AUTHORISATION, testCaseId));
+    }
+
+    @Test
+    public void whenSearchRawCases_thenReturnCcdResponseUndecoded() {
+        String query = "QueryToTest";
+        Response ccdResponse = ccdResponse();
+
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        when(ccdPassthroughClient.searchCases(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, TEST_CASE_TYPE, query))
+            .thenReturn(ccdResponse);
+
+        assertSame(ccdResponse, classUnderTest.searchRawCase(TEST_AUTHORISATION, query));
+
+        verifyNoInteractions(coreCaseDataApi);
+    }
+
+    @Test
+    public void whenRetrieveCasesById_thenResolveUserOnceAndReportEachCase() {
+        final User userDetails = new User(
+            TEST_AUTHORISATION,
+            UserDetails.builder().id(USER_ID).roles(Collections.singletonList(CASEWORKER_ROLE)).build()
+        );
+        final CaseDetails caseDetails = CaseDetails.builder().id(CASE_ID_1).build();
+        final FeignException forbidden = FeignException.errorStatus("CoreCaseDataApi#readForCaseWorker",
+            Response.builder()
+                .status(403)
+                .request(Request.create(Request.HttpMethod.GET, "http://localhost:4452/cases/2",
+                    Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+                .headers(Collections.emptyMap())
+                .build());
+        enableBatchReads(10);
+
+        when(userService.retrieveUser(TEST_BEARER_AUTHORISATION)).thenReturn(userDetails);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        when(coreCaseDataApi.readForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, USER_ID, TEST_JURISDICTION_ID,
+            TEST_CASE_TYPE, "1")).thenReturn(caseDetails);
+        when(coreCaseDataApi.readForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, USER_ID, TEST_JURISDICTION_ID,
+            TEST_CASE_TYPE, "2")).thenThrow(forbidden);
+        when(coreCaseDataApi.readForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, USER_ID, TEST_JURISDICTION_ID,
+            TEST_CASE_TYPE, "3")).thenReturn(null);
+
+        Iterator<CaseReadResult> results = classUnderTest.retrieveCasesById(TEST_AUTHORISATION, Arrays.asList("1", "2", "3", "1"));
+
+        Map<String, CaseReadResult> resultsByCaseId = new HashMap<>();
+        results.forEachRemaining(result -> resultsByCaseId.put(result.getCaseId(), result));
+
+        assertEquals(3, resultsByCaseId.size());
+        assertEquals(200, resultsByCaseId.get("1").getStatus());
+        assertSame(caseDetails, resultsByCaseId.get("1").getCaseDetails());
+        assertEquals(403, resultsByCaseId.get("2").getStatus());
+        assertNull(resultsByCaseId.get("2").getCaseDetails());
+        assertEquals(404, resultsByCaseId.get("3").getStatus());
+
+        verify(userService, times(1)).retrieveUser(TEST_BEARER_AUTHORISATION);
+        verify(authTokenGenerator, times(1)).generate();
+        verify(coreCaseDataApi, times(1)).readForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, USER_ID,
+            TEST_JURISDICTION_ID, TEST_CASE_TYPE, "1");
+    }
+
+    @Test
+    public void givenTooManyCaseIds_whenRetrieveCasesById_thenThrowInvalidRequestException() {
+        enableBatchReads(1);
+
+        try {
+            classUnderTest.retrieveCasesById(TEST_AUTHORISATION, Arrays.asList("1", "2"));
+            fail("Expected an InvalidRequestException");
+        } catch (InvalidRequestException e) {
+            verifyNoInteractions(coreCaseDataApi, userService);
+        }
+    }
+
+    private void enableBatchReads(int maxItems) {
+        ReflectionTestUtils.setField(classUnderTest, "batchReadMaxItems", maxItems);
+        ReflectionTestUtils.setField(classUnderTest, "batchReadParallelism", 2);
+        ReflectionTestUtils.setField(classUnderTest, "upstreamLookupExecutor", (Executor) Runnable::run);
+    }
+
+    private static Response ccdResponse() {
+        return Response.builder()
+            .status(200)
+            .request(Request.create(Request.HttpMethod.GET, "http://localhost:4452/cases/1",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+            .headers(Collections.emptyMap())
+            .build();
+    }
+
     private CaseDetails createCaseDetails(Long id, String state) {
         return createCaseDetails(id, state, LocalDateTime.now());
     }
@@ -0,0 +1,285 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalMode;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTHORISATION;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_BEARER_AUTHORISATION;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_CASE_TYPE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_JURISDICTION_ID;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_SERVICE_TOKEN;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_USER_EMAIL;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.PETITIONER_CASE_STATE_GROUPING;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.RESPONDENT_CASE_STATE_GROUPING;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.CO_RESP_EMAIL_ADDRESS;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_CASE_REFERENCE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_PETITIONER_EMAIL;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.RESP_EMAIL_ADDRESS;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole.RESPONDENT;
+
+/**
+ * Runs the same case sets through both retrieval modes and checks they pick the same case, or fail the same way.
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CcdRetrievalServiceModeComparisonUTest {
+
+    private static final String USER_ID = "someUserId";
+    private static final String OTHER_EMAIL = "someone.else@test.com";
+    private static final User USER = new User(TEST_BEARER_AUTHORISATION, UserDetails.builder()
+        .id(USER_ID)
+        .email(TEST_USER_EMAIL)
+        .build());
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Comparator<CaseDetails> BY_CREATED_DATE_AND_REFERENCE =
+        Comparator.comparingLong(CcdRetrievalServiceModeComparisonUTest::epochMillis).thenComparing(CaseDetails::getId);
+
+    @Mock(name = "uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi")
+    private CoreCaseDataApi coreCaseDataApi;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private AuthTokenGenerator authTokenGenerator;
+
+    @Spy
+    private UserCaseCache userCaseCache = new UserCaseCache();
+
+    @InjectMocks
+    private CcdRetrievalServiceImpl classUnderTest;
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(classUnderTest, "jurisdictionId", TEST_JURISDICTION_ID);
+        ReflectionTestUtils.setField(classUnderTest, "caseType", TEST_CASE_TYPE);
+
+        when(userService.retrieveUser(TEST_BEARER_AUTHORISATION)).thenReturn(USER);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+    }
+
+    @Test
+    public void givenNoCases_thenBothModesReturnTheSame() {
+        assertBothModesAgree(ImmutableList::of);
+    }
+
+    @Test
+    public void givenSinglePetitionerCase_thenBothModesReturnTheSame() {
+        assertBothModesAgree(() -> ImmutableList.of(
+            petitionerCase(1L, CaseState.SUBMITTED, NOW)
+        ));
+    }
+
+    @Test
+    public void givenUserIsPetitionerAndRespondentOnDifferentCases_thenBothModesReturnTheSame() {
+        assertBothModesAgree(() -> ImmutableList.of(
+            petitionerCase(1L, CaseState.AWAITING_PAYMENT, NOW),
+            caseWithData(2L, CaseState.AOS_STARTED, NOW, ImmutableMap.of(
+                D8_PETITIONER_EMAIL, OTHER_EMAIL,
+                RESP_EMAIL_ADDRESS, TEST_USER_EMAIL)),
+            caseWithData(3L, CaseState.ISSUED, NOW, ImmutableMap.of(
+                D8_PETITIONER_EMAIL, OTHER_EMAIL,
+                CO_RESP_EMAIL_ADDRESS, TEST_USER_EMAIL.toUpperCase()))
+        ));
+    }
+
+    @Test
+    public void givenSeveralAmendCases_thenBothModesReturnTheLatest() {
+        assertBothModesAgree(() -> ImmutableList.of(
+            petitionerCase(1L, CaseState.AMEND_PETITION, NOW.minusDays(2)),
+            petitionerCase(2L, CaseState.AMEND_PETITION, NOW),
+            petitionerCase(3L, CaseState.REJECTED, NOW.minusDays(1))
+        ));
+    }
+
+    @Test
+    public void givenDuplicateIncompleteCases_thenBothModesFailTheSameWay() {
+        assertBothModesAgree(() -> ImmutableList.of(
+            petitionerCase(1L, CaseState.AWAITING_PAYMENT, NOW),
+            petitionerCase(2L, CaseState.AWAITING_HWF_DECISION, NOW)
+        ));
+    }
+
+    @Test
+    public void givenSeveralCompleteCases_thenBothModesReturnTheOldest() {
+        assertBothModesAgree(() -> ImmutableList.of(
+            petitionerCase(1L, CaseState.SUBMITTED, NOW.minusDays(1)),
+            petitionerCase(2L, CaseState.ISSUED, NOW)
+        ));
+    }
+
+    @Test
+    public void givenMoreCasesThanFitOnOnePage_thenBothModesReturnTheSame() {
+        assertBothModesAgree(() -> {
+            ImmutableList.Builder<CaseDetails> cases = ImmutableList.builder();
+            for (long id = 250; id > 1; id--) {
+                cases.add(petitionerCase(id, CaseState.AMEND_PETITION, NOW.minusDays(id)));
+            }
+            return cases.add(petitionerCase(1L, CaseState.SUBMITTED, NOW)).build();
+        });
+    }
+
+    @Test
+    public void givenCasesBelongingToOtherUsersOnly_thenBothModesReturnTheSame() {
+        assertBothModesAgree(() -> ImmutableList.of(
+            caseWithData(1L, CaseState.SUBMITTED, NOW, ImmutableMap.of(D8_PETITIONER_EMAIL, OTHER_EMAIL))
+        ));
+    }
+
+    private void assertBothModesAgree(Supplier<List<CaseDetails>> cases) {
+        stubSearchForCitizen(cases);
+        stubElasticSearch(cases);
+
+        for (DivCaseRole role : DivCaseRole.values()) {
+            assertEquals(
+                retrieve(CaseRetrievalMode.SEARCH_FOR_CITIZEN, role, true),
+                retrieve(CaseRetrievalMode.ELASTIC_SEARCH, role, true)
+            );
+            assertEquals(
+                retrieve(CaseRetrievalMode.SEARCH_FOR_CITIZEN, role, false),
+                retrieve(CaseRetrievalMode.ELASTIC_SEARCH, role, false)
+            );
+        }
+    }
+
+    private Object retrieve(CaseRetrievalMode mode, DivCaseRole role, boolean grouped) {
+        ReflectionTestUtils.setField(classUnderTest, "caseRetrievalMode", mode);
+
+        try {
+            if (grouped) {
+                return classUnderTest.retrieveCase(TEST_AUTHORISATION,
+                    role == RESPONDENT ? RESPONDENT_CASE_STATE_GROUPING : PETITIONER_CASE_STATE_GROUPING, role);
+            }
+            return classUnderTest.retrieveCase(TEST_AUTHORISATION, role);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private void stubSearchForCitizen(Supplier<List<CaseDetails>> cases) {
+        when(coreCaseDataApi.searchForCitizen(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, USER_ID, TEST_JURISDICTION_ID,
+            TEST_CASE_TYPE, Collections.emptyMap()))
+            .thenAnswer(invocation -> cases.get());
+    }
+
+    /**
+     * Mimics CCD: matches on the queried e-mail fields, only returns the requested source fields and pages with from,
+     * size and search_after. Without a sort the hits come back newest case first, standing in for score order.
+     */
+    private void stubElasticSearch(Supplier<List<CaseDetails>> cases) {
+        when(coreCaseDataApi.searchCases(anyString(), anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            JsonNode query = OBJECT_MAPPER.readTree((String) invocation.getArgument(3));
+            List<String> sourceFields = OBJECT_MAPPER.convertValue(query.get("_source"),
+                OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, String.class));
+
+            List<CaseDetails> hits = cases.get().stream()
+                .filter(caseDetails -> matches(caseDetails, query.get("query").get("bool").get("should")))
+                .sorted(query.has("sort") ? BY_CREATED_DATE_AND_REFERENCE : Comparator.comparing(CaseDetails::getId).reversed())
+                .map(caseDetails -> slim(caseDetails, sourceFields))
+                .collect(Collectors.toList());
+
+            List<CaseDetails> remaining = hits;
+            if (query.has("search_after")) {
+                JsonNode after = query.get("search_after");
+                remaining = hits.stream()
+                    .filter(caseDetails -> epochMillis(caseDetails) > after.get(0).asLong()
+                        || epochMillis(caseDetails) == after.get(0).asLong() && caseDetails.getId() > after.get(1).asLong())
+                    .collect(Collectors.toList());
+            }
+            int from = Math.min(query.path("from").asInt(0), remaining.size());
+            int size = query.path("size").asInt(10);
+
+            return SearchResult.builder()
+                .total(hits.size())
+                .cases(remaining.subList(from, Math.min(from + size, remaining.size())))
+                .build();
+        });
+
+        when(coreCaseDataApi.readForCitizen(anyString(), anyString(), anyString(), anyString(), anyString(), anyString()))
+            .thenAnswer(invocation -> cases.get().stream()
+                .filter(caseDetails -> String.valueOf(caseDetails.getId()).equals(invocation.getArgument(5)))
+                .findFirst()
+                .orElse(null));
+    }
+
+    private static long epochMillis(CaseDetails caseDetails) {
+        return caseDetails.getCreatedDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static boolean matches(CaseDetails caseDetails, JsonNode shouldClauses) {
+        for (JsonNode clause : shouldClauses) {
+            Map.Entry<String, JsonNode> match = clause.get("match_phrase").fields().next();
+            Object value = caseDetails.getData().get(match.getKey().substring("data.".length()));
+
+            if (value != null && match.getValue().asText().equalsIgnoreCase(value.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CaseDetails slim(CaseDetails caseDetails, List<String> sourceFields) {
+        Map<String, Object> data = new HashMap<>();
+        sourceFields.stream()
+            .filter(field -> field.startsWith("data."))
+            .map(field -> field.substring("data.".length()))
+            .filter(field -> caseDetails.getData().containsKey(field))
+            .forEach(field -> data.put(field, caseDetails.getData().get(field)));
+
+        return CaseDetails.builder()
+            .id(caseDetails.getId())
+            .state(caseDetails.getState())
+            .createdDate(caseDetails.getCreatedDate())
+            .data(data)
+            .build();
+    }
+
+    private static CaseDetails petitionerCase(Long id, CaseState state, LocalDateTime createdDate) {
+        return caseWithData(id, state, createdDate, ImmutableMap.of(D8_PETITIONER_EMAIL, TEST_USER_EMAIL));
+    }
+
+    private static CaseDetails caseWithData(Long id, CaseState state, LocalDateTime createdDate, Map<String, Object> data) {
+        Map<String, Object> caseData = new HashMap<>(data);
+        caseData.put(D8_CASE_REFERENCE, "LV17D8" + id);
+
+        return CaseDetails.builder()
+            .id(id)
+            .state(state.getValue())
+            .createdDate(createdDate)
+            .data(caseData)
+            .build();
+    }
+}
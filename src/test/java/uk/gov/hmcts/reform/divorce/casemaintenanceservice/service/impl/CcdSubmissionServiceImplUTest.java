@@ -6,6 +6,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
@@ -64,6 +65,9 @@ public class CcdSubmissionServiceImplUTest {
     @Mock
     private AuthTokenGenerator authTokenGenerator;
 
+    @Spy
+    private UserCaseCache userCaseCache = new UserCaseCache();
+
     @InjectMocks
     private CcdSubmissionServiceImpl classUnderTest;
 
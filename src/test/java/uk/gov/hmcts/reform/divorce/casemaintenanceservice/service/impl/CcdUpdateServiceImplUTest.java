@@ -1,10 +1,14 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
@@ -13,16 +17,28 @@ import uk.gov.hmcts.reform.ccd.client.model.CaseDataContent;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.Event;
 import uk.gov.hmcts.reform.ccd.client.model.StartEventResponse;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdate;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseEventUpdateResult;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
 import uk.gov.hmcts.reform.idam.client.models.User;
 import uk.gov.hmcts.reform.idam.client.models.UserDetails;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTHORISATION;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_BEARER_AUTHORISATION;
@@ -54,6 +70,9 @@ public class CcdUpdateServiceImplUTest {
     @Mock
     private AuthTokenGenerator authTokenGenerator;
 
+    @Spy
+    private UserCaseCache userCaseCache = new UserCaseCache();
+
     @InjectMocks
     private CcdUpdateServiceImpl classUnderTest;
 
@@ -237,4 +256,74 @@ public class CcdUpdateServiceImplUTest {
         verify(coreCaseDataApi).submitEventForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, userId, TEST_JURISDICTION_ID,
             BULK_CASE_TYPE, caseId,true, caseDataContent);
     }
+
+    @Test
+    public void whenUpdateAll_thenResolveUserOnceAndReportEachOutcomeInOrder() {
+        final String userId = "someUserId";
+        final User userDetails = new User(
+            "auth",
+            UserDetails.builder().id(userId).roles(Collections.singletonList(CASEWORKER_ROLE)).build()
+        );
+        final StartEventResponse startEventResponse = StartEventResponse.builder()
+            .eventId(CASE_EVENT_ID)
+            .token(TEST_TOKEN)
+            .build();
+        final FeignException notFound = FeignException.errorStatus("CoreCaseDataApi#startEventForCaseWorker",
+            Response.builder()
+                .status(404)
+                .request(Request.create(Request.HttpMethod.GET, "http://localhost:4452/cases/missingCase",
+                    Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+                .headers(Collections.emptyMap())
+                .build());
+        enableBatchUpdates(10);
+
+        when(userService.retrieveUser(TEST_BEARER_AUTHORISATION)).thenReturn(userDetails);
+        when(authTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+        when(coreCaseDataApi.startEventForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, userId, TEST_JURISDICTION_ID,
+            TEST_CASE_TYPE, "missingCase", CASE_EVENT_ID)).thenThrow(notFound);
+        when(coreCaseDataApi.startEventForCaseWorker(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, userId, TEST_JURISDICTION_ID,
+            TEST_CASE_TYPE, "caseId", CASE_EVENT_ID)).thenReturn(startEventResponse);
+        when(coreCaseDataApi.submitEventForCaseWorker(eq(TEST_BEARER_AUTHORISATION), eq(TEST_SERVICE_TOKEN), eq(userId),
+            eq(TEST_JURISDICTION_ID), eq(TEST_CASE_TYPE), eq("caseId"), eq(true), any(CaseDataContent.class)))
+            .thenReturn(CaseDetails.builder().build());
+
+        List<CaseEventUpdateResult> results = classUnderTest.updateAll(Arrays.asList(
+            new CaseEventUpdate("missingCase", CASE_EVENT_ID, new Object()),
+            new CaseEventUpdate("caseId", CASE_EVENT_ID, new Object())
+        ), TEST_AUTHORISATION);
+
+        assertEquals(2, results.size());
+        assertEquals("missingCase", results.get(0).getCaseId());
+        assertFalse(results.get(0).isSuccess());
+        assertEquals(404, results.get(0).getStatus());
+        assertEquals("caseId", results.get(1).getCaseId());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(200, results.get(1).getStatus());
+
+        verify(userService, times(1)).retrieveUser(TEST_BEARER_AUTHORISATION);
+        verify(authTokenGenerator, times(1)).generate();
+    }
+
+    @Test
+    public void givenTooManyUpdates_whenUpdateAll_thenThrowInvalidRequestException() {
+        enableBatchUpdates(1);
+
+        try {
+            classUnderTest.updateAll(Arrays.asList(
+                new CaseEventUpdate("caseId1", CASE_EVENT_ID, new Object()),
+                new CaseEventUpdate("caseId2", CASE_EVENT_ID, new Object())
+            ), TEST_AUTHORISATION);
+            fail("Expected an InvalidRequestException");
+        } catch (InvalidRequestException e) {
+            verifyNoInteractions(coreCaseDataApi, userService);
+        }
+    }
+
+    private void enableBatchUpdates(int maxItems) {
+        ReflectionTestUtils.setField(classUnderTest, "batchMaxItems", maxItems);
+        ReflectionTestUtils.setField(classUnderTest, "batchParallelism", 2);
+        ReflectionTestUtils.setField(classUnderTest, "batchPermitsPerSecond", 1000.0);
+        ReflectionTestUtils.setField(classUnderTest, "upstreamLookupExecutor", (Executor) Runnable::run);
+        classUnderTest.init();
+    }
 }
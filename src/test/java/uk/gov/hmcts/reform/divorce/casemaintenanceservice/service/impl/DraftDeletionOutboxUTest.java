@@ -0,0 +1,240 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DraftDeletionOutboxUTest {
+
+    private static final String USER_ID = "1";
+    private static final String OTHER_AUTH_TOKEN = "other.auth.token";
+    private static final String OTHER_USER_ID = "2";
+    private static final String BACKLOG_METRIC = "cms.draft.deletion.outbox.backlog";
+    private static final String TOKEN_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_TOKEN_KEY = Base64.getEncoder().encodeToString(new byte[16]);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private DraftServiceImpl draftService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<DraftDeletionOutbox> outboxes = new ArrayList<>();
+
+    private File outboxDirectory;
+    private String tokenKey = TOKEN_KEY;
+
+    @Before
+    public void setUp() {
+        outboxDirectory = new File(temporaryFolder.getRoot(), "outbox");
+    }
+
+    @After
+    public void tearDown() {
+        outboxes.forEach(DraftDeletionOutbox::shutdown);
+    }
+
+    @Test
+    public void givenOutboxDisabled_whenDeleteDrafts_thenDeleteDirectly() throws Exception {
+        DraftDeletionOutbox outbox = newOutbox(false, 3);
+
+        outbox.deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+
+        verify(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        assertEquals(0, outbox.getBacklogSize());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void givenOutboxEnabledWithoutDirectory_whenInit_thenFailStartup() throws Exception {
+        outboxDirectory = null;
+
+        newOutbox(true, 3);
+    }
+
+    @Test
+    public void givenOutboxDisabledWithoutDirectory_whenInit_thenStart() throws Exception {
+        outboxDirectory = null;
+
+        newOutbox(false, 3).deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+
+        verify(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void givenOutboxEnabledWithoutTokenKey_whenInit_thenFailStartup() throws Exception {
+        tokenKey = "";
+
+        newOutbox(true, 3);
+    }
+
+    @Test
+    public void givenDraftStoreDown_whenDeleteDrafts_thenJournalTheTokenEncrypted() throws Exception {
+        DraftDeletionOutbox outbox = newOutbox(true, 3);
+        doThrow(new RuntimeException("draft store down")).when(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+
+        outbox.deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+
+        File[] entries = outboxDirectory.listFiles((dir, name) -> name.endsWith(".json"));
+        String journalled = new String(Files.readAllBytes(entries[0].toPath()), StandardCharsets.UTF_8);
+        assertFalse(journalled.contains(TEST_AUTH_TOKEN));
+    }
+
+    @Test
+    public void givenRestartWithAnotherTokenKey_whenRetry_thenDiscardWithoutCallingDraftStore() throws Exception {
+        DraftDeletionOutbox beforeRestart = newOutbox(true, 3);
+        doThrow(new RuntimeException("draft store down")).when(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+
+        beforeRestart.deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+        beforeRestart.shutdown();
+
+        tokenKey = OTHER_TOKEN_KEY;
+        DraftDeletionOutbox afterRestart = newOutbox(true, 3);
+        afterRestart.retryDue();
+
+        verify(draftService, times(1)).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        assertEquals(0, afterRestart.getBacklogSize());
+        assertEquals(0, journalledEntries());
+    }
+
+    @Test
+    public void givenDraftStoreAvailable_whenDeleteDrafts_thenNothingLeftInOutbox() throws Exception {
+        DraftDeletionOutbox outbox = newOutbox(true, 3);
+
+        outbox.deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+
+        verify(draftService).forgetDraft(USER_ID);
+        verify(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        assertEquals(0, outbox.getBacklogSize());
+        assertEquals(0, journalledEntries());
+    }
+
+    @Test
+    public void givenDraftStoreDown_whenDeleteDrafts_thenKeepDeletionUntilItSucceeds() throws Exception {
+        DraftDeletionOutbox outbox = newOutbox(true, 3);
+        doThrow(new RuntimeException("draft store down")).when(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+
+        outbox.deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+
+        assertEquals(1, outbox.getBacklogSize());
+        assertEquals(1, journalledEntries());
+        assertEquals(1, meterRegistry.get(BACKLOG_METRIC).gauge().value(), 0);
+
+        doNothing().when(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        outbox.retryDue();
+
+        verify(draftService, times(2)).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        assertEquals(0, outbox.getBacklogSize());
+        assertEquals(0, journalledEntries());
+    }
+
+    @Test
+    public void givenRestartMidBacklog_whenStarted_thenResumePendingDeletions() throws Exception {
+        DraftDeletionOutbox beforeRestart = newOutbox(true, 3);
+        doThrow(new RuntimeException("draft store down")).when(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        doThrow(new RuntimeException("draft store down")).when(draftService).deleteDraft(OTHER_AUTH_TOKEN, OTHER_USER_ID);
+
+        beforeRestart.deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+        beforeRestart.deleteDrafts(OTHER_AUTH_TOKEN, OTHER_USER_ID);
+        beforeRestart.shutdown();
+        // A write that was interrupted before being renamed into place is ignored
+        Files.write(new File(outboxDirectory, "interrupted.tmp").toPath(), "{".getBytes(StandardCharsets.UTF_8));
+
+        doNothing().when(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        DraftDeletionOutbox afterRestart = newOutbox(true, 3);
+
+        assertEquals(2, afterRestart.getBacklogSize());
+
+        afterRestart.retryDue();
+
+        verify(draftService, times(2)).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        verify(draftService, times(2)).deleteDraft(OTHER_AUTH_TOKEN, OTHER_USER_ID);
+        assertEquals(1, afterRestart.getBacklogSize());
+        assertEquals(1, journalledEntries());
+        assertEquals(0, outboxDirectory.list((dir, name) -> name.endsWith(".tmp")).length);
+    }
+
+    @Test
+    public void givenAttemptsExhausted_whenRetry_thenDiscardDeletion() throws Exception {
+        DraftDeletionOutbox outbox = newOutbox(true, 2);
+        doThrow(new RuntimeException("draft store down")).when(draftService).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+
+        outbox.deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
+        outbox.retryDue();
+        outbox.retryDue();
+
+        verify(draftService, times(2)).deleteDraft(TEST_AUTH_TOKEN, USER_ID);
+        assertEquals(0, outbox.getBacklogSize());
+        assertEquals(0, journalledEntries());
+    }
+
+    @Test
+    public void givenExpiredToken_whenDeleteDrafts_thenDiscardWithoutCallingDraftStore() throws Exception {
+        DraftDeletionOutbox outbox = newOutbox(true, 3);
+        String expiredToken = jwtExpiringAt(Instant.now().minusSeconds(60));
+
+        outbox.deleteDrafts(expiredToken, USER_ID);
+
+        verify(draftService, never()).deleteDraft(expiredToken, USER_ID);
+        assertEquals(0, outbox.getBacklogSize());
+        assertEquals(0, journalledEntries());
+    }
+
+    private DraftDeletionOutbox newOutbox(boolean enabled, int maxAttempts) throws Exception {
+        DraftDeletionOutbox outbox = new DraftDeletionOutbox();
+
+        ReflectionTestUtils.setField(outbox, "enabled", enabled);
+        ReflectionTestUtils.setField(outbox, "directory", outboxDirectory == null ? "" : outboxDirectory.getAbsolutePath());
+        ReflectionTestUtils.setField(outbox, "tokenEncryptionKey", tokenKey);
+        ReflectionTestUtils.setField(outbox, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(outbox, "initialBackoffSeconds", 0L);
+        ReflectionTestUtils.setField(outbox, "maxBackoffSeconds", 0L);
+        ReflectionTestUtils.setField(outbox, "pollIntervalSeconds", 3600L);
+        ReflectionTestUtils.setField(outbox, "draftService", draftService);
+        ReflectionTestUtils.setField(outbox, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(outbox, "meterRegistry", meterRegistry);
+
+        outbox.init();
+        outboxes.add(outbox);
+
+        return outbox;
+    }
+
+    private int journalledEntries() {
+        return outboxDirectory.list((dir, name) -> name.endsWith(".json")).length;
+    }
+
+    private static String jwtExpiringAt(Instant expiry) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+        return "Bearer " + encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8))
+            + "." + encoder.encodeToString(("{\"exp\":" + expiry.getEpochSecond() + "}").getBytes(StandardCharsets.UTF_8))
+            + ".signature";
+    }
+}
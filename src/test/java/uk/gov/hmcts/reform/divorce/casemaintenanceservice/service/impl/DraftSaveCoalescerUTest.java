@@ -0,0 +1,187 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTHORISATION;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_BEARER_AUTHORISATION;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DraftSaveCoalescerUTest {
+
+    private static final boolean DIVORCE_FORMAT = true;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String USER_ID = "1";
+    private static final Map<String, Object> FIRST_SAVE = ImmutableMap.of("field", "first");
+    private static final Map<String, Object> LAST_SAVE = ImmutableMap.of("field", "last");
+
+    @Mock
+    private DraftServiceImpl draftService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private DraftSaveCoalescer classUnderTest;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        classUnderTest.shutdown();
+    }
+
+    @Test
+    public void givenCoalescingDisabled_whenSaveDraft_thenWriteImmediately() {
+        configure(false, 60_000);
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+
+        verify(draftService).saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+    }
+
+    @Test
+    public void givenSavesWithinWindow_whenFlush_thenWriteLastSaveOnce() {
+        configure(true, 60_000);
+        mockUser();
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+
+        verify(draftService, never()).saveDraft(anyString(), any(), anyBoolean());
+
+        classUnderTest.flush(TEST_AUTHORISATION);
+        classUnderTest.flush(TEST_AUTHORISATION);
+
+        verify(draftService).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+        verify(draftService, never()).saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+        assertEquals(1, meterRegistry.get("cms.draft.save.coalescer.absorbed").counter().count(), 0);
+        assertEquals(1, meterRegistry.get("cms.draft.save.coalescer.written").counter().count(), 0);
+    }
+
+    @Test
+    public void givenSavesWithinWindow_whenWindowCloses_thenWriteLastSave() {
+        configure(true, 50);
+        mockUser();
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+
+        verify(draftService, timeout(5_000)).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+        verify(draftService, never()).saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+    }
+
+    @Test
+    public void givenPendingSave_whenDiscard_thenNothingIsWritten() {
+        configure(true, 60_000);
+        mockUser();
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+        classUnderTest.discard(TEST_AUTHORISATION);
+        classUnderTest.flush(TEST_AUTHORISATION);
+
+        verify(draftService, never()).saveDraft(anyString(), any(), anyBoolean());
+        verify(draftService).forgetDraft(USER_ID);
+    }
+
+    @Test
+    public void givenDeferredWriteFails_whenWindowClosesAgain_thenWriteIsRetried() {
+        configure(true, 50);
+        mockUser();
+        doThrow(new RuntimeException("draft store down"))
+            .doNothing()
+            .when(draftService).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+
+        verify(draftService, timeout(5_000).times(2)).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+        assertEquals(1, meterRegistry.get("cms.draft.save.coalescer.failed").counter().count(), 0);
+        assertEquals(1, meterRegistry.get("cms.draft.save.coalescer.written").counter().count(), 0);
+    }
+
+    @Test
+    public void givenFailedWriteReplacedByNewerSave_whenFlush_thenOnlyNewerSaveIsWritten() {
+        configure(true, 60_000);
+        mockUser();
+        doThrow(new RuntimeException("draft store down"))
+            .when(draftService).saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+        doNothing().when(draftService).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+        try {
+            classUnderTest.flush(TEST_AUTHORISATION);
+        } catch (RuntimeException e) {
+            // The reader sees the failure, the save is kept
+        }
+        classUnderTest.saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+        classUnderTest.flush(TEST_AUTHORISATION);
+
+        verify(draftService).saveDraft(TEST_AUTHORISATION, FIRST_SAVE, DIVORCE_FORMAT);
+        verify(draftService).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+    }
+
+    @Test
+    public void givenDeferredWriteKeepsFailing_whenAttemptsRunOut_thenSaveIsDropped() {
+        configure(true, 20);
+        mockUser();
+        doThrow(new RuntimeException("draft store down"))
+            .when(draftService).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+
+        verify(draftService, timeout(5_000).times(MAX_ATTEMPTS)).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+        verify(draftService, after(200).times(MAX_ATTEMPTS)).saveDraft(TEST_AUTHORISATION, LAST_SAVE, DIVORCE_FORMAT);
+        assertEquals(1, meterRegistry.get("cms.draft.save.coalescer.dropped").counter().count(), 0);
+    }
+
+    @Test
+    public void givenNoPendingSaves_whenFlush_thenUserIsNotLookedUp() {
+        configure(true, 60_000);
+
+        classUnderTest.flush(TEST_AUTHORISATION);
+
+        verify(userService, never()).retrieveUser(anyString());
+    }
+
+    private void configure(boolean enabled, long windowMillis) {
+        ReflectionTestUtils.setField(classUnderTest, "enabled", enabled);
+        ReflectionTestUtils.setField(classUnderTest, "windowMillis", windowMillis);
+        ReflectionTestUtils.setField(classUnderTest, "maxAttempts", MAX_ATTEMPTS);
+        classUnderTest.init();
+    }
+
+    private void mockUser() {
+        when(userService.retrieveUser(TEST_BEARER_AUTHORISATION))
+            .thenReturn(new User(TEST_BEARER_AUTHORISATION, UserDetails.builder().id(USER_ID).build()));
+    }
+}
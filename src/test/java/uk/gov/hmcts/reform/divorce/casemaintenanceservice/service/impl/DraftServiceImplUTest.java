@@ -1,10 +1,18 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.DraftStoreClient;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.draftstore.factory.DraftModelFactory;
@@ -17,6 +25,8 @@ import uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.UserService;
 import uk.gov.hmcts.reform.idam.client.models.User;
 import uk.gov.hmcts.reform.idam.client.models.UserDetails;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
@@ -24,8 +34,13 @@ import java.util.Map;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTHORISATION;
@@ -39,6 +54,7 @@ public class DraftServiceImplUTest {
     private static final String USER_ID = "1";
     private static final String ENCRYPTED_USER_ID = "encryptUserId1";
     private static final boolean DIVORCE_FORMAT = false;
+    private static final String DRAFT_ID = "1";
 
     @Mock
     private AuthTokenGenerator serviceTokenGenerator;
@@ -86,8 +102,8 @@ public class DraftServiceImplUTest {
         final CreateDraft createDraft = new CreateDraft(data, null, 2);
 
         when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
-        doNothing().when(draftStoreClient)
-            .createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        when(draftStoreClient.createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(ResponseEntity.created(URI.create("/drafts/" + DRAFT_ID)).build());
 
         classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
 
@@ -129,8 +145,8 @@ public class DraftServiceImplUTest {
         when(serviceTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
         when(encryptionKeyFactory.createEncryptionKey(USER_ID)).thenReturn(ENCRYPTED_USER_ID);
         when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
-        doNothing().when(draftStoreClient)
-            .createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        when(draftStoreClient.createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(ResponseEntity.created(URI.create("/drafts/" + DRAFT_ID)).build());
 
         classUnderTest.createDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
 
@@ -237,10 +253,241 @@ public class DraftServiceImplUTest {
         verify(draftStoreClient).getAllDrafts(after, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
     }
 
-    private void mockGetDraftsAndReturn(String after, DraftList draftList) {
+    @Test
+    public void givenDraftIdIndexed_whenSaveDraft_thenUpdateWithoutListingDrafts() {
+        enableDraftIdIndex();
+        mockAuthentication();
+
+        final Map<String, Object> data = Collections.emptyMap();
+        final CreateDraft createDraft = new CreateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT, 2);
+        final UpdateDraft updateDraft = new UpdateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT);
+
+        when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
+        when(modelFactory.updateDraft(data, DIVORCE_FORMAT)).thenReturn(updateDraft);
+        when(draftStoreClient.createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(ResponseEntity.created(URI.create("http://draft-store/drafts/" + DRAFT_ID)).build());
+
+        classUnderTest.createDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+
+        verify(draftStoreClient, times(2))
+            .updateSingleDraft(DRAFT_ID, updateDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        verify(draftStoreClient, never()).getAllDrafts(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void givenIndexedDraftNoLongerExists_whenSaveDraft_thenLookUpDraftAgain() {
+        enableDraftIdIndex();
+        mockAuthentication();
+
+        final Draft staleDraft = createDraft(DRAFT_ID);
+        final Draft currentDraft = createDraft("2");
+        final Map<String, Object> data = Collections.emptyMap();
+        final UpdateDraft updateDraft = new UpdateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT);
+
+        when(draftStoreClient.getAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(new DraftList(Collections.singletonList(staleDraft), new DraftList.PagingCursors(null)))
+            .thenReturn(new DraftList(Collections.singletonList(currentDraft), new DraftList.PagingCursors(null)));
+        when(modelFactory.isDivorceDraft(staleDraft)).thenReturn(true);
+        when(modelFactory.isDivorceDraft(currentDraft)).thenReturn(true);
+        when(modelFactory.updateDraft(data, DIVORCE_FORMAT)).thenReturn(updateDraft);
+        doThrow(notFound()).when(draftStoreClient)
+            .updateSingleDraft(DRAFT_ID, updateDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+
+        assertEquals(staleDraft, classUnderTest.getDraft(TEST_AUTHORISATION));
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+
+        verify(draftStoreClient)
+            .updateSingleDraft("2", updateDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        verify(draftStoreClient, times(2)).getAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+    }
+
+    @Test
+    public void givenDraftIdIndexed_whenDeleteDraft_thenNextSaveLooksUpDrafts() {
+        enableDraftIdIndex();
+        mockGetDraftsAndReturn(null, null);
+
+        final Map<String, Object> data = Collections.emptyMap();
+        final CreateDraft createDraft = new CreateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT, 2);
+
+        when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
+        when(draftStoreClient.createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(ResponseEntity.created(URI.create("/drafts/" + DRAFT_ID)).build());
+
+        classUnderTest.createDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+        classUnderTest.deleteDraft(TEST_AUTHORISATION);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+
+        verify(draftStoreClient).getAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        verify(draftStoreClient, times(2))
+            .createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+    }
+
+    @Test
+    public void givenUserIdAlreadyResolved_whenDeleteDraft_thenDoNotLookUpUser() {
+        enableDraftIdIndex();
+        when(serviceTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
+
+        classUnderTest.deleteDraft(TEST_AUTHORISATION, USER_ID);
+
+        verify(draftStoreClient).deleteAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN);
+        verify(userService, never()).retrieveUser(anyString());
+    }
+
+    @Test
+    public void givenSameDocumentInDifferentKeyOrder_whenSaveDraftTwice_thenSkipSecondWrite() {
+        final SimpleMeterRegistry meterRegistry = enableSkipUnchangedWrites();
+        final Draft draft = createDraft(DRAFT_ID);
+        final Map<String, Object> firstSave = ImmutableMap.of("a", 1, "b", ImmutableMap.of("c", 2, "d", 3));
+        final Map<String, Object> secondSave = ImmutableMap.of("b", ImmutableMap.of("d", 3, "c", 2), "a", 1);
+        final UpdateDraft updateDraft = new UpdateDraft(firstSave, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT);
+
+        mockGetDraftsAndReturn(null, new DraftList(Collections.singletonList(draft), new DraftList.PagingCursors(null)));
+        when(modelFactory.isDivorceDraft(draft)).thenReturn(true);
+        when(modelFactory.updateDraft(firstSave, DIVORCE_FORMAT)).thenReturn(updateDraft);
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, firstSave, DIVORCE_FORMAT);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, secondSave, DIVORCE_FORMAT);
+
+        verify(draftStoreClient)
+            .updateSingleDraft(DRAFT_ID, updateDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        assertEquals(1, meterRegistry.get("draft.store.draft.writes").tag("outcome", "written").counter().count(), 0);
+        assertEquals(1, meterRegistry.get("draft.store.draft.writes").tag("outcome", "skipped").counter().count(), 0);
+    }
+
+    @Test
+    public void givenDraftsDeletedSinceLastWrite_whenSaveSameDocument_thenWriteAgain() {
+        enableSkipUnchangedWrites();
+        mockGetDraftsAndReturn(null, null);
+
+        final Map<String, Object> data = ImmutableMap.of("a", 1);
+        final CreateDraft createDraft = new CreateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT, 2);
+
+        when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+        classUnderTest.deleteDraft(TEST_AUTHORISATION);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+
+        verify(draftStoreClient, times(2))
+            .createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+    }
+
+    @Test
+    public void givenDraftDeletedElsewhereSinceLastWrite_whenSaveSameDocument_thenCreateIt() {
+        enableSkipUnchangedWrites();
+        mockAuthentication();
+
+        final Draft draft = createDraft(DRAFT_ID);
+        final Map<String, Object> data = ImmutableMap.of("a", 1);
+        final CreateDraft createDraft = new CreateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT, 2);
+        final UpdateDraft updateDraft = new UpdateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT);
+
+        when(draftStoreClient.getAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(new DraftList(Collections.singletonList(draft), new DraftList.PagingCursors(null)))
+            .thenReturn(new DraftList(Collections.emptyList(), new DraftList.PagingCursors(null)));
+        when(modelFactory.isDivorceDraft(draft)).thenReturn(true);
+        when(modelFactory.updateDraft(data, DIVORCE_FORMAT)).thenReturn(updateDraft);
+        when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
+
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+
+        verify(draftStoreClient)
+            .updateSingleDraft(DRAFT_ID, updateDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        verify(draftStoreClient)
+            .createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+    }
+
+    @Test
+    public void givenDraftIdIndexed_whenSaveSameDocument_thenSkipWithoutListingDrafts() {
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexEnabled", true);
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexTtlSeconds", 60L);
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexMaxSize", 10L);
+        final SimpleMeterRegistry meterRegistry = enableSkipUnchangedWrites();
+        mockAuthentication();
+
+        final Map<String, Object> data = ImmutableMap.of("a", 1);
+        final CreateDraft createDraft = new CreateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT, 2);
+
+        when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
+        when(draftStoreClient.createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(ResponseEntity.created(URI.create("/drafts/" + DRAFT_ID)).build());
+
+        classUnderTest.createDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+
+        verify(draftStoreClient, never()).getAllDrafts(anyString(), anyString(), anyString());
+        verify(draftStoreClient, never()).updateSingleDraft(anyString(), any(), anyString(), anyString(), anyString());
+        assertEquals(1, meterRegistry.get("draft.store.draft.writes").tag("outcome", "skipped").counter().count(), 0);
+    }
+
+    @Test
+    public void givenDraftForgotten_whenSaveSameDocument_thenLookUpDraftsAndWriteAgain() {
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexEnabled", true);
+        enableSkipUnchangedWrites();
+        mockAuthentication();
+
+        final Map<String, Object> data = ImmutableMap.of("a", 1);
+        final CreateDraft createDraft = new CreateDraft(data, TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT, 2);
+
+        when(modelFactory.createDraft(data, DIVORCE_FORMAT)).thenReturn(createDraft);
+        when(draftStoreClient.createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(ResponseEntity.created(URI.create("/drafts/" + DRAFT_ID)).build());
+        when(draftStoreClient.getAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
+            .thenReturn(new DraftList(Collections.emptyList(), new DraftList.PagingCursors(null)));
+
+        classUnderTest.createDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+        classUnderTest.forgetDraft(USER_ID);
+        classUnderTest.saveDraft(TEST_AUTHORISATION, data, DIVORCE_FORMAT);
+
+        verify(draftStoreClient).getAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+        verify(draftStoreClient, times(2))
+            .createSingleDraft(createDraft, TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID);
+    }
+
+    private SimpleMeterRegistry enableSkipUnchangedWrites() {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ReflectionTestUtils.setField(classUnderTest, "skipUnchangedWritesEnabled", true);
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexTtlSeconds", 60L);
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexMaxSize", 10L);
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper());
+        classUnderTest.init();
+
+        return meterRegistry;
+    }
+
+    private void enableDraftIdIndex() {
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexEnabled", true);
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexTtlSeconds", 60L);
+        ReflectionTestUtils.setField(classUnderTest, "draftIdIndexMaxSize", 10L);
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", new SimpleMeterRegistry());
+        classUnderTest.init();
+    }
+
+    private static FeignException notFound() {
+        Request request = Request.create(Request.HttpMethod.PUT, "/drafts/" + DRAFT_ID, Collections.emptyMap(), null,
+            StandardCharsets.UTF_8, null);
+
+        return FeignException.errorStatus("updateSingleDraft", Response.builder()
+            .status(404)
+            .request(request)
+            .headers(Collections.emptyMap())
+            .build());
+    }
+
+    private void mockAuthentication() {
         when(userService.retrieveUser(TEST_BEARER_AUTHORISATION)).thenReturn(createUserDetails());
         when(serviceTokenGenerator.generate()).thenReturn(TEST_SERVICE_TOKEN);
         when(encryptionKeyFactory.createEncryptionKey(USER_ID)).thenReturn(ENCRYPTED_USER_ID);
+    }
+
+    private void mockGetDraftsAndReturn(String after, DraftList draftList) {
+        mockAuthentication();
 
         if (after == null) {
             when(draftStoreClient.getAllDrafts(TEST_BEARER_AUTHORISATION, TEST_SERVICE_TOKEN, ENCRYPTED_USER_ID))
@@ -2,13 +2,16 @@ package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.client.FormatterServiceClient;
 import uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseState;
@@ -28,6 +31,11 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.allOf;
@@ -40,7 +48,9 @@ import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -48,6 +58,7 @@ import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTHORISATION;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_CASE_REF;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_DRAFT_DOCUMENT_TYPE_CCD_FORMAT;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_DRAFT_DOC_TYPE_DIVORCE_FORMAT;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_REASON_ADULTERY;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_REASON_UNREASONABLE_BEHAVIOUR;
@@ -55,6 +66,7 @@ import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.T
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.PETITIONER_CASE_STATE_GROUPING;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CaseRetrievalStateMap.RESPONDENT_CASE_STATE_GROUPING;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_CASE_REFERENCE;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_DIVORCE_UNIT;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_DOCUMENTS_GENERATED;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_DOCUMENTS_UPLOADED;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.D8_REASON_FOR_DIVORCE;
@@ -66,6 +78,7 @@ import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.Cc
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_INSUFFICIENT_DETAILS;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_CRITERIA;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CcdCaseProperties.REJECTION_NO_JURISDICTION;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CmsConstants.CTSC_SERVICE_CENTRE;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CmsConstants.D_8_CONNECTIONS;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CmsConstants.D_8_DIVORCE_WHO;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.CmsConstants.D_8_HELP_WITH_FEES_NEED_HELP;
@@ -84,6 +97,7 @@ public class PetitionServiceImplUTest {
     private static final String USER_FIRST_NAME = "John";
     private static final String TWO_YEAR_SEPARATION = "2yr-separation";
     private static final String DRAFT_ID = "1";
+    private static final String USER_ID = "1";
 
     @Captor
     private ArgumentCaptor<Object> ccdCaseDataArgumentCaptor;
@@ -94,6 +108,15 @@ public class PetitionServiceImplUTest {
     @Mock
     private DraftServiceImpl draftService;
 
+    @Mock
+    private DraftDeletionOutbox draftDeletionOutbox;
+
+    @Mock
+    private DraftSaveCoalescer draftSaveCoalescer;
+
+    @Mock
+    private CcdFormatDraftMigrator ccdFormatDraftMigrator;
+
     @Mock
     private FormatterServiceClient formatterServiceClient;
 
@@ -103,6 +126,11 @@ public class PetitionServiceImplUTest {
     @InjectMocks
     private PetitionServiceImpl classUnderTest;
 
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(classUnderTest, "upstreamLookupExecutor", (Executor) Runnable::run);
+    }
+
     @Test
     public void givenCcdRetrievalServiceReturnsCase_whenRetrievePetition_thenProceedAsExpected() {
         final CaseDetails caseDetails = CaseDetails.builder().build();
@@ -115,6 +143,23 @@ public class PetitionServiceImplUTest {
         verify(ccdRetrievalService).retrieveCase(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING, PETITIONER);
     }
 
+    @Test
+    public void givenOnlyCcdFormatDraft_whenRetrievePetition_thenTransformAndMigrateDraft() {
+        final Map<String, Object> ccdFormatData = Collections.singletonMap("D8PetitionerFirstName", USER_FIRST_NAME);
+        final Map<String, Object> divorceFormatData = Collections.singletonMap("petitionerFirstName", USER_FIRST_NAME);
+        final Draft draft = new Draft(DRAFT_ID, ccdFormatData, TEST_DRAFT_DOCUMENT_TYPE_CCD_FORMAT);
+
+        when(draftService.getDraft(TEST_AUTH_TOKEN)).thenReturn(draft);
+        when(draftService.isInCcdFormat(draft)).thenReturn(true);
+        when(formatterServiceClient.transformToDivorceFormat(ccdFormatData, TEST_AUTH_TOKEN)).thenReturn(divorceFormatData);
+
+        CaseDetails actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING);
+
+        assertEquals(USER_FIRST_NAME, actual.getData().get("petitionerFirstName"));
+        assertEquals(true, actual.getData().get(PetitionServiceImpl.IS_DRAFT_KEY));
+        verify(ccdFormatDraftMigrator).migrate(TEST_AUTH_TOKEN, draft, divorceFormatData);
+    }
+
     @Test
     public void givenCcdRetrievalServiceReturnsAmendCase_whenRetrievePetition_thenReturnCaseAsDraft() {
         final CaseDetails caseDetails = buildAdulteryCaseData();
@@ -195,6 +240,35 @@ public class PetitionServiceImplUTest {
         verify(ccdRetrievalService).retrieveCase(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING, PETITIONER);
     }
 
+    @Test
+    public void givenDraftAndCase_whenRetrievePetition_thenLookThemUpConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(classUnderTest, "upstreamLookupExecutor", executor);
+
+        final CountDownLatch bothLookupsStarted = new CountDownLatch(2);
+        final CaseDetails caseDetails = CaseDetails.builder().build();
+
+        when(draftService.getDraft(TEST_AUTH_TOKEN)).thenAnswer(invocation -> {
+            bothLookupsStarted.countDown();
+            bothLookupsStarted.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        when(ccdRetrievalService.retrieveCase(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING, PETITIONER)).thenAnswer(invocation -> {
+            bothLookupsStarted.countDown();
+            bothLookupsStarted.await(5, TimeUnit.SECONDS);
+            return caseDetails;
+        });
+
+        try {
+            CaseDetails actual = classUnderTest.retrievePetition(TEST_AUTH_TOKEN, PETITIONER_CASE_STATE_GROUPING);
+
+            assertEquals(caseDetails, actual);
+            assertEquals(0, bothLookupsStarted.getCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void givenNoDataInCcdOrDraft_whenRetrievePetition_thenReturnNull() {
 
@@ -255,7 +329,7 @@ public class PetitionServiceImplUTest {
 
         classUnderTest.saveDraft(TEST_AUTH_TOKEN, data, DIVORCE_FORMAT);
 
-        verify(draftService).saveDraft(TEST_AUTH_TOKEN, data, DIVORCE_FORMAT);
+        verify(draftSaveCoalescer).saveDraft(TEST_AUTH_TOKEN, data, DIVORCE_FORMAT);
     }
 
     @Test
@@ -286,10 +360,13 @@ public class PetitionServiceImplUTest {
         final CaseSubmittedEvent caseSubmittedEvent = mock(CaseSubmittedEvent.class);
 
         when(caseSubmittedEvent.getAuthToken()).thenReturn(TEST_AUTH_TOKEN);
+        when(caseSubmittedEvent.getUserId()).thenReturn(USER_ID);
 
         classUnderTest.onApplicationEvent(caseSubmittedEvent);
 
-        verify(draftService).deleteDraft(TEST_AUTH_TOKEN);
+        InOrder inOrder = inOrder(draftSaveCoalescer, draftDeletionOutbox);
+        inOrder.verify(draftSaveCoalescer).discardForUser(USER_ID);
+        inOrder.verify(draftDeletionOutbox).deleteDrafts(TEST_AUTH_TOKEN, USER_ID);
     }
 
     @Test
@@ -323,6 +400,32 @@ public class PetitionServiceImplUTest {
         ));
     }
 
+    @Test
+    public void whenCreateAmendedPetitionDraft_thenLeaveRetrievedCaseUntouched() {
+        final List<String> previousReasons = new ArrayList<>();
+        final Map<String, Object> caseData = new HashMap<>();
+        caseData.put(D8_CASE_REFERENCE, TEST_CASE_ID);
+        caseData.put(D8_REASON_FOR_DIVORCE, TEST_REASON_ADULTERY);
+        caseData.put(PREVIOUS_REASONS_DIVORCE, previousReasons);
+        final Map<String, Object> originalCaseData = new HashMap<>(caseData);
+
+        final CaseDetails caseDetails = CaseDetails.builder().data(caseData)
+            .id(Long.decode(TEST_CASE_ID)).build();
+
+        final User user = new User(TEST_AUTH_TOKEN, UserDetails.builder().forename(USER_FIRST_NAME).build());
+        when(ccdRetrievalService.retrieveCase(TEST_AUTH_TOKEN, PETITIONER)).thenReturn(caseDetails);
+        when(userService.retrieveUser(TEST_AUTH_TOKEN)).thenReturn(user);
+
+        classUnderTest.createAmendedPetitionDraft(TEST_AUTH_TOKEN);
+
+        assertEquals(originalCaseData, caseData);
+        assertTrue(previousReasons.isEmpty());
+        assertThat(verifyCcdCaseDataToBeTransformed(), allOf(
+            not(hasKey(D8_REASON_FOR_DIVORCE)),
+            hasEntry(D8_DIVORCE_UNIT, CTSC_SERVICE_CENTRE)
+        ));
+    }
+
     @Test
     public void givenCaseWasNotIssued_whenCreateAmendedPetitionDraft_thenProceedAsExpected() {
         final Map<String, Object> caseData = new HashMap<>();
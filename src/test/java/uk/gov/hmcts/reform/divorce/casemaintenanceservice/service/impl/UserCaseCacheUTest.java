@@ -0,0 +1,169 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole.PETITIONER;
+import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.domain.model.DivCaseRole.RESPONDENT;
+
+public class UserCaseCacheUTest {
+
+    private static final String USER_ID = "someUserId";
+    private static final String OTHER_USER_ID = "someOtherUserId";
+
+    private final UserCaseCache classUnderTest = new UserCaseCache();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    public void givenCacheDisabled_whenGetCases_thenSearchEveryTime() {
+        Supplier<List<CaseDetails>> search = search(caseDetails(1L, "Submitted"));
+
+        classUnderTest.init();
+        classUnderTest.getCases(USER_ID, PETITIONER, search);
+        classUnderTest.getCases(USER_ID, PETITIONER, search);
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    public void givenNoRole_whenGetCases_thenSearchEveryTime() {
+        enableCache();
+        Supplier<List<CaseDetails>> search = search(caseDetails(1L, "Submitted"));
+
+        classUnderTest.getCases(USER_ID, null, search);
+        classUnderTest.getCases(USER_ID, null, search);
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    public void givenCasesCached_whenGetCases_thenServeFreshCopyPerUserAndRole() {
+        enableCache();
+        Supplier<List<CaseDetails>> search = search(caseDetails(1L, "Submitted"));
+
+        List<CaseDetails> first = classUnderTest.getCases(USER_ID, PETITIONER, search);
+        first.get(0).setState("AwaitingDecreeNisi");
+        List<CaseDetails> second = classUnderTest.getCases(USER_ID, PETITIONER, search);
+
+        assertEquals(1, searches.get());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals("Submitted", second.get(0).getState());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "ccd.user.cases")
+            .tag("result", "hit").functionCounter().count(), 0);
+
+        classUnderTest.getCases(USER_ID, RESPONDENT, search);
+        classUnderTest.getCases(OTHER_USER_ID, PETITIONER, search);
+
+        assertEquals(3, searches.get());
+    }
+
+    @Test
+    public void givenCasesCached_whenAddCase_thenAppendToCachedList() {
+        enableCache();
+        classUnderTest.getCases(USER_ID, PETITIONER, search(caseDetails(1L, "Rejected")));
+
+        classUnderTest.addCase(USER_ID, PETITIONER, caseDetails(2L, "AwaitingPayment"));
+
+        List<CaseDetails> cases = classUnderTest.getCases(USER_ID, PETITIONER, search());
+        assertEquals(1, searches.get());
+        assertEquals(ImmutableList.of(1L, 2L), ImmutableList.of(cases.get(0).getId(), cases.get(1).getId()));
+    }
+
+    @Test
+    public void givenNothingCached_whenAddCase_thenSearchOnNextLookup() {
+        enableCache();
+
+        classUnderTest.addCase(USER_ID, PETITIONER, caseDetails(2L, "AwaitingPayment"));
+        classUnderTest.getCases(USER_ID, PETITIONER, search(caseDetails(1L, "Rejected"), caseDetails(2L, "AwaitingPayment")));
+
+        assertEquals(1, searches.get());
+    }
+
+    @Test
+    public void givenCasesCached_whenUpdateCase_thenReplaceItInEveryRole() {
+        enableCache();
+        classUnderTest.getCases(USER_ID, PETITIONER, search(caseDetails(1L, "Submitted")));
+        classUnderTest.getCases(USER_ID, RESPONDENT, search(caseDetails(1L, "Submitted"), caseDetails(2L, "Issued")));
+
+        classUnderTest.updateCase(USER_ID, caseDetails(1L, "AosStarted"));
+        classUnderTest.updateCase(USER_ID, caseDetails(3L, "Issued"));
+
+        List<CaseDetails> petitionerCases = classUnderTest.getCases(USER_ID, PETITIONER, search());
+        List<CaseDetails> respondentCases = classUnderTest.getCases(USER_ID, RESPONDENT, search());
+
+        assertEquals(2, searches.get());
+        assertEquals(1, petitionerCases.size());
+        assertEquals("AosStarted", petitionerCases.get(0).getState());
+        assertEquals(2, respondentCases.size());
+        assertEquals("AosStarted", respondentCases.get(0).getState());
+        assertEquals("Issued", respondentCases.get(1).getState());
+    }
+
+    @Test
+    public void givenCasesCached_whenInvalidate_thenSearchAgainForThatUserOnly() {
+        enableCache();
+        Supplier<List<CaseDetails>> search = search(caseDetails(1L, "Submitted"));
+        classUnderTest.getCases(USER_ID, PETITIONER, search);
+        classUnderTest.getCases(USER_ID, RESPONDENT, search);
+        classUnderTest.getCases(OTHER_USER_ID, PETITIONER, search);
+
+        classUnderTest.invalidate(USER_ID);
+
+        classUnderTest.getCases(USER_ID, PETITIONER, search);
+        classUnderTest.getCases(USER_ID, RESPONDENT, search);
+        classUnderTest.getCases(OTHER_USER_ID, PETITIONER, search);
+
+        assertEquals(5, searches.get());
+    }
+
+    @Test
+    public void givenNoCasesFound_whenGetCasesAgain_thenServeEmptyListFromCache() {
+        enableCache();
+
+        classUnderTest.getCases(USER_ID, PETITIONER, search());
+
+        assertTrue(classUnderTest.getCases(USER_ID, PETITIONER, search()).isEmpty());
+        assertEquals(1, searches.get());
+    }
+
+    private Supplier<List<CaseDetails>> search(CaseDetails... cases) {
+        return () -> {
+            searches.incrementAndGet();
+            return ImmutableList.copyOf(cases);
+        };
+    }
+
+    private static CaseDetails caseDetails(Long id, String state) {
+        return CaseDetails.builder()
+            .id(id)
+            .state(state)
+            .createdDate(LocalDateTime.now())
+            .data(new HashMap<>(ImmutableMap.of("D8caseReference", "LV17D8" + id)))
+            .build();
+    }
+
+    private void enableCache() {
+        ReflectionTestUtils.setField(classUnderTest, "enabled", true);
+        ReflectionTestUtils.setField(classUnderTest, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(classUnderTest, "maxSize", 100L);
+        ReflectionTestUtils.setField(classUnderTest, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+        classUnderTest.init();
+    }
+}
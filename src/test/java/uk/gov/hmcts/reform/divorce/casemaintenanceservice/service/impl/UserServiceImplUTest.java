@@ -1,5 +1,8 @@
 package uk.gov.hmcts.reform.divorce.casemaintenanceservice.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,7 +14,20 @@ import uk.gov.hmcts.reform.idam.client.IdamClient;
 import uk.gov.hmcts.reform.idam.client.models.User;
 import uk.gov.hmcts.reform.idam.client.models.UserDetails;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.TEST_AUTH_TOKEN;
@@ -20,6 +36,10 @@ import static uk.gov.hmcts.reform.divorce.casemaintenanceservice.TestConstants.T
 public class UserServiceImplUTest {
     private static final String CASEWORKER_USER_NAME = "caseworker user name";
     private static final String CASEWORKER_PASSWORD = "caseworker password";
+    private static final long CACHE_TTL_SECONDS = 300;
+    private static final long CASEWORKER_TOKEN_MAX_AGE_SECONDS = 3600;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @Mock
     private IdamClient idamClient;
@@ -31,6 +51,18 @@ public class UserServiceImplUTest {
     public void setup() {
         ReflectionTestUtils.setField(classUnderTest, "caseworkerUserName", CASEWORKER_USER_NAME);
         ReflectionTestUtils.setField(classUnderTest, "caseworkerPassword", CASEWORKER_PASSWORD);
+        ReflectionTestUtils.setField(classUnderTest, "userCacheTtlSeconds", CACHE_TTL_SECONDS);
+        ReflectionTestUtils.setField(classUnderTest, "userCacheMaxSize", 10L);
+        ReflectionTestUtils.setField(classUnderTest, "caseWorkerTokenMaxAgeSeconds", CASEWORKER_TOKEN_MAX_AGE_SECONDS);
+        ReflectionTestUtils.setField(classUnderTest, "caseWorkerTokenRefreshAheadSeconds", 300L);
+        ReflectionTestUtils.setField(classUnderTest, "caseWorkerTokenMinRemainingSeconds", 60L);
+        ReflectionTestUtils.setField(classUnderTest, "meterRegistry", meterRegistry);
+        classUnderTest.init();
+    }
+
+    @After
+    public void tearDown() {
+        classUnderTest.shutdown();
     }
 
     @Test
@@ -66,4 +98,134 @@ public class UserServiceImplUTest {
         verify(idamClient).getUserDetails(bearerAuthToken);
         verify(idamClient).authenticateUser(CASEWORKER_USER_NAME, CASEWORKER_PASSWORD);
     }
+
+    @Test
+    public void givenCacheEnabled_whenRetrieveUserTwiceWithValidToken_thenCallIdamOnce() {
+        final String token = createToken(Instant.now().plusSeconds(CACHE_TTL_SECONDS * 2));
+        final UserDetails userDetails = UserDetails.builder().id("1").build();
+
+        ReflectionTestUtils.setField(classUnderTest, "userCacheEnabled", true);
+        when(idamClient.getUserDetails(token)).thenReturn(userDetails);
+
+        classUnderTest.retrieveUser(token);
+        User actual = classUnderTest.retrieveUser(token);
+
+        assertEquals(userDetails, actual.getUserDetails());
+        assertEquals(token, actual.getAuthToken());
+
+        verify(idamClient).getUserDetails(token);
+    }
+
+    @Test
+    public void givenCacheEnabled_whenRetrieveUserWithExpiredToken_thenDoNotCache() {
+        final String token = createToken(Instant.now().minusSeconds(1));
+        final UserDetails userDetails = UserDetails.builder().id("1").build();
+
+        ReflectionTestUtils.setField(classUnderTest, "userCacheEnabled", true);
+        when(idamClient.getUserDetails(token)).thenReturn(userDetails);
+
+        classUnderTest.retrieveUser(token);
+        classUnderTest.retrieveUser(token);
+
+        verify(idamClient, times(2)).getUserDetails(token);
+    }
+
+    @Test
+    public void givenCacheEnabled_whenRetrieveUserWithTokenWithoutExpiry_thenDoNotCache() {
+        final UserDetails userDetails = UserDetails.builder().id("1").build();
+
+        ReflectionTestUtils.setField(classUnderTest, "userCacheEnabled", true);
+        when(idamClient.getUserDetails(TEST_AUTH_TOKEN)).thenReturn(userDetails);
+
+        classUnderTest.retrieveUser(TEST_AUTH_TOKEN);
+        classUnderTest.retrieveUser(TEST_AUTH_TOKEN);
+
+        verify(idamClient, times(2)).getUserDetails(TEST_AUTH_TOKEN);
+    }
+
+    @Test
+    public void givenCacheDisabled_whenRetrieveUserTwice_thenCallIdamEveryTime() {
+        final String token = createToken(Instant.now().plusSeconds(CACHE_TTL_SECONDS));
+        final UserDetails userDetails = UserDetails.builder().id("1").build();
+
+        ReflectionTestUtils.setField(classUnderTest, "userCacheEnabled", false);
+        when(idamClient.getUserDetails(token)).thenReturn(userDetails);
+
+        classUnderTest.retrieveUser(token);
+        classUnderTest.retrieveUser(token);
+
+        verify(idamClient, times(2)).getUserDetails(token);
+    }
+
+    @Test
+    public void givenCaseWorkerTokenStillValid_whenRetrieveAnonymousCaseWorkerDetailsTwice_thenLoginOnce() {
+        final String bearerAuthToken = IdamClient.BEARER_AUTH_TYPE + " " + TEST_AUTH_TOKEN;
+        final UserDetails userDetails = UserDetails.builder().id("2").build();
+
+        when(idamClient.authenticateUser(CASEWORKER_USER_NAME, CASEWORKER_PASSWORD)).thenReturn(bearerAuthToken);
+        when(idamClient.getUserDetails(bearerAuthToken)).thenReturn(userDetails);
+
+        User first = classUnderTest.retrieveAnonymousCaseWorkerDetails();
+        User second = classUnderTest.retrieveAnonymousCaseWorkerDetails();
+
+        assertSame(first, second);
+        assertEquals(1, meterRegistry.get("idam.caseworker.token.refresh").timer().count());
+        assertTrue(meterRegistry.get("idam.caseworker.token.age").gauge().value() >= 0);
+
+        verify(idamClient).authenticateUser(CASEWORKER_USER_NAME, CASEWORKER_PASSWORD);
+        verify(idamClient).getUserDetails(bearerAuthToken);
+    }
+
+    @Test
+    public void givenCaseWorkerTokenExpired_whenRetrieveAnonymousCaseWorkerDetailsTwice_thenLoginEveryTime() {
+        final String expiredToken = createToken(Instant.now().minusSeconds(1));
+        final UserDetails userDetails = UserDetails.builder().id("2").build();
+
+        when(idamClient.authenticateUser(CASEWORKER_USER_NAME, CASEWORKER_PASSWORD)).thenReturn(expiredToken);
+        when(idamClient.getUserDetails(expiredToken)).thenReturn(userDetails);
+
+        classUnderTest.retrieveAnonymousCaseWorkerDetails();
+        classUnderTest.retrieveAnonymousCaseWorkerDetails();
+
+        verify(idamClient, times(2)).authenticateUser(CASEWORKER_USER_NAME, CASEWORKER_PASSWORD);
+        verify(idamClient, times(2)).getUserDetails(expiredToken);
+    }
+
+    @Test
+    public void givenConcurrentRequests_whenRetrieveAnonymousCaseWorkerDetails_thenLoginOnlyOnce() throws Exception {
+        final String token = createToken(Instant.now().plusSeconds(CASEWORKER_TOKEN_MAX_AGE_SECONDS));
+        final UserDetails userDetails = UserDetails.builder().id("2").build();
+
+        when(idamClient.authenticateUser(CASEWORKER_USER_NAME, CASEWORKER_PASSWORD)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return token;
+        });
+        when(idamClient.getUserDetails(token)).thenReturn(userDetails);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Callable<User>> requests = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                requests.add(classUnderTest::retrieveAnonymousCaseWorkerDetails);
+            }
+
+            for (Future<User> result : executorService.invokeAll(requests)) {
+                assertEquals(token, result.get().getAuthToken());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        verify(idamClient).authenticateUser(CASEWORKER_USER_NAME, CASEWORKER_PASSWORD);
+        verify(idamClient).getUserDetails(token);
+    }
+
+    private static String createToken(Instant expiry) {
+        final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        final String claims = "{\"sub\":\"user\",\"exp\":" + expiry.getEpochSecond() + "}";
+
+        return IdamClient.BEARER_AUTH_TYPE + " "
+            + encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+            + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
 }
@@ -4,8 +4,13 @@ import org.junit.Test;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 public class AuthUtilUTest {
@@ -38,6 +43,28 @@ public class AuthUtilUTest {
         testGetBearToken("Bearer SomeToken", "Bearer SomeToken");
     }
 
+    @Test
+    public void givenJwtWithExpiry_whenGetTokenExpiry_thenReturnExpiry() {
+        final Instant expiry = Instant.ofEpochSecond(1519303427L);
+        final String claims = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(("{\"exp\":" + expiry.getEpochSecond() + "}").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Optional.of(expiry), AuthUtil.getTokenExpiry("Bearer header." + claims + ".signature"));
+    }
+
+    @Test
+    public void givenTokenIsNotJwt_whenGetTokenExpiry_thenReturnEmpty() {
+        assertEquals(Optional.empty(), AuthUtil.getTokenExpiry("SomeToken"));
+        assertEquals(Optional.empty(), AuthUtil.getTokenExpiry("Bearer a.!!!.c"));
+        assertEquals(Optional.empty(), AuthUtil.getTokenExpiry(null));
+    }
+
+    @Test
+    public void givenTokenWithAndWithoutBearer_whenHashToken_thenReturnSameHash() {
+        assertEquals(AuthUtil.hashToken("SomeToken"), AuthUtil.hashToken("Bearer SomeToken"));
+        assertNotEquals(AuthUtil.hashToken("SomeToken"), AuthUtil.hashToken("OtherToken"));
+    }
+
     private void testGetBearToken(String input, String expected) {
         assertEquals(AuthUtil.getBearerToken(input), expected);
     }
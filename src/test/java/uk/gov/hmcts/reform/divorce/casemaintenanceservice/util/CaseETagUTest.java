@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import org.junit.Test;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CaseETagUTest {
+
+    private static final LocalDateTime LAST_MODIFIED = LocalDateTime.of(2020, 5, 1, 10, 30);
+
+    @Test
+    public void givenSameVersion_thenSameStrongETag() {
+        String eTag = CaseETag.of(caseDetails(1L, LAST_MODIFIED, "AwaitingDecreeNisi")).get();
+
+        assertEquals(eTag, CaseETag.of(caseDetails(1L, LAST_MODIFIED, "AwaitingDecreeNisi")).get());
+        assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+    }
+
+    @Test
+    public void givenAnyVersionComponentChanges_thenETagChanges() {
+        String eTag = CaseETag.of(caseDetails(1L, LAST_MODIFIED, "AwaitingDecreeNisi")).get();
+
+        assertNotEquals(eTag, CaseETag.of(caseDetails(2L, LAST_MODIFIED, "AwaitingDecreeNisi")).get());
+        assertNotEquals(eTag, CaseETag.of(caseDetails(1L, LAST_MODIFIED.plusSeconds(1), "AwaitingDecreeNisi")).get());
+        assertNotEquals(eTag, CaseETag.of(caseDetails(1L, LAST_MODIFIED, "DNAwaiting")).get());
+        assertNotEquals(eTag, CaseETag.of(caseDetails(1L, LAST_MODIFIED, "AwaitingDecreeNisi"), "D8caseReference").get());
+        assertEquals(eTag, CaseETag.of(caseDetails(1L, LAST_MODIFIED, "AwaitingDecreeNisi"), "").get());
+    }
+
+    @Test
+    public void givenCaseNotInCcd_thenNoETag() {
+        assertFalse(CaseETag.of(null).isPresent());
+        assertFalse(CaseETag.of(caseDetails(null, null, null)).isPresent());
+        assertFalse(CaseETag.of(caseDetails(1L, null, "AwaitingPayment")).isPresent());
+    }
+
+    @Test
+    public void givenIfNoneMatch_thenMatchListedTagsWildcardAndWeakForms() {
+        String eTag = CaseETag.of(caseDetails(1L, LAST_MODIFIED, "AwaitingDecreeNisi")).get();
+
+        assertTrue(CaseETag.matches(eTag, eTag));
+        assertTrue(CaseETag.matches("W/" + eTag, eTag));
+        assertTrue(CaseETag.matches("\"other\", " + eTag, eTag));
+        assertTrue(CaseETag.matches("*", eTag));
+
+        assertFalse(CaseETag.matches(null, eTag));
+        assertFalse(CaseETag.matches(" ", eTag));
+        assertFalse(CaseETag.matches("\"other\"", eTag));
+    }
+
+    private static CaseDetails caseDetails(Long id, LocalDateTime lastModified, String state) {
+        return CaseDetails.builder()
+            .id(id)
+            .lastModified(lastModified)
+            .state(state)
+            .data(Collections.emptyMap())
+            .build();
+    }
+}
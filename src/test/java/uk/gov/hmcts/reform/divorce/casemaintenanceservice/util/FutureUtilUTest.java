@@ -0,0 +1,98 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FutureUtilUTest {
+
+    @After
+    public void tearDown() {
+        Thread.interrupted();
+    }
+
+    @Test
+    public void testConstructorPrivate() throws Exception {
+        Constructor<FutureUtil> constructor = FutureUtil.class.getDeclaredConstructor();
+        assertTrue(Modifier.isPrivate(constructor.getModifiers()));
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void givenCompletedFuture_whenAwait_thenReturnItsValue() throws Exception {
+        assertEquals("value", FutureUtil.await(CompletableFuture.completedFuture("value")));
+        assertEquals("value", FutureUtil.await(CompletableFuture.completedFuture("value"), 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void givenFutureFailedWithRuntimeException_whenAwait_thenRethrowIt() {
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        try {
+            FutureUtil.await(failedFuture(failure));
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void givenFutureFailedWithRuntimeException_whenAwaitWithTimeout_thenRethrowIt() throws Exception {
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        try {
+            FutureUtil.await(failedFuture(failure), 1, TimeUnit.SECONDS);
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void givenFutureFailedWithCheckedException_whenAwaitWithTimeout_thenThrowCompletionException() throws Exception {
+        Exception failure = new Exception("failed");
+
+        try {
+            FutureUtil.await(failedFuture(failure), 1, TimeUnit.SECONDS);
+            fail("Expected a CompletionException");
+        } catch (CompletionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void givenFutureNotDoneInTime_whenAwaitWithTimeout_thenThrowTimeoutException() throws Exception {
+        FutureUtil.await(new CompletableFuture<>(), 10, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void givenInterruptedThread_whenAwaitWithTimeout_thenThrowCompletionExceptionAndKeepInterrupt() throws Exception {
+        Thread.currentThread().interrupt();
+
+        try {
+            FutureUtil.await(new CompletableFuture<>(), 1, TimeUnit.SECONDS);
+            fail("Expected a CompletionException");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+            assertTrue(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable failure) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+        return future;
+    }
+}
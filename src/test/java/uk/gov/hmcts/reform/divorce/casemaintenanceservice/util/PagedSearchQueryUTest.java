@@ -0,0 +1,106 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.divorce.casemaintenanceservice.exception.InvalidRequestException;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class PagedSearchQueryUTest {
+
+    @Test
+    public void givenNoFromOrSize_whenOf_thenStartAtFirstHitWithNoLimit() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"query\":{\"match_all\":{}}}");
+
+        assertEquals(0, query.getFrom());
+        assertEquals(Integer.MAX_VALUE, query.getLimit());
+    }
+
+    @Test
+    public void givenFromAndSize_whenOf_thenUseThemAsStartAndLimit() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"query\":{},\"from\":20,\"size\":500}");
+
+        assertEquals(20, query.getFrom());
+        assertEquals(500, query.getLimit());
+    }
+
+    @Test
+    public void whenFirstPage_thenStartFromTheCallersFromKeepingTheRestOfTheQuery() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"size\":500,\"query\":{\"match_all\":{}},\"from\":20}");
+
+        assertEquals("{\"query\":{\"match_all\":{}},\"sort\":[{\"reference\":\"asc\"}],\"from\":20,\"size\":100}",
+            query.page(100, null));
+    }
+
+    @Test
+    public void whenNextPage_thenContinueAfterTheLastCase() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"size\":500,\"query\":{\"match_all\":{}},\"from\":20}");
+
+        assertEquals("{\"query\":{\"match_all\":{}},\"sort\":[{\"reference\":\"asc\"}],\"search_after\":[1234],\"size\":100}",
+            query.page(100, CaseDetails.builder().id(1234L).build()));
+    }
+
+    @Test
+    public void givenSort_whenPage_thenBreakTiesByReference() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"query\":{},\"sort\":[{\"created_date\":\"desc\"}]}");
+
+        assertEquals("{\"query\":{},\"sort\":[{\"created_date\":\"desc\"},{\"reference\":\"asc\"}],\"from\":0,\"size\":100}",
+            query.page(100, null));
+    }
+
+    @Test
+    public void givenSingleSortField_whenPage_thenBreakTiesByReference() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"query\":{},\"sort\":\"state\"}");
+
+        assertEquals("{\"query\":{},\"sort\":[\"state\",{\"reference\":\"asc\"}],\"from\":0,\"size\":100}", query.page(100, null));
+    }
+
+    @Test
+    public void givenSortByReference_whenPage_thenKeepTheCallersSort() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"query\":{},\"sort\":[\"state\",{\"reference\":{\"order\":\"desc\"}}]}");
+
+        assertEquals("{\"query\":{},\"sort\":[\"state\",{\"reference\":{\"order\":\"desc\"}}],\"from\":0,\"size\":100}",
+            query.page(100, null));
+    }
+
+    @Test
+    public void givenSortByCaseFields_whenNextPage_thenContinueAfterTheLastCasesValues() throws Exception {
+        PagedSearchQuery query = PagedSearchQuery.of(
+            "{\"query\":{},\"sort\":[{\"created_date\":\"desc\"},\"data.D8PetitionerLastName.keyword\"]}");
+        CaseDetails last = CaseDetails.builder()
+            .id(1234L)
+            .createdDate(LocalDateTime.of(2020, 1, 2, 3, 4, 5))
+            .data(ImmutableMap.of("D8PetitionerLastName", "Smith"))
+            .build();
+
+        assertEquals("[1577934245000,\"Smith\",1234]",
+            new ObjectMapper().readTree(query.page(100, last)).get("search_after").toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void givenLastCaseWithoutSortValue_whenNextPage_thenThrowIllegalStateException() {
+        PagedSearchQuery query = PagedSearchQuery.of("{\"query\":{},\"sort\":[\"data.D8PetitionerLastName\"]}");
+
+        query.page(100, CaseDetails.builder().id(1234L).data(Collections.emptyMap()).build());
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void givenSortByScore_whenOf_thenThrowInvalidRequestException() {
+        PagedSearchQuery.of("{\"query\":{},\"sort\":[\"_score\"]}");
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void givenInvalidJson_whenOf_thenThrowInvalidRequestException() {
+        PagedSearchQuery.of("{\"query\":");
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void givenJsonArray_whenOf_thenThrowInvalidRequestException() {
+        PagedSearchQuery.of("[]");
+    }
+}
@@ -0,0 +1,118 @@
+package uk.gov.hmcts.reform.divorce.casemaintenanceservice.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import uk.gov.hmcts.reform.idam.client.models.User;
+import uk.gov.hmcts.reform.idam.client.models.UserDetails;
+
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RequestAuthContextUTest {
+    private static final String USER_TOKEN = "Bearer UserToken";
+    private static final String OTHER_USER_TOKEN = "Bearer OtherUserToken";
+
+    private final AtomicInteger userLookups = new AtomicInteger();
+    private final AtomicInteger serviceTokenLookups = new AtomicInteger();
+
+    private MockHttpServletRequest request;
+    private ServletRequestAttributes requestAttributes;
+
+    @Before
+    public void setUp() {
+        request = new MockHttpServletRequest();
+        requestAttributes = new ServletRequestAttributes(request);
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void givenNoRequestBound_whenResolve_thenCallResolverEveryTime() {
+        RequestAuthContext.resolveUser(USER_TOKEN, this::lookUpUser);
+        RequestAuthContext.resolveUser(USER_TOKEN, this::lookUpUser);
+        RequestAuthContext.resolveServiceToken(this::generateServiceToken);
+        RequestAuthContext.resolveServiceToken(this::generateServiceToken);
+
+        assertEquals(2, userLookups.get());
+        assertEquals(2, serviceTokenLookups.get());
+    }
+
+    @Test
+    public void givenRequestBound_whenResolveTwice_thenResolveOncePerToken() {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+
+        User first = RequestAuthContext.resolveUser(USER_TOKEN, this::lookUpUser);
+        User second = RequestAuthContext.resolveUser("UserToken", this::lookUpUser);
+        User other = RequestAuthContext.resolveUser(OTHER_USER_TOKEN, this::lookUpUser);
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, userLookups.get());
+
+        assertEquals(
+            RequestAuthContext.resolveServiceToken(this::generateServiceToken),
+            RequestAuthContext.resolveServiceToken(this::generateServiceToken)
+        );
+        assertEquals(1, serviceTokenLookups.get());
+    }
+
+    @Test
+    public void givenRequestBound_whenResolveDraftSecret_thenResolveOnce() {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        AtomicInteger secretLookups = new AtomicInteger();
+
+        RequestAuthContext.resolveDraftSecret(USER_TOKEN, token -> "secret" + secretLookups.incrementAndGet());
+        String secret = RequestAuthContext.resolveDraftSecret(USER_TOKEN, token -> "secret" + secretLookups.incrementAndGet());
+
+        assertEquals("secret1", secret);
+        assertEquals(1, secretLookups.get());
+    }
+
+    @Test
+    public void givenRequestResolvedTokens_whenUpstreamCalls_thenCountCallsMadeByRequest() {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+
+        RequestAuthContext.resolveUser(USER_TOKEN, this::lookUpUser);
+        RequestAuthContext.resolveUser(USER_TOKEN, this::lookUpUser);
+        RequestAuthContext.resolveServiceToken(this::generateServiceToken);
+
+        assertEquals(OptionalInt.of(2), RequestAuthContext.upstreamCalls(request));
+    }
+
+    @Test
+    public void givenRequestResolvedNothing_whenUpstreamCalls_thenReturnEmpty() {
+        assertEquals(OptionalInt.empty(), RequestAuthContext.upstreamCalls(request));
+    }
+
+    @Test
+    public void givenNewRequest_whenResolve_thenDoNotReuseEarlierRequestState() {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        RequestAuthContext.resolveUser(USER_TOKEN, this::lookUpUser);
+        requestAttributes.requestCompleted();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        RequestAuthContext.resolveUser(USER_TOKEN, this::lookUpUser);
+
+        assertEquals(2, userLookups.get());
+    }
+
+    private User lookUpUser(String token) {
+        userLookups.incrementAndGet();
+        return new User(token, UserDetails.builder().id("1").build());
+    }
+
+    private String generateServiceToken() {
+        return "ServiceToken" + serviceTokenLookups.incrementAndGet();
+    }
+}